@@ -0,0 +1,218 @@
+package com.example.zad1.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Wariant SingleFlight dla odpowiedzi strumieniowanych: pierwszy wywołujący renderuje raz do pliku tymczasowego
+// i jednocześnie do własnej odpowiedzi, a równoczesne wywołania z tym samym kluczem czytają ten plik w miarę zapisu.
+public class SharedStream<K> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<K, Spool> inFlight = new HashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    public void stream(K key, Path spoolDir, Renderer renderer, OutputStream out) throws IOException {
+        calls.increment();
+        Spool spool;
+        FileChannel reader = null;
+        synchronized (this) {
+            spool = inFlight.get(key);
+            if (spool != null) {
+                reader = FileChannel.open(spool.path, StandardOpenOption.READ);
+                spool.followers++;
+            } else {
+                spool = new Spool(Files.createTempFile(spoolDir, "spool-", ".tmp"));
+                inFlight.put(key, spool);
+            }
+        }
+
+        if (reader != null) {
+            coalesced.increment();
+            try (FileChannel channel = reader) {
+                spool.copyTo(channel, out);
+            }
+            return;
+        }
+
+        executions.increment();
+        try {
+            spool.render(renderer, out);
+        } finally {
+            synchronized (this) {
+                inFlight.remove(key, spool);
+            }
+            try {
+                Files.deleteIfExists(spool.path);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public synchronized SingleFlight.Stats stats() {
+        return new SingleFlight.Stats(calls.sum(), executions.sum(), coalesced.sum(), inFlight.size());
+    }
+
+    private static final class Spool {
+        private final Path path;
+        private volatile int followers;
+        private long written;
+        private boolean done;
+        private Throwable failure;
+
+        Spool(Path path) {
+            this.path = path;
+        }
+
+        void render(Renderer renderer, OutputStream client) throws IOException {
+            Tee tee;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                 OutputStream file = new BufferedOutputStream(new Progress(channel), BUFFER_SIZE)) {
+                tee = new Tee(file, client);
+                renderer.render(tee);
+            } catch (IOException | RuntimeException | Error e) {
+                finish(e);
+                throw e;
+            }
+            finish(null);
+            if (tee.clientFailure != null) {
+                throw tee.clientFailure;
+            }
+        }
+
+        void copyTo(FileChannel channel, OutputStream out) throws IOException {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (true) {
+                long available;
+                synchronized (this) {
+                    while (!done && written <= position) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Przerwano oczekiwanie na raport");
+                        }
+                    }
+                    if (failure != null) {
+                        throw new IOException("Nie udało się wygenerować raportu", failure);
+                    }
+                    if (written <= position) {
+                        break;
+                    }
+                    available = written;
+                }
+                while (position < available) {
+                    long sent = channel.transferTo(position, available - position, target);
+                    if (sent <= 0) break;
+                    position += sent;
+                }
+            }
+            out.flush();
+        }
+
+        private synchronized void progress(long bytes) {
+            written += bytes;
+            notifyAll();
+        }
+
+        private synchronized void finish(Throwable error) {
+            done = true;
+            failure = error;
+            notifyAll();
+        }
+
+        private final class Progress extends OutputStream {
+            private final FileChannel channel;
+
+            Progress(FileChannel channel) {
+                this.channel = channel;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                progress(len);
+            }
+        }
+
+        // Zerwane połączenie pierwszego klienta nie przerywa renderowania, na które czekają inni.
+        private final class Tee extends OutputStream {
+            private final OutputStream file;
+            private final OutputStream client;
+            private IOException clientFailure;
+
+            Tee(OutputStream file, OutputStream client) {
+                this.file = file;
+                this.client = client;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                file.write(b, off, len);
+                if (clientFailure == null) {
+                    try {
+                        client.write(b, off, len);
+                    } catch (IOException e) {
+                        detach(e);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                file.flush();
+                if (clientFailure == null) {
+                    try {
+                        client.flush();
+                    } catch (IOException e) {
+                        detach(e);
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+
+            private void detach(IOException e) throws IOException {
+                if (followers == 0) {
+                    throw e;
+                }
+                clientFailure = e;
+            }
+        }
+    }
+}
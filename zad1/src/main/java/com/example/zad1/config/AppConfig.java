@@ -1,12 +1,21 @@
 package com.example.zad1.config;
 
 import com.google.gson.Gson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.net.http.HttpClient;
 
 @Configuration
+@EnableConfigurationProperties(ReportWarmupProperties.class)
 public class AppConfig {
 
     @Bean
@@ -18,4 +27,34 @@ public class AppConfig {
     public Gson gson() {
         return new Gson();
     }
+
+    // Własny executor importów wyłącza domyślny applicationTaskExecutor Boota (ten cofa się przy dowolnym beanie Executor),
+    // więc odtwarzamy go tutaj z tymi samymi nazwami i ustawieniami spring.task.execution.*.
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor importExecutor(@Value("${app.import.jobs.threads:2}") int threads,
+                                                 @Value("${app.import.jobs.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler reportWarmupScheduler(ReportWarmupProperties properties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.threads());
+        scheduler.setThreadNamePrefix("report-warmup-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
 }
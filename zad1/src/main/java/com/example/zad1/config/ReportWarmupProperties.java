@@ -0,0 +1,39 @@
+package com.example.zad1.config;
+
+import com.example.zad1.model.ReportType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.ZoneId;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.reports.warmup")
+public record ReportWarmupProperties(@DefaultValue("false") boolean enabled,
+                                     @DefaultValue("2") int threads,
+                                     ZoneId zone,
+                                     List<Spec> reports) {
+
+    public ReportWarmupProperties {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Liczba wątków rozgrzewania raportów musi być dodatnia");
+        }
+        zone = zone != null ? zone : ZoneId.systemDefault();
+        reports = reports != null ? List.copyOf(reports) : List.of();
+    }
+
+    public record Spec(ReportType type, String company, String cron) {
+
+        public Spec {
+            if (type == null) {
+                throw new IllegalArgumentException("Typ raportu jest wymagany");
+            }
+            if (type == ReportType.PDF && (company == null || company.isBlank())) {
+                throw new IllegalArgumentException("Raport PDF wymaga nazwy firmy");
+            }
+            if (cron == null || !CronExpression.isValidExpression(cron)) {
+                throw new IllegalArgumentException("Niepoprawne wyrażenie cron: " + cron);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.dto.DepartmentSummary;
+import com.example.zad1.service.DepartmentService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/departments")
+public class DepartmentController {
+
+    private final DepartmentService departmentService;
+
+    public DepartmentController(DepartmentService departmentService) {
+        this.departmentService = departmentService;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<DepartmentSummary>> summary() {
+        return ResponseEntity.ok(departmentService.getDepartmentSummaries());
+    }
+}
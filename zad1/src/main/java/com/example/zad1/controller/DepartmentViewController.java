@@ -1,5 +1,7 @@
 package com.example.zad1.controller;
 
+import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.ManagerCandidate;
 import com.example.zad1.model.Department;
 import com.example.zad1.model.DepartmentDocument;
 import com.example.zad1.model.DocumentType;
@@ -7,12 +9,15 @@ import com.example.zad1.model.Employee;
 import com.example.zad1.service.DepartmentDocumentService;
 import com.example.zad1.service.DepartmentService;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.FileDownloadService;
 import com.example.zad1.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -20,12 +25,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/departments")
@@ -35,26 +39,24 @@ public class DepartmentViewController {
     private final EmployeeService employeeService;
     private final DepartmentDocumentService departmentDocumentService;
     private final FileStorageService fileStorageService;
+    private final FileDownloadService fileDownloadService;
 
-    public DepartmentViewController(DepartmentService departmentService, EmployeeService employeeService, DepartmentDocumentService departmentDocumentService, FileStorageService fileStorageService) {
+    public DepartmentViewController(DepartmentService departmentService, EmployeeService employeeService, DepartmentDocumentService departmentDocumentService, FileStorageService fileStorageService,
+                                    FileDownloadService fileDownloadService) {
         this.departmentService = departmentService;
         this.employeeService = employeeService;
         this.departmentDocumentService = departmentDocumentService;
         this.fileStorageService = fileStorageService;
+        this.fileDownloadService = fileDownloadService;
     }
 
-    private List<Employee> getPotentialManagers() {
-        return employeeService.getAllEmployees().stream()
-                .filter(e -> e.getPosition() != null && e.getPosition().getHierarchy() <= 3)
-                .collect(Collectors.toList());
+    private List<ManagerCandidate> getPotentialManagers() {
+        return departmentService.getManagerCandidates();
     }
 
     @GetMapping
     public String listDepartments(Model model) {
-        model.addAttribute("departments", departmentService.getAllDepartments());
-        Map<String, String> employeeNames = employeeService.getAllEmployees().stream()
-                .collect(Collectors.toMap(Employee::getEmail, Employee::getFullName));
-        model.addAttribute("employeeNames", employeeNames);
+        model.addAttribute("departments", departmentService.getDepartmentSummaries());
         return "departments/list";
     }
 
@@ -114,15 +116,18 @@ public class DepartmentViewController {
     }
 
     @GetMapping("/details/{id}")
-    public String departmentDetails(@PathVariable Long id, Model model) {
+    public String departmentDetails(@PathVariable Long id,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    Model model) {
         Department department = departmentService.getDepartmentById(id).orElse(null);
         if (department == null) {
             model.addAttribute("message", "Nie znaleziono departamentu: " + id);
             return "error";
         }
-        List<Employee> employeesInDept = employeeService.getAllEmployees().stream()
-                .filter(e -> Objects.equals(e.getDepartmentId(), id))
-                .collect(Collectors.toList());
+        Page<EmployeeListView> employeesInDept = employeeService.getEmployeesInDepartment(id,
+                PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, EmployeeService.MAX_PAGE_SIZE)),
+                        Sort.by("lastName", "firstName", "id")));
 
         String managerName = department.getManagerEmail() != null ?
                 employeeService.getEmployeeByEmail(department.getManagerEmail())
@@ -130,7 +135,8 @@ public class DepartmentViewController {
                         .orElse("Brak danych") : "Nieprzypisany";
 
         model.addAttribute("department", department);
-        model.addAttribute("employeesInDept", employeesInDept);
+        model.addAttribute("employeesInDept", employeesInDept.getContent());
+        model.addAttribute("employeesPage", employeesInDept);
         model.addAttribute("managerName", managerName);
         return "departments/details";
     }
@@ -171,19 +177,17 @@ public class DepartmentViewController {
     }
 
     @GetMapping("/documents/{id}/download/{docId}")
-    public ResponseEntity<Resource> downloadDepartmentDocument(@PathVariable Long id, @PathVariable String docId) {
+    public void downloadDepartmentDocument(@PathVariable Long id, @PathVariable String docId,
+                                           HttpServletRequest request, HttpServletResponse response) throws IOException {
         DepartmentDocument doc = departmentDocumentService.findDocument(id, docId)
                 .orElseThrow(() -> new IllegalArgumentException("Nie znaleziono dokumentu"));
-        Resource res = fileStorageService.loadFromUploads("departments/" + id, doc.getFileName());
+        Path file = fileStorageService.locateInUploads("departments/" + id, doc.getFileName());
         String nameLower = doc.getOriginalFileName().toLowerCase(Locale.ROOT);
         MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
         if (nameLower.endsWith(".pdf")) mediaType = MediaType.APPLICATION_PDF;
         else if (nameLower.endsWith(".png")) mediaType = MediaType.IMAGE_PNG;
         else if (nameLower.endsWith(".jpg") || nameLower.endsWith(".jpeg")) mediaType = MediaType.IMAGE_JPEG;
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + doc.getOriginalFileName() + "\"")
-                .contentType(mediaType)
-                .body(res);
+        fileDownloadService.serve(file, doc.getContentHash(), mediaType, doc.getOriginalFileName(), request, response);
     }
 
     @GetMapping("/documents/{id}/delete/{docId}")
@@ -1,20 +1,36 @@
 package com.example.zad1.controller;
 
 import com.example.zad1.dto.EmployeeDTO;
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.dto.SearchPage;
 import com.example.zad1.exception.DuplicateEmailException;
 import com.example.zad1.exception.EmployeeNotFoundException;
 import com.example.zad1.exception.InvalidDataException;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
+import com.example.zad1.service.EmployeeBulkService;
+import com.example.zad1.service.EmployeeSearchIndex;
 import com.example.zad1.service.EmployeeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -23,19 +39,64 @@ import java.util.stream.Collectors;
 public class EmployeeController {
 
     private final EmployeeService employees;
+    private final EmployeeBulkService bulkService;
+    private final EmployeeSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
 
-    public EmployeeController(EmployeeService employees) {
+    public EmployeeController(EmployeeService employees, EmployeeBulkService bulkService, EmployeeSearchIndex searchIndex,
+                              ObjectMapper objectMapper) {
         this.employees = employees;
+        this.bulkService = bulkService;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public ResponseEntity<List<EmployeeDTO>> getAll(@RequestParam(value = "company", required = false) String company) {
+    public ResponseEntity<?> getAll(@RequestParam(value = "company", required = false) String company,
+                                    @RequestParam(value = "after", required = false) String after,
+                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                    @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                    @RequestParam(value = "count", defaultValue = "false") boolean count,
+                                    @RequestParam(value = "stream", defaultValue = "false") boolean stream,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                    HttpServletResponse response) throws IOException {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        if (limit == null && after != null && !after.isBlank()) {
+            limit = EmployeeService.DEFAULT_PAGE_SIZE;
+        }
+        if (limit != null) {
+            if (stream || (ndjson && !acceptsJson(accept))) {
+                throw new InvalidDataException("Parametru limit nie można łączyć ze strumieniowaniem (stream=true, application/x-ndjson)");
+            }
+            KeysetPage<Employee> page = employees.getEmployeesAfter(company, after, limit, sort, count);
+            return ResponseEntity.ok(page.map(this::toDto));
+        }
+        if (stream || ndjson) {
+            streamEmployees(company, ndjson, response);
+            return null;
+        }
         List<Employee> list = (company == null || company.isBlank())
                 ? employees.getAllEmployees()
                 : employees.getEmployeeByCompany(company);
         return ResponseEntity.ok(toDtoList(list));
     }
 
+    private static boolean acceptsJson(String accept) {
+        return MediaType.parseMediaTypes(accept).stream().anyMatch(type -> type.includes(MediaType.APPLICATION_JSON));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage<EmployeeSearchHit>> search(@RequestParam("q") String query,
+                                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchIndex.search(query, page, size));
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildSearchIndex() {
+        return ResponseEntity.ok(Map.of("indexed", searchIndex.rebuild()));
+    }
+
     @GetMapping("/{email}")
     public ResponseEntity<EmployeeDTO> getByEmail(@PathVariable String email) {
         Employee emp = employees.getEmployeeByEmail(email)
@@ -61,6 +122,15 @@ public class EmployeeController {
         return ResponseEntity.created(location).body(toDto(entity));
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void bulkUpsert(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        bulkService.upsert(request.getInputStream(), response.getOutputStream(), ndjson);
+    }
+
     @PutMapping("/{email}")
     public ResponseEntity<EmployeeDTO> update(@PathVariable String email, @Valid @RequestBody EmployeeDTO dto) {
         if (dto.getEmail() != null && !email.equalsIgnoreCase(dto.getEmail())) {
@@ -101,6 +171,32 @@ public class EmployeeController {
         return ResponseEntity.ok(toDtoList(list));
     }
 
+    private void streamEmployees(String company, boolean ndjson, HttpServletResponse response) throws IOException {
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+            boolean[] written = {false};
+            employees.forEachEmployee(company, employee -> {
+                try {
+                    generator.writeObject(toDto(employee));
+                    written[0] = true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            } else if (written[0]) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
     private List<EmployeeDTO> toDtoList(List<Employee> list) {
         return list.stream().filter(Objects::nonNull).map(this::toDto).collect(Collectors.toList());
     }
@@ -1,20 +1,26 @@
 package com.example.zad1.controller;
 
-import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.dto.SearchPage;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmploymentStatus;
-import com.example.zad1.model.ImportSummary;
+import com.example.zad1.dto.ImportJobDTO;
+import com.example.zad1.model.ImportJob;
 import com.example.zad1.model.Position;
 import com.example.zad1.service.DepartmentService;
+import com.example.zad1.service.EmployeeSearchIndex;
 import com.example.zad1.service.EmployeeService;
 import com.example.zad1.service.FileStorageService;
-import com.example.zad1.service.ImportService;
+import com.example.zad1.service.ImportJobService;
 
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -28,27 +34,38 @@ import java.util.Set;
 public class EmployeeViewController {
 
     private final EmployeeService employeeService;
-    private final ImportService importService;
+    private final ImportJobService importJobService;
     private final FileStorageService storageService;
     private final DepartmentService departmentService;
+    private final EmployeeSearchIndex searchIndex;
+    private final long maxImportSize;
 
-    public EmployeeViewController(EmployeeService employeeService, ImportService importService, FileStorageService storageService, DepartmentService departmentService) {
+    public EmployeeViewController(EmployeeService employeeService, ImportJobService importJobService, FileStorageService storageService, DepartmentService departmentService,
+                                  EmployeeSearchIndex searchIndex,
+                                  @Value("${app.import.max-file-size:100MB}") DataSize maxImportSize) {
         this.employeeService = employeeService;
-        this.importService = importService;
+        this.searchIndex = searchIndex;
+        this.importJobService = importJobService;
         this.storageService = storageService;
         this.departmentService = departmentService;
+        this.maxImportSize = maxImportSize.toBytes();
     }
 
     @GetMapping
     public String listEmployees(Model model,
-                                @RequestParam(defaultValue="0") int page,
-                                @RequestParam(defaultValue="10") int size){
-        Page<EmployeeListView> employeePage = employeeService.getEmployeesList(PageRequest.of(page, size));
-
-        model.addAttribute("employees", employeePage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", employeePage.getTotalPages());
-        model.addAttribute("totalItems", employeePage.getTotalElements());
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue="10") int size,
+                                @RequestParam(defaultValue="id") String sort,
+                                @RequestParam(defaultValue="true") boolean count){
+        KeysetPage<Employee> employeePage = employeeService.getEmployeesAfter(null, after, size, sort, count);
+
+        model.addAttribute("employees", employeePage.items());
+        model.addAttribute("nextCursor", employeePage.nextCursor());
+        model.addAttribute("firstPage", after == null || after.isBlank());
+        model.addAttribute("size", size);
+        model.addAttribute("sort", sort);
+        model.addAttribute("count", count);
+        model.addAttribute("totalItems", employeePage.totalCount());
 
         return "employees/list";
     }
@@ -122,7 +139,15 @@ public class EmployeeViewController {
     }
 
     @GetMapping("/search")
-    public String showSearchForm() {
+    public String showSearchForm(@RequestParam(required = false) String q,
+                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(defaultValue = "20") int size,
+                                 Model model) {
+        if (q != null && !q.isBlank()) {
+            SearchPage<EmployeeSearchHit> hits = searchIndex.search(q, page, size);
+            model.addAttribute("query", q);
+            model.addAttribute("hits", hits);
+        }
         return "employees/search-form";
     }
 
@@ -146,37 +171,59 @@ public class EmployeeViewController {
     @PostMapping("/import")
     public String handleImport(@RequestParam("file") MultipartFile file,
                                @RequestParam("fileType") String fileType,
+                               @RequestParam(defaultValue = "false") boolean dryRun,
                                RedirectAttributes redirectAttributes) {
         if (file.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Proszę wybrać plik do importu.");
             return "redirect:/employees/import";
         }
 
+        ImportJob job;
         try {
-            ImportSummary summary;
             String savedPath;
 
             if ("csv".equals(fileType)) {
-                storageService.validateFile(file, Set.of("csv"), 10L*1024*1024, Set.of("text/csv","application/vnd.ms-excel"));
+                storageService.validateFile(file, Set.of("csv"), maxImportSize, Set.of("text/csv","application/vnd.ms-excel"));
                 savedPath = storageService.storeInUploads(file, null);
-                summary = importService.importFromCsv(savedPath);
+                job = importJobService.submitCsv(savedPath, file.getOriginalFilename(), dryRun);
             } else if ("xml".equals(fileType)) {
-                storageService.validateFile(file, Set.of("xml"), 10L*1024*1024, Set.of("application/xml","text/xml"));
+                storageService.validateFile(file, Set.of("xml"), maxImportSize, Set.of("application/xml","text/xml"));
                 savedPath = storageService.storeInUploads(file, null);
-                summary = importService.importFromXml(savedPath);
+                job = importJobService.submitXml(savedPath, file.getOriginalFilename(), dryRun);
             } else {
                 throw new IllegalArgumentException("Nieznany typ pliku: " + fileType);
             }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Błąd importu: " + e.getMessage());
+            return "redirect:/employees/import";
+        }
 
-            redirectAttributes.addFlashAttribute("message",
-                    "Import zakończony. Zaimportowano: " + summary.getImportedCount() + ". Błędów: " + summary.getErrors().size());
-            redirectAttributes.addFlashAttribute("errors", summary.getErrors());
+        redirectAttributes.addFlashAttribute("message", "Import został zlecony. Postęp możesz śledzić na tej stronie.");
+        return "redirect:/employees/import/jobs/" + job.getId();
+    }
 
+    @GetMapping("/import/jobs/{id}")
+    public String showImportStatus(@PathVariable String id, Model model, RedirectAttributes redirectAttributes) {
+        try {
+            ImportJob job = importJobService.getJob(id);
+            model.addAttribute("job", new ImportJobDTO(job));
+            model.addAttribute("finished", job.isFinished());
+            return "employees/import-status";
         } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Błąd importu: " + e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
             return "redirect:/employees/import";
         }
+    }
 
-        return "redirect:/employees";
+    @PostMapping("/import/jobs/{id}/cancel")
+    public String cancelImport(@PathVariable String id, RedirectAttributes redirectAttributes) {
+        try {
+            importJobService.cancel(id);
+            redirectAttributes.addFlashAttribute("message", "Zlecono anulowanie importu.");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/employees/import";
+        }
+        return "redirect:/employees/import/jobs/" + id;
     }
 }
\ No newline at end of file
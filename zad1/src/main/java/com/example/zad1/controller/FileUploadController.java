@@ -7,21 +7,29 @@ import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmployeeDocument;
 import com.example.zad1.model.ImportSummary;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.FileDownloadService;
 import com.example.zad1.service.FileStorageService;
 import com.example.zad1.service.ImportService;
+import com.example.zad1.service.ReportCache;
 import com.example.zad1.service.ReportGeneratorService;
-import org.springframework.core.io.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/files")
@@ -30,45 +38,140 @@ public class FileUploadController {
     private final FileStorageService storage;
     private final ImportService importService;
     private final ReportGeneratorService reportGeneratorService;
+    private final FileDownloadService downloads;
+    private final DataSize maxSyncImportSize;
 
-    public FileUploadController(EmployeeService employeeService, FileStorageService storage, ImportService importService, ReportGeneratorService reportGeneratorService) {
+    public FileUploadController(EmployeeService employeeService, FileStorageService storage, ImportService importService, ReportGeneratorService reportGeneratorService,
+                                FileDownloadService downloads, @Value("${app.import.sync.max-file-size:10MB}") DataSize maxSyncImportSize) {
         this.employeeService = employeeService;
         this.storage = storage;
         this.importService = importService;
         this.reportGeneratorService = reportGeneratorService;
+        this.downloads = downloads;
+        this.maxSyncImportSize = maxSyncImportSize;
     }
 
     @PostMapping("/import/csv")
-    public ImportSummary importCsv(@RequestParam("file") MultipartFile file){
-        storage.validateFile(file, Set.of("csv"), 10L*1024*1024, Set.of("text/csv","application/vnd.ms-excel","application/csv"));
+    public ImportSummary importCsv(@RequestParam("file") MultipartFile file,
+                                   @RequestParam(defaultValue = "false") boolean dryRun){
+        requireSyncImportSize(file, "csv");
+        storage.validateFile(file, Set.of("csv"), maxSyncImportSize.toBytes(), Set.of("text/csv","application/vnd.ms-excel","application/csv"));
         String saved = storage.storeInUploads(file, null);
-        return importService.importFromCsv(saved);
+        return importService.importFromCsv(saved, dryRun);
     }
 
     @PostMapping("/import/xml")
-    public ImportSummary importXml(@RequestParam("file") MultipartFile file){
-        storage.validateFile(file, Set.of("xml"), 10L*1024*1024, Set.of("application/xml","text/xml"));
+    public ImportSummary importXml(@RequestParam("file") MultipartFile file,
+                                   @RequestParam(defaultValue = "false") boolean dryRun){
+        requireSyncImportSize(file, "xml");
+        storage.validateFile(file, Set.of("xml"), maxSyncImportSize.toBytes(), Set.of("application/xml","text/xml"));
         String saved = storage.storeInUploads(file, null);
-        return importService.importFromXml(saved);
+        return importService.importFromXml(saved, dryRun);
+    }
+
+    private void requireSyncImportSize(MultipartFile file, String type) {
+        if (file != null && file.getSize() > maxSyncImportSize.toBytes()) {
+            throw new InvalidFileException("Plik przekracza " + maxSyncImportSize.toMegabytes()
+                    + "MB dozwolone dla importu synchronicznego; większe pliki prześlij do /api/files/import/jobs/" + type);
+        }
     }
     @GetMapping("/export/csv")
-    public ResponseEntity<Resource> exportCsv(@RequestParam(value = "company", required = false) String company){
-        Resource res = reportGeneratorService.generateCsv(company);
+    public void exportCsv(@RequestParam(value = "company", required = false) String company,
+                          @RequestParam(defaultValue = "false") boolean gzip,
+                          @RequestParam(defaultValue = "false") boolean save,
+                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                          WebRequest webRequest,
+                          HttpServletResponse response) throws IOException {
+        boolean compress = gzip || acceptsGzip(acceptEncoding);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (webRequest.checkNotModified(encodedETag(reportGeneratorService.csvETag(company), compress))) {
+            return;
+        }
         String fileName = (company==null || company.isBlank()) ? "employees.csv" : "employees-"+company+".csv";
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(res);
+        try (ReportCache.CachedReport saved = save
+                ? reportGeneratorService.generateCsv(company)
+                : reportGeneratorService.cachedCsv(company).orElse(null)) {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+            if (saved != null && saved.etag() != null) {
+                response.setHeader(HttpHeaders.ETAG, encodedETag(saved.etag(), compress));
+            }
+            if (compress) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            OutputStream body = response.getOutputStream();
+            GZIPOutputStream gzipBody = compress ? new GZIPOutputStream(body, 8192) : null;
+            OutputStream out = gzipBody != null ? gzipBody : body;
+            if (saved != null) {
+                try (InputStream in = saved.resource().getInputStream()) {
+                    in.transferTo(out);
+                }
+            } else {
+                reportGeneratorService.streamCsv(company, out);
+            }
+            if (gzipBody != null) {
+                gzipBody.finish();
+            }
+            out.flush();
+        }
+    }
+
+    // RFC 9110 12.5.3: gzip (lub x-gzip) albo "*" z q > 0; jawne gzip;q=0 wyklucza kompresję mimo "*".
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                anyQ = q;
+            }
+        }
+        if (gzipQ != null) return gzipQ > 0;
+        return anyQ != null && anyQ > 0;
+    }
+
+    private static String encodedETag(String etag, boolean gzip) {
+        if (etag == null || !gzip) return etag;
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag + "-gzip";
     }
 
     @GetMapping("/reports/statistics/{companyName}")
-    public ResponseEntity<Resource> statsPdf(@PathVariable String companyName){
-        Resource res = reportGeneratorService.generateCompanyStatisticsPdf(companyName);
+    public void statsPdf(@PathVariable String companyName, WebRequest webRequest,
+                         HttpServletResponse response) throws IOException {
+        if (webRequest.checkNotModified(reportGeneratorService.statisticsPdfETag(companyName))) {
+            return;
+        }
+        boolean large = reportGeneratorService.isLargeStatisticsPdf(companyName);
+        ReportCache.CachedReport report = large ? null : reportGeneratorService.generateCompanyStatisticsPdf(companyName);
         String fileName = "statistics-" + companyName + ".pdf";
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(res);
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (report == null) {
+            reportGeneratorService.streamCompanyStatisticsPdf(companyName, response.getOutputStream());
+            return;
+        }
+        try (report; InputStream in = report.resource().getInputStream()) {
+            if (report.etag() != null) {
+                response.setHeader(HttpHeaders.ETAG, report.etag());
+            }
+            response.setContentLengthLong(report.resource().contentLength());
+            in.transferTo(response.getOutputStream());
+        }
     }
 
     @PostMapping("/documents/{email}")
@@ -99,19 +202,17 @@ public class FileUploadController {
     }
 
     @GetMapping("/documents/{email}/{documentId}")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable String email, @PathVariable String documentId){
+    public void downloadDocument(@PathVariable String email, @PathVariable String documentId,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
         EmployeeDocument doc = storage.findDocument(email, documentId).orElseThrow(() -> new com.example.zad1.exception.FileNotFoundException("Dokument nie istnieje"));
-        Resource res = storage.loadFromUploads(Paths.get("documents").resolve(email).toString(), doc.getFileName());
+        Path file = storage.locateInUploads(Paths.get("documents").resolve(email).toString(), doc.getFileName());
         String originalOrSaved = Optional.ofNullable(doc.getOriginalFileName()).orElse(doc.getFileName());
         String fileNameLower = originalOrSaved.toLowerCase(Locale.ROOT);
         MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
         if (fileNameLower.endsWith(".pdf")) mediaType = MediaType.APPLICATION_PDF;
         else if (fileNameLower.endsWith(".png")) mediaType = MediaType.IMAGE_PNG;
         else if (fileNameLower.endsWith(".jpg") || fileNameLower.endsWith(".jpeg")) mediaType = MediaType.IMAGE_JPEG;
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + originalOrSaved + "\"")
-                .contentType(mediaType)
-                .body(res);
+        downloads.serve(file, doc.getContentHash(), mediaType, originalOrSaved, request, response);
     }
 
     @DeleteMapping("/documents/{email}/{documentId}")
@@ -126,14 +227,13 @@ public class FileUploadController {
         storage.validateFile(file, Set.of("jpg","jpeg","png"), 2L*1024*1024, Set.of("image/jpeg","image/png"));
         String ext = storage.getExtension(Optional.ofNullable(file.getOriginalFilename()).orElse("jpg"));
         String fileName = email + (ext.isBlank()?"":"."+ext);
-        String savedRandom = storage.storeInUploads(file, "photos");
-        Path photosDir = storage.getUploadDir().resolve("photos");
+        String savedRandom = storage.storeHashedInUploads(file, "photos");
         try {
             String oldPhoto = emp.getPhotoFileName();
             if (oldPhoto != null && !oldPhoto.isBlank() && !oldPhoto.equals(fileName)) {
                 storage.deleteFromUploads("photos", oldPhoto);
             }
-            Files.move(photosDir.resolve(savedRandom), photosDir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+            storage.moveInUploads("photos", savedRandom, fileName);
         } catch (Exception e){
             throw new InvalidFileException("Nie udało się zapisać zdjęcia");
         }
@@ -142,12 +242,12 @@ public class FileUploadController {
     }
 
     @GetMapping("/photos/{email}")
-    public ResponseEntity<Resource> getPhoto(@PathVariable String email){
+    public void getPhoto(@PathVariable String email, HttpServletRequest request, HttpServletResponse response) throws IOException {
         Employee emp = employeeService.getEmployeeByEmail(email).orElseThrow(() -> new EmployeeNotFoundException(email));
         String name = emp.getPhotoFileName();
         if (name == null || name.isBlank()) throw new com.example.zad1.exception.FileNotFoundException("Brak zdjęcia dla pracownika");
-        Resource res = storage.loadFromUploads("photos", name);
+        Path file = storage.locateInUploads("photos", name);
         MediaType type = name.toLowerCase().endsWith("png")? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
-        return ResponseEntity.ok().contentType(type).body(res);
+        downloads.serve(file, storage.contentHash(file).orElse(null), type, null, request, response);
     }
 }
@@ -0,0 +1,70 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.dto.ImportJobDTO;
+import com.example.zad1.model.ImportJob;
+import com.example.zad1.service.FileStorageService;
+import com.example.zad1.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/files/import/jobs")
+public class ImportJobController {
+    private final ImportJobService importJobService;
+    private final FileStorageService storage;
+    private final long maxImportSize;
+
+    public ImportJobController(ImportJobService importJobService, FileStorageService storage,
+                               @Value("${app.import.max-file-size:100MB}") DataSize maxImportSize) {
+        this.importJobService = importJobService;
+        this.storage = storage;
+        this.maxImportSize = maxImportSize.toBytes();
+    }
+
+    @PostMapping("/csv")
+    public ResponseEntity<ImportJobDTO> submitCsv(@RequestParam("file") MultipartFile file,
+                                                  @RequestParam(defaultValue = "false") boolean dryRun) {
+        storage.validateFile(file, Set.of("csv"), maxImportSize, Set.of("text/csv","application/vnd.ms-excel","application/csv"));
+        String saved = storage.storeInUploads(file, null);
+        return accepted(importJobService.submitCsv(saved, file.getOriginalFilename(), dryRun));
+    }
+
+    @PostMapping("/xml")
+    public ResponseEntity<ImportJobDTO> submitXml(@RequestParam("file") MultipartFile file,
+                                                  @RequestParam(defaultValue = "false") boolean dryRun) {
+        storage.validateFile(file, Set.of("xml"), maxImportSize, Set.of("application/xml","text/xml"));
+        String saved = storage.storeInUploads(file, null);
+        return accepted(importJobService.submitXml(saved, file.getOriginalFilename(), dryRun));
+    }
+
+    @GetMapping
+    public List<ImportJobDTO> listJobs() {
+        return importJobService.getJobs().stream().map(ImportJobDTO::new).toList();
+    }
+
+    @GetMapping("/{id}")
+    public ImportJobDTO getJob(@PathVariable String id) {
+        return new ImportJobDTO(importJobService.getJob(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ImportJobDTO cancelJob(@PathVariable String id) {
+        return new ImportJobDTO(importJobService.cancel(id));
+    }
+
+    private ResponseEntity<ImportJobDTO> accepted(ImportJob job) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/files/import/jobs/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(new ImportJobDTO(job));
+    }
+}
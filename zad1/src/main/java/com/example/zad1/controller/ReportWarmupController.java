@@ -0,0 +1,25 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.dto.ReportWarmupStatus;
+import com.example.zad1.service.ReportWarmupService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/files/reports/warmup")
+public class ReportWarmupController {
+
+    private final ReportWarmupService reportWarmupService;
+
+    public ReportWarmupController(ReportWarmupService reportWarmupService) {
+        this.reportWarmupService = reportWarmupService;
+    }
+
+    @GetMapping
+    public List<ReportWarmupStatus> status() {
+        return reportWarmupService.getStatus();
+    }
+}
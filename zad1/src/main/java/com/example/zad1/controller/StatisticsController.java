@@ -5,7 +5,11 @@ import com.example.zad1.exception.InvalidDataException;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
-import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.CompanyStatisticsStore;
+import com.example.zad1.service.ReportCache;
+import com.example.zad1.cache.SingleFlight;
+import com.example.zad1.cache.TtlCache;
+import com.example.zad1.service.StatisticsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,17 +20,22 @@ import java.util.Map;
 @RequestMapping("/api/statistics")
 public class StatisticsController {
 
-    private final EmployeeService employees;
+    private final StatisticsService statistics;
+    private final CompanyStatisticsStore companyStatistics;
+    private final ReportCache reportCache;
 
-    public StatisticsController(EmployeeService employees) {
-        this.employees = employees;
+    public StatisticsController(StatisticsService statistics, CompanyStatisticsStore companyStatistics,
+                                ReportCache reportCache) {
+        this.statistics = statistics;
+        this.companyStatistics = companyStatistics;
+        this.reportCache = reportCache;
     }
 
     @GetMapping("/salary/average")
     public ResponseEntity<Map<String, Double>> averageSalary(@RequestParam(value = "company", required = false) String company) {
         double avg = (company == null || company.isBlank())
-                ? employees.getAverageSalary()
-                : employees.getAverageSalaryByCompany(company);
+                ? statistics.getAverageSalary()
+                : statistics.getAverageSalaryByCompany(company);
         Map<String, Double> body = new LinkedHashMap<>();
         body.put("averageSalary", avg);
         return ResponseEntity.ok(body);
@@ -34,16 +43,22 @@ public class StatisticsController {
 
     @GetMapping("/company/{companyName}")
     public ResponseEntity<CompanyStatisticsDTO> companyStats(@PathVariable String companyName) {
-        Map<String, CompanyStatistics> stats = employees.getCompanyStatistics();
-        CompanyStatistics cs = stats.get(companyName);
-        if (cs == null) throw new InvalidDataException("No stats for company: " + companyName);
+        CompanyStatistics cs = companyStatistics.get(companyName)
+                .orElseThrow(() -> new InvalidDataException("No stats for company: " + companyName));
         CompanyStatisticsDTO dto = new CompanyStatisticsDTO(companyName, cs);
         return ResponseEntity.ok(dto);
     }
 
+    @PostMapping("/companies/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildCompanyStats() {
+        Map<String, Integer> body = new LinkedHashMap<>();
+        body.put("companies", companyStatistics.rebuild());
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/positions")
     public ResponseEntity<Map<String, Long>> positions() {
-        Map<Position, Long> counts = employees.countByPosition();
+        Map<Position, Long> counts = statistics.countByPosition();
         Map<String, Long> out = new LinkedHashMap<>();
         counts.forEach((k, v) -> out.put(k != null ? k.name() : "UNKNOWN", v));
         return ResponseEntity.ok(out);
@@ -51,9 +66,23 @@ public class StatisticsController {
 
     @GetMapping("/status")
     public ResponseEntity<Map<String, Long>> statusDistribution() {
-        Map<EmploymentStatus, Long> counts = employees.countByStatus();
+        Map<EmploymentStatus, Long> counts = statistics.countByStatus();
         Map<String, Long> out = new LinkedHashMap<>();
         counts.forEach((k, v) -> out.put(k != null ? k.name() : "UNKNOWN", v));
         return ResponseEntity.ok(out);
     }
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, TtlCache.Stats>> cacheStats() {
+        return ResponseEntity.ok(statistics.cacheStats());
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, SingleFlight.Stats>> coalescingStats() {
+        Map<String, SingleFlight.Stats> stats = new LinkedHashMap<>();
+        stats.put("companyStatistics", companyStatistics.coalescingStats());
+        stats.put("reports", reportCache.coalescingStats());
+        stats.put("reportStreams", reportCache.streamingStats());
+        return ResponseEntity.ok(stats);
+    }
 }
@@ -1,8 +1,10 @@
 package com.example.zad1.controller;
 
 import com.example.zad1.model.CompanyStatistics;
+import com.example.zad1.service.CompanyStatisticsStore;
 import com.example.zad1.service.DepartmentService;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.StatisticsService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,27 +17,32 @@ public class StatisticsViewController {
 
     private final EmployeeService employeeService;
     private final DepartmentService departmentService;
+    private final CompanyStatisticsStore companyStatistics;
+    private final StatisticsService statistics;
 
-    public StatisticsViewController(EmployeeService employeeService, DepartmentService departmentService) {
+    public StatisticsViewController(EmployeeService employeeService, DepartmentService departmentService,
+                                    CompanyStatisticsStore companyStatistics, StatisticsService statistics) {
         this.employeeService = employeeService;
         this.departmentService = departmentService;
+        this.companyStatistics = companyStatistics;
+        this.statistics = statistics;
     }
 
     @GetMapping
     public String showStatisticsDashboard(Model model) {
-        model.addAttribute("totalEmployees", employeeService.getAllEmployees().size());
-        model.addAttribute("averageSalary", employeeService.getAverageSalary());
+        model.addAttribute("totalEmployees", statistics.countEmployees());
+        model.addAttribute("averageSalary", statistics.getAverageSalary());
         model.addAttribute("totalDepartments", departmentService.getAllDepartments().size());
 
-        model.addAttribute("companyStats", employeeService.getCompanyStatistics().entrySet());
+        model.addAttribute("companyStats", companyStatistics.getAll().entrySet());
 
-        model.addAttribute("positionCounts", employeeService.countByPosition());
+        model.addAttribute("positionCounts", statistics.countByPosition());
         return "statistics/index";
     }
 
     @GetMapping("/company/{name}")
     public String showCompanyStatistics(@PathVariable String name, Model model) {
-        CompanyStatistics stats = employeeService.getCompanyStatistics().get(name);
+        CompanyStatistics stats = companyStatistics.get(name).orElse(null);
         model.addAttribute("companyName", name);
         model.addAttribute("stats", stats);
         model.addAttribute("employees", employeeService.getEmployeeByCompany(name));
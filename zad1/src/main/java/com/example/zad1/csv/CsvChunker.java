@@ -0,0 +1,131 @@
+package com.example.zad1.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public final class CsvChunker {
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    private CsvChunker() {}
+
+    public record Chunk(long start, long end, int firstLine) {
+        public long length() {
+            return end - start;
+        }
+    }
+
+    public static List<Chunk> split(FileChannel channel, long chunkSize, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        long step = Math.max(1, Math.min(chunkSize, Integer.MAX_VALUE));
+        int ranges = (int) Math.max(1, (size + step - 1) / step);
+        if (ranges == 1) {
+            return List.of(new Chunk(0, size, 1));
+        }
+
+        List<ForkJoinTask<long[]>> scans = new ArrayList<>(ranges);
+        for (int i = 0; i < ranges; i++) {
+            long start = i * step;
+            long end = Math.min(size, start + step);
+            scans.add(pool.submit(() -> countQuotesAndNewlines(channel, start, end)));
+        }
+
+        long[] quotesBefore = new long[ranges + 1];
+        long[] newlinesBefore = new long[ranges + 1];
+        for (int i = 0; i < ranges; i++) {
+            long[] stats = scans.get(i).join();
+            quotesBefore[i + 1] = quotesBefore[i] + stats[0];
+            newlinesBefore[i + 1] = newlinesBefore[i] + stats[1];
+        }
+        if (quotesBefore[ranges] % 2 != 0) {
+            return List.of(new Chunk(0, size, 1));
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        long chunkStart = 0;
+        long chunkLine = 1;
+        for (int i = 1; i < ranges; i++) {
+            long rawStart = i * step;
+            if (rawStart <= chunkStart) continue;
+            long[] boundary = alignToRecord(channel, rawStart, quotesBefore[i] % 2 != 0);
+            if (boundary == null) break;
+            long start = boundary[0];
+            if (start <= chunkStart || start >= size) continue;
+            chunks.add(new Chunk(chunkStart, start, (int) chunkLine));
+            chunkStart = start;
+            chunkLine = 1 + newlinesBefore[i] + boundary[1];
+        }
+        chunks.add(new Chunk(chunkStart, size, (int) chunkLine));
+        return chunks;
+    }
+
+    public static InputStream open(FileChannel channel, Chunk chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length());
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) return 0;
+                if (!buffer.hasRemaining()) return -1;
+                int n = Math.min(len, buffer.remaining());
+                buffer.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    private static long[] countQuotesAndNewlines(FileChannel channel, long start, long end) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            long quotes = 0;
+            long newlines = 0;
+            for (int i = 0, n = buffer.limit(); i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') quotes++;
+                else if (b == '\n') newlines++;
+            }
+            return new long[]{quotes, newlines};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long[] alignToRecord(FileChannel channel, long from, boolean inQuotes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long position = from;
+        long newlines = 0;
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) return null;
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    newlines++;
+                    if (!inQuotes) {
+                        return new long[]{position + i + 1, newlines};
+                    }
+                }
+            }
+            position += n;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.zad1.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+public class CsvReader implements Closeable {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+
+    private char[] record = new char[256];
+    private CharBuffer recordView = CharBuffer.wrap(record);
+    private int recordLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    private int lineNumber = 1;
+    private int recordLine;
+
+    public CsvReader(Reader reader) {
+        this(reader, 64 * 1024);
+    }
+
+    public CsvReader(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(16, bufferSize)];
+    }
+
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        recordLength = 0;
+        recordLine = lineNumber;
+
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        while (true) {
+            c = readField(c);
+            if (c != ',') {
+                return true;
+            }
+            c = read();
+        }
+    }
+
+    public int getLineNumber() {
+        return recordLine;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isBlankRecord() {
+        for (int i = 0; i < fieldCount; i++) {
+            if (fieldEnd[i] > fieldStart[i]) return false;
+        }
+        return true;
+    }
+
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        return fieldEnd[index] == fieldStart[index];
+    }
+
+    public CharSequence field(int index) {
+        checkIndex(index);
+        return recordView.subSequence(fieldStart[index], fieldEnd[index]);
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        return new String(record, fieldStart[index], fieldEnd[index] - fieldStart[index]);
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return Integer.parseInt(recordView, fieldStart[index], fieldEnd[index], 10);
+    }
+
+    public boolean equalsIgnoreCase(int index, String value) {
+        checkIndex(index);
+        int start = fieldStart[index];
+        int length = fieldEnd[index] - start;
+        if (value == null || value.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            char a = record[start + i];
+            char b = value.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int readField(int c) throws IOException {
+        int start = recordLength;
+        int end = start;
+
+        while (c == ' ' || c == '\t') {
+            c = read();
+        }
+
+        if (c == '"') {
+            while (true) {
+                c = read();
+                if (c == EOF) {
+                    break;
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        break;
+                    }
+                }
+                append((char) c);
+            }
+            end = recordLength;
+        }
+
+        while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+            append((char) c);
+            if (c != ' ' && c != '\t') {
+                end = recordLength;
+            }
+            c = read();
+        }
+
+        if (c == '\r') {
+            if (peek() == '\n') {
+                read();
+            } else {
+                lineNumber++;
+            }
+            c = '\n';
+        }
+
+        addField(start, end);
+        return c;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+            recordView = CharBuffer.wrap(record);
+        }
+        record[recordLength++] = c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            limit = position = 0;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Pole " + index + " poza zakresem rekordu (" + fieldCount + " pól)");
+        }
+    }
+}
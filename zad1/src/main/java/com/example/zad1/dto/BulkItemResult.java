@@ -0,0 +1,37 @@
+package com.example.zad1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    public enum Status { CREATED, UPDATED, FAILED }
+
+    private int index;
+    private String email;
+    private Status status;
+    private List<String> errors;
+
+    public BulkItemResult() {}
+
+    public BulkItemResult(int index, String email, Status status, List<String> errors) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    public static BulkItemResult failed(int index, String email, List<String> errors) {
+        return new BulkItemResult(index, email, Status.FAILED, errors);
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+}
@@ -0,0 +1,4 @@
+package com.example.zad1.dto;
+
+public record DepartmentOption(Long id, String name) {
+}
@@ -0,0 +1,5 @@
+package com.example.zad1.dto;
+
+public record DepartmentSummary(Long id, String name, String companyName, String location, double budget,
+                                String managerEmail, String managerName, long employeeCount, long totalSalary) {
+}
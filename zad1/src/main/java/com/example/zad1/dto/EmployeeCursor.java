@@ -0,0 +1,39 @@
+package com.example.zad1.dto;
+
+import com.example.zad1.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record EmployeeCursor(long id, String company) {
+    private static final String BY_ID = "i:";
+    private static final String BY_COMPANY = "c:";
+
+    public boolean byCompany() {
+        return company != null;
+    }
+
+    public String encode() {
+        String raw = byCompany() ? BY_COMPANY + id + ":" + company : BY_ID + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EmployeeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.startsWith(BY_ID)) {
+                return new EmployeeCursor(Long.parseLong(raw.substring(BY_ID.length())), null);
+            }
+            if (raw.startsWith(BY_COMPANY)) {
+                int separator = raw.indexOf(':', BY_COMPANY.length());
+                if (separator > 0) {
+                    long id = Long.parseLong(raw.substring(BY_COMPANY.length(), separator));
+                    return new EmployeeCursor(id, raw.substring(separator + 1));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Nieprawidłowy kursor stronicowania: " + cursor, e);
+        }
+        throw new InvalidDataException("Nieprawidłowy kursor stronicowania: " + cursor);
+    }
+}
@@ -1,16 +1,8 @@
 package com.example.zad1.dto;
 
 import com.example.zad1.model.EmploymentStatus;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.zad1.model.Position;
 
-public interface EmployeeListView {
-    String getFullName();
-    String getEmail();
-    String getPosition();
-    String getCompanyName();
-    Integer getSalary();
-    String getStatus();
-
-    @Value("#{target.department != null ? target.department.name : 'Brak'}")
-    String getDepartmentName();
-}
\ No newline at end of file
+public record EmployeeListView(Long id, String fullName, String email, String companyName, Position position,
+                               int salary, EmploymentStatus status, String departmentName) {
+}
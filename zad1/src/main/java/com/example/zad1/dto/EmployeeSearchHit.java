@@ -0,0 +1,13 @@
+package com.example.zad1.dto;
+
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.Position;
+
+public record EmployeeSearchHit(String email, String fullName, String companyName, String departmentName,
+                                Position position, int salary, double score) {
+
+    public static EmployeeSearchHit of(EmployeeSnapshot employee, double score) {
+        return new EmployeeSearchHit(employee.email(), employee.fullName(), employee.companyName(),
+                employee.departmentName(), employee.position(), employee.salary(), score);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.zad1.dto;
+
+import com.example.zad1.model.ImportJob;
+import com.example.zad1.model.ImportProgress;
+import com.example.zad1.model.ImportSummary;
+
+import java.time.Instant;
+
+public class ImportJobDTO {
+    private String id;
+    private String type;
+    private String fileName;
+    private String status;
+    private boolean dryRun;
+    private int rowsProcessed;
+    private int rowsFailed;
+    private double rowsPerSecond;
+    private int percentComplete;
+    private Long etaSeconds;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String errorMessage;
+    private ImportSummary result;
+
+    public ImportJobDTO() {}
+
+    public ImportJobDTO(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+        this.id = job.getId();
+        this.type = job.getType().name();
+        this.fileName = job.getFileName();
+        this.status = job.getStatus().name();
+        this.dryRun = job.isDryRun();
+        this.rowsProcessed = progress.getProcessed();
+        this.rowsFailed = progress.getFailed();
+        this.rowsPerSecond = progress.getRowsPerSecond();
+        this.percentComplete = job.isFinished() ? 100 : progress.getPercentComplete();
+        this.etaSeconds = job.isFinished() ? Long.valueOf(0) : progress.getEtaSeconds();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.errorMessage = job.getErrorMessage();
+        this.result = job.getResult();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+    public int getRowsProcessed() { return rowsProcessed; }
+    public void setRowsProcessed(int rowsProcessed) { this.rowsProcessed = rowsProcessed; }
+    public int getRowsFailed() { return rowsFailed; }
+    public void setRowsFailed(int rowsFailed) { this.rowsFailed = rowsFailed; }
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    public int getPercentComplete() { return percentComplete; }
+    public void setPercentComplete(int percentComplete) { this.percentComplete = percentComplete; }
+    public Long getEtaSeconds() { return etaSeconds; }
+    public void setEtaSeconds(Long etaSeconds) { this.etaSeconds = etaSeconds; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public ImportSummary getResult() { return result; }
+    public void setResult(ImportSummary result) { this.result = result; }
+}
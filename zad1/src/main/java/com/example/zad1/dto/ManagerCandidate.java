@@ -0,0 +1,6 @@
+package com.example.zad1.dto;
+
+import com.example.zad1.model.Position;
+
+public record ManagerCandidate(Long id, String fullName, String email, Position position) {
+}
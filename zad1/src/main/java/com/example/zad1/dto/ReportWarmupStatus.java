@@ -0,0 +1,10 @@
+package com.example.zad1.dto;
+
+import com.example.zad1.model.ReportType;
+
+import java.time.Instant;
+
+public record ReportWarmupStatus(ReportType type, String company, String cron, boolean running, long runs,
+                                 Instant lastStartedAt, Instant lastFinishedAt, Long lastDurationMs,
+                                 String lastOutcome, String lastError, Instant nextRunAt) {
+}
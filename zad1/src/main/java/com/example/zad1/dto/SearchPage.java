@@ -0,0 +1,18 @@
+package com.example.zad1.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record SearchPage<T>(List<T> items, int page, int size, long totalCount) {
+
+    @JsonProperty("hasNext")
+    public boolean hasNext() {
+        return (long) (page + 1) * size < totalCount;
+    }
+
+    @JsonProperty("totalPages")
+    public int totalPages() {
+        return (int) ((totalCount + size - 1) / size);
+    }
+}
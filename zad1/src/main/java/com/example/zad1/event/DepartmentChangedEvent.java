@@ -0,0 +1,4 @@
+package com.example.zad1.event;
+
+public record DepartmentChangedEvent(Long departmentId) {
+}
@@ -0,0 +1,39 @@
+package com.example.zad1.event;
+
+import com.example.zad1.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+
+public record EmployeeChangedEvent(List<Change> changes, boolean cleared) {
+
+    public record Change(EmployeeSnapshot before, EmployeeSnapshot after) {
+        public boolean isCreated() {
+            return before == null;
+        }
+
+        public boolean isDeleted() {
+            return after == null;
+        }
+    }
+
+    public static EmployeeChangedEvent of(List<Change> changes) {
+        return new EmployeeChangedEvent(List.copyOf(changes), false);
+    }
+
+    public static EmployeeChangedEvent created(Collection<Employee> employees) {
+        return of(employees.stream().map(e -> new Change(null, EmployeeSnapshot.of(e))).toList());
+    }
+
+    public static EmployeeChangedEvent updated(EmployeeSnapshot before, Employee after) {
+        return of(List.of(new Change(before, EmployeeSnapshot.of(after))));
+    }
+
+    public static EmployeeChangedEvent deleted(Employee employee) {
+        return of(List.of(new Change(EmployeeSnapshot.of(employee), null)));
+    }
+
+    public static EmployeeChangedEvent allDeleted() {
+        return new EmployeeChangedEvent(List.of(), true);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.zad1.event;
+
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
+
+public record EmployeeSnapshot(String email, String fullName, String companyName, String departmentName,
+                               Position position, EmploymentStatus status, int salary) {
+
+    public static EmployeeSnapshot of(Employee employee) {
+        String department = employee.getDepartment() != null ? employee.getDepartment().getName() : null;
+        return new EmployeeSnapshot(employee.getEmail(), employee.getFullName(), employee.getCompanyName(), department,
+                employee.getPosition(), employee.getStatus(), employee.getSalary());
+    }
+}
@@ -73,6 +73,16 @@ public class GlobalExceptionHandler {
         return build(ex, HttpStatus.NOT_FOUND, req);
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleImportJobNotFound(ImportJobNotFoundException ex, HttpServletRequest req) {
+        return build(ex, HttpStatus.NOT_FOUND, req);
+    }
+
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleImportRejected(ImportRejectedException ex, HttpServletRequest req) {
+        return build(ex, HttpStatus.SERVICE_UNAVAILABLE, req);
+    }
+
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleTooLarge(MaxUploadSizeExceededException ex, HttpServletRequest req) {
         Long max = null;
@@ -0,0 +1,7 @@
+package com.example.zad1.exception;
+
+public class ImportJobNotFoundException extends RuntimeException {
+    public ImportJobNotFoundException(String jobId) {
+        super("Nie znaleziono zadania importu: " + jobId);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.zad1.exception;
+
+public class ImportRejectedException extends RuntimeException {
+    public ImportRejectedException(String message) { super(message); }
+}
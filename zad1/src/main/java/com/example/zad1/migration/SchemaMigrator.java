@@ -0,0 +1,96 @@
+package com.example.zad1.migration;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrator implements InitializingBean {
+    private static final Pattern VERSIONED = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final ResourcePatternResolver resolver;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, ResourcePatternResolver resolver,
+                          @Value("${app.db.migrations:classpath:db/migration/*.sql}") String location) {
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.resolver = resolver;
+        this.location = location;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    public synchronized List<Integer> migrate() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        Set<Integer> applied = new HashSet<>(jdbc.queryForList("SELECT version FROM schema_migrations", Integer.class));
+
+        List<Integer> executed = new ArrayList<>();
+        for (var migration : findMigrations().entrySet()) {
+            int version = migration.getKey();
+            if (applied.contains(version)) continue;
+
+            Resource script = migration.getValue();
+            try {
+                new ResourceDatabasePopulator(script).execute(dataSource);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Migracja " + script.getFilename() + " nie powiodła się", e);
+            }
+            jdbc.update("INSERT INTO schema_migrations (version, description) VALUES (?, ?)",
+                    version, describe(script));
+            executed.add(version);
+        }
+        return executed;
+    }
+
+    public List<Integer> appliedVersions() {
+        return jdbc.queryForList("SELECT version FROM schema_migrations ORDER BY version", Integer.class);
+    }
+
+    private TreeMap<Integer, Resource> findMigrations() {
+        TreeMap<Integer, Resource> migrations = new TreeMap<>();
+        try {
+            for (Resource resource : resolver.getResources(location)) {
+                Matcher m = VERSIONED.matcher(String.valueOf(resource.getFilename()));
+                if (!m.matches()) continue;
+                Resource previous = migrations.put(Integer.parseInt(m.group(1)), resource);
+                if (previous != null) {
+                    throw new IllegalStateException("Zduplikowana wersja migracji: " + resource.getFilename()
+                            + " i " + previous.getFilename());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Nie udało się odczytać migracji z " + location, e);
+        }
+        return migrations;
+    }
+
+    private static String describe(Resource script) {
+        Matcher m = VERSIONED.matcher(String.valueOf(script.getFilename()));
+        return m.matches() ? m.group(2).replace('_', ' ') : String.valueOf(script.getFilename());
+    }
+}
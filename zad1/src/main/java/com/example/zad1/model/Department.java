@@ -7,7 +7,7 @@ import jakarta.validation.constraints.Size;
 import java.util.List;
 
 @Entity
-@Table(name = "departments")
+@Table(name = "departments", indexes = @Index(name = "idx_departments_company", columnList = "company_name"))
 public class Department {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
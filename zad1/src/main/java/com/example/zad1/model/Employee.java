@@ -5,16 +5,37 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_company_key", columnList = "company_key"),
+        @Index(name = "idx_employees_company_key_id", columnList = "company_key, id"),
+        @Index(name = "idx_employees_name", columnList = "last_name, first_name, id"),
+        @Index(name = "idx_employees_company_salary", columnList = "company_key, salary"),
+        @Index(name = "idx_employees_salary", columnList = "salary"),
+        @Index(name = "idx_employees_status", columnList = "status"),
+        @Index(name = "idx_employees_position", columnList = "position, id"),
+        @Index(name = "idx_employees_department", columnList = "department_id")
+})
 public class Employee {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private Long id;
 
     @NotEmpty(message="Imię i nazwisko jest wymagane")
     private String fullName;
 
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
     @Email(message="Nieprawidłowy format adresu email")
     @NotEmpty(message="Adres email jest wymagany")
     @Column(unique = true)
@@ -22,6 +43,9 @@ public class Employee {
 
     private String companyName;
 
+    @Column(name = "company_key")
+    private String companyKey;
+
     @Enumerated(EnumType.STRING)
     private Position position;
 
@@ -40,13 +64,19 @@ public class Employee {
     public Employee() {}
 
     public Employee(String fullName, String email, String companyName, Position position, int salary) {
-        this.fullName = fullName;
+        setFullName(fullName);
         this.email = email;
-        this.companyName = companyName;
+        setCompanyName(companyName);
         this.position = position;
         this.salary = salary;
     }
 
+    public static String companyKeyOf(String companyName) {
+        if (companyName == null) return null;
+        String key = companyName.trim().toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
     public Long getId() {
         return id;
     }
@@ -54,20 +84,20 @@ public class Employee {
         return fullName;
     }
     public String getLastName() {
-        if (fullName == null || fullName.isBlank())
-            return "";
-        String[] parts = fullName.trim().split("\\s+");
-        return parts.length > 1 ? parts[parts.length - 1] : "";
+        if (lastName == null) deriveNames();
+        return lastName;
     }
     public String getFirstName() {
-        if (fullName == null || fullName.isBlank())
-            return "";
-        String[] parts = fullName.trim().split("\\s+");
-        return parts[0];
+        if (firstName == null) deriveNames();
+        return firstName;
     }
     public String getEmail() {
         return email;
     }
+    public String getCompanyKey() {
+        return companyKey;
+    }
+
     public String getCompanyName() {
         return companyName;
     }
@@ -92,12 +122,32 @@ public class Employee {
 
     public void setFullName(String fullName) {
         this.fullName = fullName;
+        deriveNames();
     }
     public void setEmail(String email) {
         this.email = email;
     }
     public void setCompanyName(String companyName) {
         this.companyName = companyName;
+        this.companyKey = companyKeyOf(companyName);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void deriveColumns() {
+        this.companyKey = companyKeyOf(companyName);
+        deriveNames();
+    }
+
+    private void deriveNames() {
+        if (fullName == null || fullName.isBlank()) {
+            firstName = "";
+            lastName = "";
+            return;
+        }
+        String[] parts = WHITESPACE.split(fullName.trim());
+        firstName = parts[0];
+        lastName = parts.length > 1 ? parts[parts.length - 1] : "";
     }
     public void setPosition(Position position) {
         this.position = position;
@@ -11,8 +11,9 @@ public class EmployeeDocument {
     private final DocumentType fileType;
     private final Instant uploadDate;
     private final String filePath;
+    private final String contentHash;
 
-    public EmployeeDocument(String employeeEmail, String fileName, String originalFileName, DocumentType fileType, String filePath) {
+    public EmployeeDocument(String employeeEmail, String fileName, String originalFileName, DocumentType fileType, String filePath, String contentHash) {
         this.id = UUID.randomUUID().toString();
         this.employeeEmail = employeeEmail;
         this.fileName = fileName;
@@ -20,6 +21,7 @@ public class EmployeeDocument {
         this.fileType = fileType;
         this.uploadDate = Instant.now();
         this.filePath = filePath;
+        this.contentHash = contentHash;
     }
 
     public String getId() { return id; }
@@ -29,5 +31,6 @@ public class EmployeeDocument {
     public DocumentType getFileType() { return fileType; }
     public Instant getUploadDate() { return uploadDate; }
     public String getFilePath() { return filePath; }
+    public String getContentHash() { return contentHash; }
 }
 
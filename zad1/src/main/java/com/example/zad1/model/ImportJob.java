@@ -0,0 +1,75 @@
+package com.example.zad1.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+public class ImportJob {
+    public enum Type { CSV, XML }
+
+    private final String id;
+    private final Type type;
+    private final String fileName;
+    private final boolean dryRun;
+    private final Instant createdAt;
+    private final ImportProgress progress = new ImportProgress();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile ImportSummary result;
+    private volatile String errorMessage;
+    private volatile Future<?> future;
+
+    public ImportJob(Type type, String fileName) {
+        this(type, fileName, false);
+    }
+
+    public ImportJob(Type type, String fileName, boolean dryRun) {
+        this.id = UUID.randomUUID().toString();
+        this.type = type;
+        this.fileName = fileName;
+        this.dryRun = dryRun;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public Type getType() { return type; }
+    public String getFileName() { return fileName; }
+    public boolean isDryRun() { return dryRun; }
+    public Instant getCreatedAt() { return createdAt; }
+    public ImportProgress getProgress() { return progress; }
+    public ImportJobStatus getStatus() { return status; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public ImportSummary getResult() { return result; }
+    public String getErrorMessage() { return errorMessage; }
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED || status == ImportJobStatus.CANCELLED;
+    }
+
+    public void markRunning() {
+        this.startedAt = Instant.now();
+        this.status = ImportJobStatus.RUNNING;
+    }
+
+    public void complete(ImportSummary result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.status = progress.isCancelled() ? ImportJobStatus.CANCELLED : ImportJobStatus.COMPLETED;
+    }
+
+    public void fail(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishedAt = Instant.now();
+        this.status = ImportJobStatus.FAILED;
+    }
+
+    public void markCancelled() {
+        this.finishedAt = Instant.now();
+        this.status = ImportJobStatus.CANCELLED;
+    }
+
+    public Future<?> getFuture() { return future; }
+    public void setFuture(Future<?> future) { this.future = future; }
+}
@@ -0,0 +1,76 @@
+package com.example.zad1.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ImportProgress {
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long totalBytes;
+    private volatile long startNanos;
+    private volatile boolean cancelled;
+
+    public void start(long totalBytes) {
+        this.totalBytes = totalBytes;
+        this.startNanos = System.nanoTime();
+    }
+
+    public void addBytes(long count) {
+        bytesRead.addAndGet(count);
+    }
+
+    public void addRows(int processedRows, int failedRows) {
+        processed.addAndGet(processedRows);
+        failed.addAndGet(failedRows);
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public double getRowsPerSecond() {
+        double seconds = elapsedSeconds();
+        return seconds > 0 ? processed.get() / seconds : 0.0;
+    }
+
+    public int getPercentComplete() {
+        long total = totalBytes;
+        if (total <= 0) return 0;
+        return (int) Math.min(100, bytesRead.get() * 100 / total);
+    }
+
+    public Long getEtaSeconds() {
+        long read = bytesRead.get();
+        long total = totalBytes;
+        double seconds = elapsedSeconds();
+        if (read <= 0 || total <= 0 || seconds <= 0) return null;
+        long remaining = Math.max(0, total - read);
+        return Math.round(seconds * remaining / read);
+    }
+
+    private double elapsedSeconds() {
+        long start = startNanos;
+        return start == 0 ? 0.0 : (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+}
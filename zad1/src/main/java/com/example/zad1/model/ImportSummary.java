@@ -6,10 +6,24 @@ import java.util.List;
 public class ImportSummary {
     private final int importedCount;
     private final List<String> errors;
+    private final int processedCount;
+    private final long durationMillis;
+    private final boolean dryRun;
 
     public ImportSummary(int importedCount, List<String> errors) {
+        this(importedCount, errors, importedCount + (errors == null ? 0 : errors.size()), 0);
+    }
+
+    public ImportSummary(int importedCount, List<String> errors, int processedCount, long durationMillis) {
+        this(importedCount, errors, processedCount, durationMillis, false);
+    }
+
+    public ImportSummary(int importedCount, List<String> errors, int processedCount, long durationMillis, boolean dryRun) {
         this.importedCount = importedCount;
         this.errors = errors == null ? List.of() : List.copyOf(errors);
+        this.processedCount = processedCount;
+        this.durationMillis = durationMillis;
+        this.dryRun = dryRun;
     }
 
     public int getImportedCount() {
@@ -20,8 +34,28 @@ public class ImportSummary {
         return Collections.unmodifiableList(errors);
     }
 
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public double getRowsPerSecond() {
+        if (durationMillis <= 0) {
+            return processedCount;
+        }
+        return processedCount * 1000.0 / durationMillis;
+    }
+
     @Override
     public String toString() {
-        return "ImportSummary{importedCount=" + importedCount + ", errors=" + errors + '}';
+        return "ImportSummary{importedCount=" + importedCount + ", processedCount=" + processedCount
+                + ", durationMillis=" + durationMillis + ", dryRun=" + dryRun + ", errors=" + errors + '}';
     }
 }
@@ -1,5 +1,10 @@
 package com.example.zad1.model;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
 public enum Position {
     PREZES(25000,1),
     WICEPREZES(18000,2),
@@ -7,6 +12,14 @@ public enum Position {
     PROGRAMISTA(8000,4),
     STAZYSTA(3000,5);
 
+    private static final Map<String, Position> BY_NAME = new HashMap<>();
+
+    static {
+        for (Position position : values()) {
+            BY_NAME.put(position.name().toLowerCase(Locale.ROOT), position);
+        }
+    }
+
     private final int baseSalary;
     private final int baseHierarchy;
     
@@ -22,4 +35,9 @@ public enum Position {
     public int getHierarchy(){
         return baseHierarchy;
     }
+
+    public static Optional<Position> fromName(String name) {
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(BY_NAME.get(name.trim().toLowerCase(Locale.ROOT)));
+    }
 }
@@ -0,0 +1,6 @@
+package com.example.zad1.model;
+
+public enum ReportType {
+    CSV,
+    PDF
+}
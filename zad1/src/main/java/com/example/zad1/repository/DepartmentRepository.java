@@ -1,7 +1,25 @@
 package com.example.zad1.repository;
 
+import com.example.zad1.dto.DepartmentOption;
+import com.example.zad1.dto.DepartmentSummary;
 import com.example.zad1.model.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT new com.example.zad1.dto.DepartmentSummary(" +
+            "d.id, d.name, d.companyName, d.location, d.budget, d.managerEmail, m.fullName, " +
+            "COUNT(e), COALESCE(SUM(e.salary), 0L)) " +
+            "FROM Department d " +
+            "LEFT JOIN Employee e ON e.department = d " +
+            "LEFT JOIN Employee m ON m.email = d.managerEmail " +
+            "GROUP BY d.id, d.name, d.companyName, d.location, d.budget, d.managerEmail, m.fullName " +
+            "ORDER BY d.name, d.id")
+    List<DepartmentSummary> findSummaries();
+
+    @Query("SELECT new com.example.zad1.dto.DepartmentOption(d.id, d.name) FROM Department d ORDER BY d.name, d.id")
+    List<DepartmentOption> findOptions();
+}
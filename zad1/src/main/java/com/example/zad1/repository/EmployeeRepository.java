@@ -1,37 +1,141 @@
 package com.example.zad1.repository;
 
 import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.ManagerCandidate;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
 
-    @Query("SELECT e FROM Employee e")
-    Page<EmployeeListView> findAllProjectedBy(Pageable pageable);
+    @Query(value = "SELECT new com.example.zad1.dto.EmployeeListView(" +
+            "e.id, e.fullName, e.email, e.companyName, e.position, e.salary, e.status, d.name) " +
+            "FROM Employee e JOIN e.department d WHERE d.id = :departmentId",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.department.id = :departmentId")
+    Page<EmployeeListView> findByDepartmentId(Long departmentId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e ORDER BY e.id")
+    List<Employee> findFirstOrderedById(Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e WHERE e.id > :id ORDER BY e.id")
+    List<Employee> findAfterId(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e WHERE e.companyKey IS NULL AND e.id > :id ORDER BY e.id")
+    List<Employee> findWithoutCompanyKeyAfterId(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e " +
+            "WHERE e.companyKey >= :companyKey AND (e.companyKey > :companyKey OR e.id > :id) " +
+            "ORDER BY e.companyKey, e.id")
+    List<Employee> findAfterCompanyKey(String companyKey, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e WHERE e.companyKey LIKE :companyKeyPattern ESCAPE '\\' AND e.id > :id ORDER BY e.id")
+    List<Employee> findMatchingCompanyAfterId(String companyKeyPattern, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "department")
+    @Query("SELECT e FROM Employee e WHERE e.companyKey LIKE :companyKeyPattern ESCAPE '\\' " +
+            "AND e.companyKey >= :companyKey AND (e.companyKey > :companyKey OR e.id > :id) " +
+            "ORDER BY e.companyKey, e.id")
+    List<Employee> findMatchingCompanyAfterCompanyKey(String companyKeyPattern, String companyKey, Long id, Pageable pageable);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.department ORDER BY e.id")
+    Stream<Employee> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.department " +
+            "WHERE e.companyKey LIKE :companyKeyPattern ESCAPE '\\' ORDER BY e.id")
+    Stream<Employee> streamByCompanyKey(String companyKeyPattern);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e " +
+            "ORDER BY e.companyKey NULLS LAST, LOWER(e.lastName), LOWER(e.firstName), e.id")
+    Stream<Employee> streamAllSorted();
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.companyKey LIKE :companyKeyPattern ESCAPE '\\' " +
+            "ORDER BY e.companyKey, LOWER(e.lastName), LOWER(e.firstName), e.id")
+    Stream<Employee> streamByCompanyKeySorted(String companyKeyPattern);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.companyKey = :companyKey " +
+            "ORDER BY LOWER(e.lastName), LOWER(e.firstName), e.id")
+    Stream<Employee> streamByCompanyKeyEqualSorted(String companyKey);
+
+    @Query("SELECT new com.example.zad1.dto.ManagerCandidate(e.id, e.fullName, e.email, e.position) " +
+            "FROM Employee e WHERE e.position IN :positions ORDER BY e.fullName, e.id")
+    List<ManagerCandidate> findManagerCandidates(Collection<Position> positions);
+
     Optional<Employee> findByEmail(String email);
+    List<Employee> findByEmailIn(Collection<String> emails);
     void deleteByEmail(String email);
 
     @Query("SELECT new com.example.zad1.model.CompanyStatistics(" +
-            "e.companyName, " +
+            "MIN(e.companyName), " +
             "COUNT(e), " +
             "AVG(e.salary), " +
             "MAX(e.salary)) " +
             "FROM Employee e " +
-            "WHERE e.companyName IS NOT NULL AND e.companyName != '' " +
-            "GROUP BY e.companyName")
+            "WHERE e.companyKey IS NOT NULL " +
+            "GROUP BY e.companyKey")
     List<CompanyStatistics> getCompanyStatisticsJPQL();
 
+    @Query("SELECT new com.example.zad1.model.CompanyStatistics(" +
+            "MIN(e.companyName), " +
+            "COUNT(e), " +
+            "COALESCE(AVG(e.salary), 0.0), " +
+            "COALESCE(MAX(e.salary), 0)) " +
+            "FROM Employee e " +
+            "WHERE e.companyKey = :companyKey")
+    CompanyStatistics getCompanyStatisticsByKeyJPQL(String companyKey);
+
+    @Query("SELECT e.companyKey, e.fullName FROM Employee e " +
+            "WHERE e.companyKey IS NOT NULL " +
+            "AND e.salary = (SELECT MAX(e2.salary) FROM Employee e2 WHERE e2.companyKey = e.companyKey) " +
+            "ORDER BY e.id")
+    List<Object[]> findTopEarnersJPQL();
+
+    Optional<Employee> findFirstByCompanyKeyOrderBySalaryDescIdAsc(String companyKey);
+
     @Query("SELECT e.position, COUNT(e) FROM Employee e WHERE e.position IS NOT NULL GROUP BY e.position")
     List<Object[]> countByPositionJPQL();
 
@@ -45,4 +149,14 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSp
     Double getAverageSalaryByCompanyJPQL(String companyName);
 
     List<Employee> findByStatus(EmploymentStatus status);
+
+    Optional<Employee> findFirstByOrderBySalaryDescIdAsc();
+
+    List<Employee> findAllByOrderByLastNameAscFirstNameAscIdAsc();
+
+    Page<Employee> findAllByOrderByLastNameAscFirstNameAscIdAsc(Pageable pageable);
+
+    List<Employee> findByPositionIsNotNullOrderByPositionAscIdAsc();
+
+    Page<Employee> findByPosition(Position position, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.example.zad1.service;
+
+import com.example.zad1.cache.SingleFlight;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.CompanyStatistics;
+import com.example.zad1.model.Employee;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class CompanyStatisticsStore {
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final EmployeeService employeeService;
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Optional<CompanyStatistics>> companyLoads = new SingleFlight<>();
+    private volatile boolean loaded;
+    private long published;
+    private long completed;
+
+    public CompanyStatisticsStore(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    record Totals(String companyName, long count, long salarySum, int maxSalary, String topEarnerFullName, boolean stale) {
+
+        static Totals of(CompanyStatistics stats) {
+            long sum = Math.round(stats.getAverageSalary() * stats.getEmployeeCount());
+            return new Totals(stats.getCompanyName(), stats.getEmployeeCount(), sum, stats.getHighestSalary(),
+                    stats.getTopEarnerFullName(), false);
+        }
+
+        Totals add(EmployeeSnapshot employee) {
+            if (count == 0) {
+                return new Totals(employee.companyName(), 1, employee.salary(), employee.salary(), employee.fullName(), false);
+            }
+            boolean newTop = !stale && employee.salary() > maxSalary;
+            return new Totals(companyName, count + 1, salarySum + employee.salary(),
+                    newTop ? employee.salary() : maxSalary,
+                    newTop ? employee.fullName() : topEarnerFullName,
+                    stale);
+        }
+
+        Totals remove(EmployeeSnapshot employee) {
+            if (count <= 1) {
+                return null;
+            }
+            return new Totals(companyName, count - 1, salarySum - employee.salary(), maxSalary, topEarnerFullName,
+                    stale || employee.salary() >= maxSalary);
+        }
+
+        CompanyStatistics toStatistics() {
+            return new CompanyStatistics(companyName, count, (double) salarySum / count, topEarnerFullName, maxSalary);
+        }
+    }
+
+    public Map<String, CompanyStatistics> getAll() {
+        if (!loaded) {
+            Map<String, Totals> snapshot = reload();
+            if (!loaded) {
+                return statisticsOf(snapshot.values());
+            }
+        }
+        Map<String, CompanyStatistics> result = new TreeMap<>();
+        for (String key : totals.keySet()) {
+            find(key).ifPresent(stats -> result.put(stats.getCompanyName(), stats));
+        }
+        return result;
+    }
+
+    public Optional<CompanyStatistics> get(String companyName) {
+        String key = Employee.companyKeyOf(companyName);
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (!loaded && !totals.containsKey(key)) {
+            Optional<CompanyStatistics> fresh = loadCompany(key, companyName);
+            if (!totals.containsKey(key)) {
+                return fresh;
+            }
+        }
+        return find(key);
+    }
+
+    public SingleFlight.Stats coalescingStats() {
+        return companyLoads.stats();
+    }
+
+    public int rebuild() {
+        return reload().size();
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            synchronized (this) {
+                published++;
+                completed++;
+                apply(event);
+            }
+            return;
+        }
+        synchronized (this) {
+            published++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (CompanyStatisticsStore.this) {
+                    completed++;
+                    if (status == STATUS_COMMITTED) {
+                        apply(event);
+                    }
+                }
+            }
+        });
+    }
+
+    private void apply(EmployeeChangedEvent event) {
+        if (event.cleared()) {
+            totals.clear();
+            loaded = true;
+            return;
+        }
+        for (EmployeeChangedEvent.Change change : event.changes()) {
+            String before = change.before() == null ? null : Employee.companyKeyOf(change.before().companyName());
+            String after = change.after() == null ? null : Employee.companyKeyOf(change.after().companyName());
+            if (before != null) {
+                totals.computeIfPresent(before, (key, t) -> t.remove(change.before()));
+            }
+            if (after != null && (loaded || totals.containsKey(after))) {
+                totals.compute(after, (key, t) ->
+                        (t == null ? new Totals(null, 0, 0, 0, "", false) : t).add(change.after()));
+            }
+        }
+    }
+
+    // Odczyt z bazy jest spójny z licznikami zdarzeń tylko wtedy, gdy przed nim żadna zmiana nie czekała
+    // na commit, a w jego trakcie nie pojawiła się nowa - inaczej delta mogłaby zostać policzona dwa razy.
+    private synchronized long loadMark() {
+        return published == completed ? published : -1;
+    }
+
+    private boolean unchangedSince(long mark) {
+        return mark >= 0 && published == mark;
+    }
+
+    private Map<String, Totals> reload() {
+        Map<String, Totals> fresh = new HashMap<>();
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            long mark = loadMark();
+            fresh = new HashMap<>();
+            for (CompanyStatistics stats : employeeService.getCompanyStatistics().values()) {
+                fresh.put(Employee.companyKeyOf(stats.getCompanyName()), Totals.of(stats));
+            }
+            synchronized (this) {
+                if (unchangedSince(mark)) {
+                    totals.clear();
+                    totals.putAll(fresh);
+                    loaded = true;
+                    return fresh;
+                }
+            }
+        }
+        return fresh;
+    }
+
+    private static Map<String, CompanyStatistics> statisticsOf(Collection<Totals> values) {
+        Map<String, CompanyStatistics> result = new TreeMap<>();
+        for (Totals t : values) {
+            result.put(t.companyName(), t.toStatistics());
+        }
+        return result;
+    }
+
+    private Optional<CompanyStatistics> find(String key) {
+        Totals current = totals.get(key);
+        if (current != null && current.stale()) {
+            current = refreshTopEarner(key);
+        }
+        return Optional.ofNullable(current).map(Totals::toStatistics);
+    }
+
+    private Optional<CompanyStatistics> loadCompany(String key, String companyName) {
+        return companyLoads.execute(key, () -> {
+            long mark = loadMark();
+            Optional<CompanyStatistics> fresh = employeeService.getCompanyStatistics(companyName);
+            synchronized (this) {
+                if (!loaded && unchangedSince(mark)) {
+                    fresh.ifPresent(stats -> totals.putIfAbsent(key, Totals.of(stats)));
+                }
+            }
+            return fresh;
+        });
+    }
+
+    private synchronized Totals refreshTopEarner(String key) {
+        Totals current = totals.get(key);
+        if (current == null || !current.stale()) {
+            return current;
+        }
+        Totals refreshed = employeeService.findTopEarner(current.companyName())
+                .map(e -> new Totals(current.companyName(), current.count(), current.salarySum(),
+                        e.getSalary(), e.getFullName(), false))
+                .orElse(null);
+        if (refreshed == null) {
+            totals.remove(key);
+        } else {
+            totals.put(key, refreshed);
+        }
+        return refreshed;
+    }
+}
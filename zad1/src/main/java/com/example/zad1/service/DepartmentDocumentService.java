@@ -20,10 +20,11 @@ public class DepartmentDocumentService {
     }
 
     public DepartmentDocument saveDocument(Long departmentId, MultipartFile file, DocumentType type) {
-        String savedName = storageService.storeInUploads(file, Path.of("departments").resolve(String.valueOf(departmentId)).toString());
+        String savedName = storageService.storeHashedInUploads(file, Path.of("departments").resolve(String.valueOf(departmentId)).toString());
         String original = Optional.ofNullable(file.getOriginalFilename()).orElse(savedName);
         Path path = storageService.getUploadDir().resolve("departments").resolve(String.valueOf(departmentId)).resolve(savedName);
-        DepartmentDocument doc = new DepartmentDocument(departmentId, savedName, original, type, path.toString());
+        DepartmentDocument doc = new DepartmentDocument(departmentId, savedName, original, type, path.toString(),
+                storageService.contentHash(path).orElse(null));
         documentsByDepartment.computeIfAbsent(departmentId, k -> new ArrayList<>()).add(doc);
         return doc;
     }
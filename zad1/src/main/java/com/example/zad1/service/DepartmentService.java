@@ -1,23 +1,67 @@
 package com.example.zad1.service;
 
+import com.example.zad1.cache.TtlCache;
+import com.example.zad1.dto.DepartmentOption;
+import com.example.zad1.dto.DepartmentSummary;
+import com.example.zad1.dto.ManagerCandidate;
+import com.example.zad1.event.DepartmentChangedEvent;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
 import com.example.zad1.model.Department;
+import com.example.zad1.model.Position;
 import com.example.zad1.repository.DepartmentRepository;
+import com.example.zad1.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class DepartmentService {
+    private static final String ALL = "";
+    private static final List<Position> MANAGER_POSITIONS = Arrays.stream(Position.values())
+            .filter(p -> p.getHierarchy() <= 3)
+            .toList();
+
     private final DepartmentRepository departmentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher events;
+    private final TtlCache<String, List<DepartmentOption>> departments;
+    private final TtlCache<String, List<ManagerCandidate>> managerCandidates;
 
-    public DepartmentService(DepartmentRepository departmentRepository) {
+    public DepartmentService(DepartmentRepository departmentRepository, EmployeeRepository employeeRepository,
+                             ApplicationEventPublisher events,
+                             @Value("${app.reference-data.cache.ttl:10m}") Duration ttl) {
         this.departmentRepository = departmentRepository;
+        this.employeeRepository = employeeRepository;
+        this.events = events;
+        this.departments = new TtlCache<>(ttl, 1);
+        this.managerCandidates = new TtlCache<>(ttl, 1);
+    }
+
+    // Cache trzyma niemutowalne projekcje, a nie encje - odłączone encje z leniwymi relacjami
+    // nie mogą być współdzielone między żądaniami i wątkami.
+    public Collection<DepartmentOption> getAllDepartments(){
+        return departments.get(ALL, key -> List.copyOf(departmentRepository.findOptions()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ManagerCandidate> getManagerCandidates() {
+        return managerCandidates.get(ALL, key ->
+                List.copyOf(employeeRepository.findManagerCandidates(MANAGER_POSITIONS)));
     }
 
-    public Collection<Department> getAllDepartments(){
-        return departmentRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        return departmentRepository.findSummaries();
     }
 
     public Optional<Department> getDepartmentById(Long id){
@@ -26,7 +70,9 @@ public class DepartmentService {
 
     @Transactional
     public Department addDepartment(Department department) {
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        events.publishEvent(new DepartmentChangedEvent(saved != null ? saved.getId() : null));
+        return saved;
     }
 
     @Transactional
@@ -37,6 +83,7 @@ public class DepartmentService {
             existing.setBudget(changes.getBudget());
             existing.setManagerEmail(changes.getManagerEmail());
             departmentRepository.save(existing);
+            events.publishEvent(new DepartmentChangedEvent(id));
             return existing;
         });
     }
@@ -45,8 +92,38 @@ public class DepartmentService {
     public boolean deleteDepartment(Long id) {
         if (departmentRepository.existsById(id)) {
             departmentRepository.deleteById(id);
+            events.publishEvent(new DepartmentChangedEvent(id));
             return true;
         }
         return false;
     }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChangedEvent event) {
+        departments.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.cleared() || event.changes().stream().anyMatch(DepartmentService::affectsManagerCandidates)) {
+            managerCandidates.invalidateAll();
+        }
+    }
+
+    private static boolean affectsManagerCandidates(EmployeeChangedEvent.Change change) {
+        boolean was = isManagerCandidate(change.before());
+        boolean is = isManagerCandidate(change.after());
+        if (!was && !is) {
+            return false;
+        }
+        if (was != is) {
+            return true;
+        }
+        return change.before().position() != change.after().position()
+                || !Objects.equals(change.before().fullName(), change.after().fullName());
+    }
+
+    private static boolean isManagerCandidate(EmployeeSnapshot employee) {
+        return employee != null && employee.position() != null && MANAGER_POSITIONS.contains(employee.position());
+    }
 }
@@ -0,0 +1,175 @@
+package com.example.zad1.service;
+
+import com.example.zad1.dto.BulkItemResult;
+import com.example.zad1.dto.EmployeeDTO;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class EmployeeBulkService {
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public EmployeeBulkService(EmployeeService employeeService, ObjectMapper objectMapper, Validator validator,
+                               @Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public void upsert(InputStream in, OutputStream out, boolean ndjson) throws IOException {
+        Chunk chunk = new Chunk();
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("results");
+            }
+
+            try {
+                JsonToken token = parser.nextToken();
+                boolean array = token == JsonToken.START_ARRAY;
+                if (array) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode node = parser.readValueAsTree();
+                    chunk.results.add(stage(index++, node, chunk));
+                    if (chunk.results.size() >= chunkSize) {
+                        chunk.flush(generator);
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                chunk.results.add(BulkItemResult.failed(index, null,
+                        List.of("Niepoprawny format danych: " + e.getOriginalMessage())));
+            }
+            chunk.flush(generator);
+
+            if (ndjson) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("summary");
+                writeTotals(generator, chunk);
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+                writeTotals(generator, chunk);
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    private BulkItemResult stage(int index, JsonNode node, Chunk chunk) {
+        String email = node.hasNonNull("email") ? node.get("email").asText() : null;
+        EmployeeDTO dto;
+        try {
+            dto = objectMapper.treeToValue(node, EmployeeDTO.class);
+        } catch (JsonProcessingException e) {
+            return BulkItemResult.failed(index, email, List.of("Niepoprawny format danych: " + e.getOriginalMessage()));
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<EmployeeDTO> violation : validator.validate(dto)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Position position = dto.getPosition() == null ? null : Position.fromName(dto.getPosition()).orElse(null);
+        if (dto.getPosition() != null && position == null) {
+            errors.add("position: Nieznane stanowisko " + dto.getPosition());
+        }
+        EmploymentStatus status = null;
+        if (dto.getStatus() != null) {
+            try {
+                status = EmploymentStatus.valueOf(dto.getStatus().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                errors.add("status: Nieznany status " + dto.getStatus());
+            }
+        }
+        if (!errors.isEmpty()) {
+            errors.sort(null);
+            return BulkItemResult.failed(index, email, errors);
+        }
+
+        String fullName = (dto.getFirstName().trim() + " " + dto.getLastName().trim()).trim();
+        Employee employee = new Employee(fullName, dto.getEmail(), dto.getCompany(), position, dto.getSalary());
+        if (status != null) {
+            employee.setStatus(status);
+        }
+        BulkItemResult result = new BulkItemResult(index, dto.getEmail(), null, null);
+        chunk.employees.add(employee);
+        chunk.pending.add(result);
+        return result;
+    }
+
+    private void writeTotals(JsonGenerator generator, Chunk chunk) throws IOException {
+        generator.writeNumberField("created", chunk.created);
+        generator.writeNumberField("updated", chunk.updated);
+        generator.writeNumberField("failed", chunk.failed);
+    }
+
+    private class Chunk {
+        private final List<BulkItemResult> results = new ArrayList<>();
+        private final List<BulkItemResult> pending = new ArrayList<>();
+        private final List<Employee> employees = new ArrayList<>();
+        private int created;
+        private int updated;
+        private int failed;
+
+        void flush(JsonGenerator generator) throws IOException {
+            if (!employees.isEmpty()) {
+                try {
+                    List<BulkItemResult.Status> statuses = employeeService.upsertEmployees(employees);
+                    for (int i = 0; i < pending.size(); i++) {
+                        pending.get(i).setStatus(statuses.get(i));
+                    }
+                } catch (RuntimeException e) {
+                    for (BulkItemResult result : pending) {
+                        result.setStatus(BulkItemResult.Status.FAILED);
+                        result.setErrors(List.of("Błąd zapisu do bazy danych: " + e.getMessage()));
+                    }
+                }
+            }
+            for (BulkItemResult result : results) {
+                switch (result.getStatus()) {
+                    case CREATED -> created++;
+                    case UPDATED -> updated++;
+                    case FAILED -> failed++;
+                }
+                generator.writeObject(result);
+            }
+            generator.flush();
+            results.clear();
+            pending.clear();
+            employees.clear();
+        }
+    }
+}
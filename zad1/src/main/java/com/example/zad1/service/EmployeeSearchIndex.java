@@ -0,0 +1,272 @@
+package com.example.zad1.service;
+
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.SearchPage;
+import com.example.zad1.event.DepartmentChangedEvent;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Service
+public class EmployeeSearchIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.8;
+    private static final double SUBSTRING = 0.6;
+    private static final double FUZZY = 0.5;
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private static final Comparator<EmployeeSearchHit> RANKING = Comparator
+            .comparingDouble(EmployeeSearchHit::score).reversed()
+            .thenComparing(EmployeeSearchHit::fullName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(EmployeeSearchHit::email);
+
+    enum Field {
+        NAME(3.0), EMAIL(2.0), COMPANY(1.5), DEPARTMENT(1.0);
+
+        final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final EmployeeService employeeService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, EmployeeSnapshot> documents = new HashMap<>();
+    private final Map<String, Map<String, Double>> postings = new HashMap<>();
+    private final Map<String, Set<String>> trigramTerms = new HashMap<>();
+    private volatile boolean loaded;
+
+    public EmployeeSearchIndex(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    public SearchPage<EmployeeSearchHit> search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, EmployeeService.MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty()) {
+            return new SearchPage<>(List.of(), pageNumber, pageSize, 0);
+        }
+        ensureLoaded();
+
+        List<EmployeeSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (String token : tokens) {
+                Map<String, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((email, score) -> score + tokenScores.get(email));
+                }
+                if (scores.isEmpty()) break;
+            }
+            scores.forEach((email, score) -> hits.add(EmployeeSearchHit.of(documents.get(email), score)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(RANKING);
+        int from = (int) Math.min((long) pageNumber * pageSize, hits.size());
+        int to = Math.min(from + pageSize, hits.size());
+        return new SearchPage<>(List.copyOf(hits.subList(from, to)), pageNumber, pageSize, hits.size());
+    }
+
+    public int rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            employeeService.forEachEmployee(null, employee -> add(EmployeeSnapshot.of(employee)));
+            loaded = true;
+            return documents.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.cleared()) {
+                clear();
+                loaded = true;
+                return;
+            }
+            if (!loaded) return;
+            for (EmployeeChangedEvent.Change change : event.changes()) {
+                if (change.before() != null) {
+                    remove(change.before().email());
+                }
+                if (change.after() != null) {
+                    add(change.after());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChangedEvent event) {
+        loaded = false;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Map<String, Double> scoreToken(String token) {
+        Map<String, Double> scores = new HashMap<>();
+        matchTerms(token).forEach((term, match) ->
+                postings.get(term).forEach((email, weight) -> scores.merge(email, match * weight, Math::max)));
+        return scores;
+    }
+
+    private Map<String, Double> matchTerms(String token) {
+        Map<String, Double> matches = new HashMap<>();
+        if (postings.containsKey(token)) {
+            matches.put(token, EXACT);
+        }
+        Set<String> grams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String term : trigramTerms.getOrDefault(gram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        shared.forEach((term, count) -> {
+            if (term.equals(token)) return;
+            if (term.startsWith(token)) {
+                matches.put(term, PREFIX);
+            } else if (term.contains(token)) {
+                matches.put(term, SUBSTRING);
+            } else {
+                double similarity = (double) count / (grams.size() + trigrams(term).size() - count);
+                if (similarity >= MIN_SIMILARITY) {
+                    matches.put(term, FUZZY * similarity);
+                }
+            }
+        });
+        return matches;
+    }
+
+    private void add(EmployeeSnapshot employee) {
+        if (employee.email() == null) return;
+        remove(employee.email());
+        documents.put(employee.email(), employee);
+        terms(employee).forEach((term, weight) -> {
+            Map<String, Double> posting = postings.computeIfAbsent(term, t -> {
+                for (String gram : trigrams(t)) {
+                    trigramTerms.computeIfAbsent(gram, g -> new HashSet<>()).add(t);
+                }
+                return new HashMap<>();
+            });
+            posting.put(employee.email(), weight);
+        });
+    }
+
+    private void remove(String email) {
+        EmployeeSnapshot previous = documents.remove(email);
+        if (previous == null) return;
+        for (String term : terms(previous).keySet()) {
+            Map<String, Double> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(email);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigrams(term)) {
+                    Set<String> terms = trigramTerms.get(gram);
+                    if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                        trigramTerms.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private void clear() {
+        documents.clear();
+        postings.clear();
+        trigramTerms.clear();
+    }
+
+    private static Map<String, Double> terms(EmployeeSnapshot employee) {
+        Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, employee.fullName(), Field.NAME);
+        addTerms(terms, employee.email(), Field.EMAIL);
+        addTerms(terms, employee.companyName(), Field.COMPANY);
+        addTerms(terms, employee.departmentName(), Field.DEPARTMENT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Double> terms, String text, Field field) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, field.weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("")
+                .replace('ł', 'l');
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
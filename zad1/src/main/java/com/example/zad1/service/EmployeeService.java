@@ -1,6 +1,12 @@
 package com.example.zad1.service;
 
+import com.example.zad1.dto.BulkItemResult;
+import com.example.zad1.dto.EmployeeCursor;
 import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.exception.InvalidDataException;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.Position;
@@ -10,10 +16,15 @@ import com.example.zad1.repository.EmployeeRepository;
 import com.example.zad1.specification.EmployeeSpecification;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,17 +33,89 @@ import org.springframework.validation.annotation.Validated;
 @Service
 @Validated
 public class EmployeeService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final EmployeeRepository employeeRepository;
     private final DepartmentRepository departmentRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
 
-    public EmployeeService(EmployeeRepository employeeRepository, DepartmentRepository departmentRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, DepartmentRepository departmentRepository,
+                           EntityManager entityManager, ApplicationEventPublisher events) {
         this.employeeRepository = employeeRepository;
         this.departmentRepository = departmentRepository;
+        this.entityManager = entityManager;
+        this.events = events;
     }
 
     @Transactional(readOnly = true)
-    public Page<EmployeeListView> getEmployeesList(Pageable pageable) {
-        return employeeRepository.findAllProjectedBy(pageable);
+    public KeysetPage<Employee> getEmployeesAfter(String company, String cursor, int limit, String sort, boolean withCount) {
+        boolean byCompany;
+        if ("company".equalsIgnoreCase(sort)) {
+            byCompany = true;
+        } else if (sort == null || "id".equalsIgnoreCase(sort)) {
+            byCompany = false;
+        } else {
+            throw new InvalidDataException("Nieznane sortowanie: " + sort + " (dozwolone: id, company)");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest fetch = PageRequest.of(0, size + 1);
+        EmployeeCursor after = cursor == null || cursor.isBlank() ? null : EmployeeCursor.decode(cursor);
+        if (after != null && after.byCompany() != byCompany) {
+            throw new InvalidDataException("Kursor stronicowania nie pasuje do wybranego sortowania");
+        }
+
+        String companyPattern = EmployeeSpecification.companyContains(company);
+        List<Employee> rows;
+        if (companyPattern != null) {
+            rows = pageMatchingCompany(companyPattern, after, byCompany, fetch);
+        } else if (byCompany) {
+            rows = pageByCompanyKey(after, size + 1);
+        } else {
+            rows = after == null
+                    ? employeeRepository.findFirstOrderedById(fetch)
+                    : employeeRepository.findAfterId(after.id(), fetch);
+        }
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Employee last = rows.get(size - 1);
+            String company = byCompany ? Objects.requireNonNullElse(last.getCompanyKey(), "") : null;
+            next = new EmployeeCursor(last.getId(), company).encode();
+        }
+        Long total = !withCount ? null
+                : companyPattern == null ? employeeRepository.count()
+                : employeeRepository.count(EmployeeSpecification.filterBy(company, null, null));
+        return new KeysetPage<>(List.copyOf(rows), next, total);
+    }
+
+    private List<Employee> pageMatchingCompany(String companyPattern, EmployeeCursor after, boolean byCompany, Pageable fetch) {
+        long afterId = after == null ? Long.MIN_VALUE : after.id();
+        if (!byCompany) {
+            return employeeRepository.findMatchingCompanyAfterId(companyPattern, afterId, fetch);
+        }
+        String companyKey = after == null ? null : Employee.companyKeyOf(after.company());
+        return companyKey == null
+                ? employeeRepository.findMatchingCompanyAfterCompanyKey(companyPattern, "", Long.MIN_VALUE, fetch)
+                : employeeRepository.findMatchingCompanyAfterCompanyKey(companyPattern, companyKey, afterId, fetch);
+    }
+
+    private List<Employee> pageByCompanyKey(EmployeeCursor after, int fetch) {
+        String companyKey = after == null ? null : Employee.companyKeyOf(after.company());
+        List<Employee> rows = new ArrayList<>();
+        if (companyKey == null) {
+            long afterId = after == null ? Long.MIN_VALUE : after.id();
+            rows.addAll(employeeRepository.findWithoutCompanyKeyAfterId(afterId, PageRequest.of(0, fetch)));
+        }
+        if (rows.size() < fetch) {
+            PageRequest rest = PageRequest.of(0, fetch - rows.size());
+            rows.addAll(companyKey == null
+                    ? employeeRepository.findAfterCompanyKey("", Long.MIN_VALUE, rest)
+                    : employeeRepository.findAfterCompanyKey(companyKey, after.id(), rest));
+        }
+        return rows;
     }
 
     @Transactional(readOnly = true)
@@ -40,6 +123,11 @@ public class EmployeeService {
         return employeeRepository.findAll(EmployeeSpecification.filterBy(company, minSalary, maxSalary), pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Page<EmployeeListView> getEmployeesInDepartment(Long departmentId, Pageable pageable) {
+        return employeeRepository.findByDepartmentId(departmentId, pageable);
+    }
+
     public Optional<Employee> getEmployeeByEmail(String email) {
         return employeeRepository.findByEmail(email);
     }
@@ -48,6 +136,46 @@ public class EmployeeService {
         return employeeRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public void forEachEmployee(String company, Consumer<Employee> action) {
+        String companyPattern = EmployeeSpecification.companyContains(company);
+        try (Stream<Employee> stream = companyPattern == null
+                ? employeeRepository.streamAll()
+                : employeeRepository.streamByCompanyKey(companyPattern)) {
+            stream.forEach(employee -> {
+                action.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachEmployeeSorted(String company, Consumer<Employee> action) {
+        String companyPattern = EmployeeSpecification.companyContains(company);
+        try (Stream<Employee> stream = companyPattern == null
+                ? employeeRepository.streamAllSorted()
+                : employeeRepository.streamByCompanyKeySorted(companyPattern)) {
+            stream.forEach(employee -> {
+                action.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachEmployeeOfCompany(String company, Consumer<Employee> action) {
+        String companyKey = Employee.companyKeyOf(company);
+        if (companyKey == null) {
+            return;
+        }
+        try (Stream<Employee> stream = employeeRepository.streamByCompanyKeyEqualSorted(companyKey)) {
+            stream.forEach(employee -> {
+                action.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
     @Transactional
     public boolean addEmployee(@Valid Employee employee){
         if (employee==null || employee.getEmail()==null || employee.getEmail().isBlank() || employeeRepository.existsByEmail(employee.getEmail())){
@@ -58,13 +186,93 @@ public class EmployeeService {
                     .ifPresent(employee::setDepartment);
         }
         employeeRepository.save(employee);
+        events.publishEvent(EmployeeChangedEvent.created(List.of(employee)));
         return true;
     }
 
+    @Transactional
+    public List<Employee> addEmployeesBatch(List<Employee> employees) {
+        if (employees == null || employees.isEmpty()) {
+            return List.of();
+        }
+        Set<String> emails = employees.stream()
+                .filter(Objects::nonNull)
+                .map(Employee::getEmail)
+                .filter(email -> email != null && !email.isBlank())
+                .collect(Collectors.toSet());
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        Set<String> taken = new HashSet<>(employeeRepository.findExistingEmails(emails));
+
+        List<Employee> accepted = new ArrayList<>();
+        for (Employee employee : employees) {
+            if (employee == null || employee.getEmail() == null || employee.getEmail().isBlank()) continue;
+            if (taken.add(employee.getEmail())) {
+                accepted.add(employee);
+            }
+        }
+        employeeRepository.saveAll(accepted);
+        employeeRepository.flush();
+        if (!accepted.isEmpty()) {
+            events.publishEvent(EmployeeChangedEvent.created(accepted));
+        }
+        return accepted;
+    }
+
+    @Transactional
+    public List<BulkItemResult.Status> upsertEmployees(List<Employee> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return List.of();
+        }
+        Set<String> emails = changes.stream().map(Employee::getEmail).collect(Collectors.toSet());
+        Map<String, Employee> byEmail = new HashMap<>();
+        for (Employee existing : employeeRepository.findByEmailIn(emails)) {
+            byEmail.put(existing.getEmail(), existing);
+        }
+
+        List<Employee> created = new ArrayList<>();
+        List<BulkItemResult.Status> statuses = new ArrayList<>(changes.size());
+        List<EmployeeChangedEvent.Change> published = new ArrayList<>(changes.size());
+        for (Employee change : changes) {
+            Employee existing = byEmail.get(change.getEmail());
+            if (existing == null) {
+                byEmail.put(change.getEmail(), change);
+                created.add(change);
+                statuses.add(BulkItemResult.Status.CREATED);
+                published.add(new EmployeeChangedEvent.Change(null, EmployeeSnapshot.of(change)));
+            } else {
+                EmployeeSnapshot before = EmployeeSnapshot.of(existing);
+                existing.setFullName(change.getFullName());
+                existing.setCompanyName(change.getCompanyName());
+                existing.setPosition(change.getPosition());
+                existing.setSalary(change.getSalary());
+                if (change.getStatus() != null) {
+                    existing.setStatus(change.getStatus());
+                }
+                statuses.add(BulkItemResult.Status.UPDATED);
+                published.add(new EmployeeChangedEvent.Change(before, EmployeeSnapshot.of(existing)));
+            }
+        }
+        employeeRepository.saveAll(created);
+        employeeRepository.flush();
+        events.publishEvent(EmployeeChangedEvent.of(published));
+        return statuses;
+    }
+
+    @Transactional(readOnly = true)
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails == null || emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(employeeRepository.findExistingEmails(emails));
+    }
+
     @Transactional
     public Optional<Employee> updateEmployeeByEmail(String email, Employee changes) {
         if (email == null || changes == null) return Optional.empty();
         return employeeRepository.findByEmail(email).map(existing -> {
+            EmployeeSnapshot before = EmployeeSnapshot.of(existing);
             existing.setFullName(changes.getFullName());
             existing.setCompanyName(changes.getCompanyName());
             existing.setPosition(changes.getPosition());
@@ -75,36 +283,48 @@ public class EmployeeService {
             departmentRepository.findById(existing.getDepartmentId())
                     .ifPresent(existing::setDepartment);
 
-            return employeeRepository.save(existing);
+            Employee saved = employeeRepository.save(existing);
+            events.publishEvent(EmployeeChangedEvent.updated(before, saved));
+            return saved;
         });
     }
 
     @Transactional
     public boolean deleteEmployeeByEmail(String email) {
-        if (employeeRepository.existsByEmail(email)) {
-            employeeRepository.deleteByEmail(email);
+        return employeeRepository.findByEmail(email).map(existing -> {
+            employeeRepository.delete(existing);
+            events.publishEvent(EmployeeChangedEvent.deleted(existing));
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
 
     @Transactional
     public Optional<Employee> updateStatusByEmail(String email, EmploymentStatus status){
         return employeeRepository.findByEmail(email).map(e -> {
+            EmployeeSnapshot before = EmployeeSnapshot.of(e);
             e.setStatus(status);
-            return employeeRepository.save(e);
+            Employee saved = employeeRepository.save(e);
+            events.publishEvent(EmployeeChangedEvent.updated(before, saved));
+            return saved;
         });
     }
 
     @Transactional
     public void deleteAll() {
         employeeRepository.deleteAll();
+        events.publishEvent(EmployeeChangedEvent.allDeleted());
     }
 
     @Transactional(readOnly = true)
     public Map<String, CompanyStatistics> getCompanyStatistics() {
         List<CompanyStatistics> statsList = employeeRepository.getCompanyStatisticsJPQL();
+        Map<String, String> topEarners = new HashMap<>();
+        for (Object[] row : employeeRepository.findTopEarnersJPQL()) {
+            topEarners.putIfAbsent((String) row[0], (String) row[1]);
+        }
 
+        statsList.forEach(stat -> stat.setTopEarnerFullName(
+                topEarners.getOrDefault(Employee.companyKeyOf(stat.getCompanyName()), "")));
         return statsList.stream()
                 .collect(Collectors.toMap(
                         CompanyStatistics::getCompanyName,
@@ -112,11 +332,36 @@ public class EmployeeService {
                 ));
     }
 
+    @Transactional(readOnly = true)
+    public Optional<CompanyStatistics> getCompanyStatistics(String company) {
+        String key = Employee.companyKeyOf(company);
+        if (key == null) {
+            return Optional.empty();
+        }
+        CompanyStatistics stats = employeeRepository.getCompanyStatisticsByKeyJPQL(key);
+        if (stats == null || stats.getEmployeeCount() == 0) {
+            return Optional.empty();
+        }
+        findTopEarner(company).ifPresent(top -> stats.setTopEarnerFullName(top.getFullName()));
+        return Optional.of(stats);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Employee> findTopEarner(String company) {
+        String key = Employee.companyKeyOf(company);
+        return key == null ? Optional.empty() : employeeRepository.findFirstByCompanyKeyOrderBySalaryDescIdAsc(key);
+    }
+
     @Transactional(readOnly = true)
     public List<Employee> getEmployeeByCompany(String company) {
         return employeeRepository.findAll(EmployeeSpecification.filterBy(company, null, null));
     }
 
+    @Transactional(readOnly = true)
+    public long countEmployees() {
+        return employeeRepository.count();
+    }
+
     @Transactional(readOnly = true)
     public double getAverageSalary() {
         return employeeRepository.getAverageSalaryJPQL();
@@ -127,22 +372,30 @@ public class EmployeeService {
         return employeeRepository.getAverageSalaryByCompanyJPQL(company);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Employee> getHighestSalary() {
-        return getAllEmployees().stream()
-                .max(Comparator.comparingInt(Employee::getSalary));
+        return employeeRepository.findFirstByOrderBySalaryDescIdAsc();
     }
 
+    @Transactional(readOnly = true)
     public List<Employee> validateSalaryConsistency() {
-        return employeeRepository.findAll().stream()
-                .filter(Objects::nonNull)
-                .filter(emp -> emp.getPosition() != null)
-                .filter(emp -> emp.getSalary() < emp.getPosition().getSalary())
-                .collect(Collectors.toList());
+        return employeeRepository.findAll(EmployeeSpecification.salaryBelowPositionBase());
     }
 
+    @Transactional(readOnly = true)
+    public Page<Employee> validateSalaryConsistency(Pageable pageable) {
+        return employeeRepository.findAll(EmployeeSpecification.salaryBelowPositionBase(), pageable);
+    }
+
+    @Transactional(readOnly = true)
     public Map<Position, List<Employee>> groupByPosition(){
-        return getAllEmployees().stream()
-                .collect(Collectors.groupingBy(Employee::getPosition));
+        return employeeRepository.findByPositionIsNotNullOrderByPositionAscIdAsc().stream()
+                .collect(Collectors.groupingBy(Employee::getPosition, () -> new EnumMap<>(Position.class), Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Employee> getByPosition(Position position, Pageable pageable) {
+        return employeeRepository.findByPosition(position, pageable);
     }
 
     @Transactional(readOnly = true)
@@ -170,12 +423,14 @@ public class EmployeeService {
         return employeeRepository.findByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<Employee> getAllAlphabetically(){
-        return getAllEmployees().stream()
-                .sorted(Comparator
-                        .comparing(Employee::getLastName)
-                        .thenComparing(Employee::getFirstName))
-                .collect(Collectors.toList());
+        return employeeRepository.findAllByOrderByLastNameAscFirstNameAscIdAsc();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Employee> getAllAlphabetically(Pageable pageable) {
+        return employeeRepository.findAllByOrderByLastNameAscFirstNameAscIdAsc(pageable);
     }
 
     public void displayAll(){
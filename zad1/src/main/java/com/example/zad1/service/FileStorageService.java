@@ -12,12 +12,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Service
 public class FileStorageService {
+    static final String HASH_SUFFIX = ".sha256";
+
     private final Path uploadDir;
     private final Path reportsDir;
 
@@ -59,17 +65,68 @@ public class FileStorageService {
     }
 
     public String storeInUploads(MultipartFile file, String subfolder){
+        Path target = newUploadTarget(file, subfolder);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new FileStorageException("Błąd zapisu pliku", e);
+        }
+        return target.getFileName().toString();
+    }
+
+    // Pliki serwowane z ETag (dokumenty, zdjęcia): SHA-256 liczony przy zapisie i trzymany obok pliku.
+    public String storeHashedInUploads(MultipartFile file, String subfolder){
+        Path target = newUploadTarget(file, subfolder);
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(hashFileOf(target), HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException ignored) {
+            }
+            throw new FileStorageException("Błąd zapisu pliku", e);
+        }
+        return target.getFileName().toString();
+    }
+
+    private Path newUploadTarget(MultipartFile file, String subfolder){
         String original = Optional.ofNullable(file.getOriginalFilename()).orElse("file");
         String ext = getExtension(original);
         String unique = UUID.randomUUID() + (ext.isBlank()?"":"."+ext);
         Path targetDir = uploadDir.resolve(Optional.ofNullable(subfolder).orElse(""));
         ensureDir(targetDir);
-        Path target = targetDir.resolve(unique);
+        return targetDir.resolve(unique);
+    }
+
+    private static Path hashFileOf(Path file){
+        return file.resolveSibling(file.getFileName() + HASH_SUFFIX);
+    }
+
+    public Optional<String> contentHash(Path file){
         try {
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-            return unique;
+            return Optional.of(Files.readString(hashFileOf(file)).trim()).filter(hash -> !hash.isEmpty());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
         } catch (IOException e) {
-            throw new FileStorageException("Błąd zapisu pliku", e);
+            throw new FileStorageException("Błąd odczytu skrótu pliku: " + file, e);
+        }
+    }
+
+    public void moveInUploads(String subfolder, String fileName, String newFileName){
+        Path dir = uploadDir.resolve(Optional.ofNullable(subfolder).orElse(""));
+        Path source = dir.resolve(fileName).normalize();
+        Path target = dir.resolve(newFileName).normalize();
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.exists(hashFileOf(source))) {
+                Files.move(hashFileOf(source), hashFileOf(target), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(hashFileOf(target));
+            }
+        } catch (IOException e) {
+            throw new FileStorageException("Błąd przenoszenia pliku: " + source, e);
         }
     }
 
@@ -84,10 +141,17 @@ public class FileStorageService {
         }
     }
 
+    public Path locateInUploads(String subfolder, String fileName){
+        Path path = uploadDir.resolve(Optional.ofNullable(subfolder).orElse("")).resolve(fileName).normalize();
+        if (Files.isRegularFile(path) && Files.isReadable(path)) return path;
+        throw new FileNotFoundException("Plik nie istnieje: " + path);
+    }
+
     public void deleteFromUploads(String subfolder, String fileName){
         Path path = uploadDir.resolve(Optional.ofNullable(subfolder).orElse("")).resolve(fileName);
         try {
             Files.deleteIfExists(path);
+            Files.deleteIfExists(hashFileOf(path));
         } catch (IOException e) {
             throw new FileStorageException("Błąd usuwania pliku: " + path, e);
         }
@@ -98,15 +162,23 @@ public class FileStorageService {
         return idx>=0? name.substring(idx+1):"";
     }
 
+    private static MessageDigest sha256(){
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public String probeContentType(Path path){
         try { return Files.probeContentType(path); } catch (IOException e) { return null; }
     }
 
     public EmployeeDocument saveEmployeeDocument(String email, MultipartFile file, DocumentType type){
-        String savedName = storeInUploads(file, Paths.get("documents").resolve(email).toString());
+        String savedName = storeHashedInUploads(file, Paths.get("documents").resolve(email).toString());
         String original = Optional.ofNullable(file.getOriginalFilename()).orElse(savedName);
         Path path = uploadDir.resolve("documents").resolve(email).resolve(savedName);
-        EmployeeDocument doc = new EmployeeDocument(email, savedName, original, type, path.toString());
+        EmployeeDocument doc = new EmployeeDocument(email, savedName, original, type, path.toString(), contentHash(path).orElse(null));
         documents.computeIfAbsent(email, k -> new ArrayList<>()).add(doc);
         return doc;
     }
@@ -0,0 +1,105 @@
+package com.example.zad1.service;
+
+import com.example.zad1.exception.ImportJobNotFoundException;
+import com.example.zad1.exception.ImportRejectedException;
+import com.example.zad1.model.ImportJob;
+import com.example.zad1.model.ImportJobStatus;
+import com.example.zad1.model.ImportSummary;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ImportJobService {
+    private final ImportService importService;
+    private final AsyncTaskExecutor executor;
+    private final int retainedJobs;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(ImportService importService,
+                            @Qualifier("importExecutor") AsyncTaskExecutor executor,
+                            @Value("${app.import.jobs.retained:100}") int retainedJobs) {
+        this.importService = importService;
+        this.executor = executor;
+        this.retainedJobs = retainedJobs;
+    }
+
+    public ImportJob submitCsv(String savedPath, String originalFileName, boolean dryRun) {
+        return submit(new ImportJob(ImportJob.Type.CSV, originalFileName, dryRun), savedPath);
+    }
+
+    public ImportJob submitXml(String savedPath, String originalFileName, boolean dryRun) {
+        return submit(new ImportJob(ImportJob.Type.XML, originalFileName, dryRun), savedPath);
+    }
+
+    public ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ImportJobNotFoundException(id);
+        }
+        return job;
+    }
+
+    public List<ImportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ImportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    public ImportJob cancel(String id) {
+        ImportJob job = getJob(id);
+        if (job.isFinished()) {
+            return job;
+        }
+        job.getProgress().cancel();
+        if (job.getStatus() == ImportJobStatus.QUEUED && job.getFuture() != null && job.getFuture().cancel(false)) {
+            job.markCancelled();
+        }
+        return job;
+    }
+
+    private ImportJob submit(ImportJob job, String savedPath) {
+        evictFinishedJobs();
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, savedPath)));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw new ImportRejectedException("Zbyt wiele importów w kolejce. Spróbuj ponownie później.");
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, String savedPath) {
+        if (job.getProgress().isCancelled()) {
+            job.markCancelled();
+            return;
+        }
+        job.markRunning();
+        try {
+            ImportSummary summary = job.getType() == ImportJob.Type.CSV
+                    ? importService.importFromCsv(savedPath, job.isDryRun(), job.getProgress())
+                    : importService.importFromXml(savedPath, job.isDryRun(), job.getProgress());
+            job.complete(summary);
+        } catch (RuntimeException e) {
+            job.fail("Błąd importu: " + e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        List<ImportJob> finished = jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(ImportJob::getFinishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - retainedJobs + 1; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.zad1.service;
+
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.ImportProgress;
+import com.example.zad1.model.ImportSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ImportRun {
+    private final EmployeeService employeeService;
+    private final int batchSize;
+    private final ImportProgress progress;
+    private final boolean dryRun;
+    private final Map<String, Integer> firstLineByEmail = new HashMap<>();
+    private final List<Row> pending;
+    private final List<String> errors = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private int imported;
+    private int processed;
+
+    ImportRun(EmployeeService employeeService, int batchSize, ImportProgress progress, boolean dryRun) {
+        this.employeeService = employeeService;
+        this.batchSize = Math.max(1, batchSize);
+        this.progress = progress;
+        this.dryRun = dryRun;
+        this.pending = new ArrayList<>(this.batchSize);
+    }
+
+    static String lineLabel(int line, int column) {
+        return column > 0 ? "Linia " + line + ", kolumna " + column : "Linia " + line;
+    }
+
+    static String inLine(int line, int column) {
+        return column > 0 ? "linii " + line + ", kolumnie " + column : "linii " + line;
+    }
+
+    void add(int lineNumber, Employee employee) {
+        add(lineNumber, 0, employee);
+    }
+
+    void add(int lineNumber, int column, Employee employee) {
+        Integer firstLine = firstLineByEmail.putIfAbsent(employee.getEmail(), lineNumber);
+        if (firstLine != null) {
+            reject("Nie dodano pracownika z " + inLine(lineNumber, column) + ": email " + employee.getEmail()
+                    + " występuje już w linii " + firstLine + " pliku.");
+            return;
+        }
+        stage(new Row(lineNumber, column, employee, null));
+    }
+
+    void reject(String error) {
+        stage(new Row(0, 0, null, error));
+    }
+
+    private void stage(Row row) {
+        pending.add(row);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void fail(String error) {
+        flush();
+        errors.add(error);
+    }
+
+    boolean isCancelled() {
+        return progress.isCancelled();
+    }
+
+    ImportSummary finish() {
+        if (isCancelled()) {
+            errors.add("Import został anulowany. Pominięto " + pending.size() + " niezapisanych wierszy.");
+            pending.clear();
+        } else {
+            flush();
+        }
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        return new ImportSummary(imported, errors, processed, millis, dryRun);
+    }
+
+    private void flush() {
+        if (pending.isEmpty() || isCancelled()) return;
+
+        List<Employee> candidates = new ArrayList<>(pending.size());
+        for (Row row : pending) {
+            if (row.employee() != null) candidates.add(row.employee());
+        }
+
+        Set<Employee> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+        String batchError = null;
+        if (!candidates.isEmpty()) {
+            try {
+                saved.addAll(dryRun ? acceptedInDryRun(candidates) : employeeService.addEmployeesBatch(candidates));
+            } catch (RuntimeException e) {
+                batchError = e.getMessage();
+            }
+        }
+
+        int failedBefore = errors.size();
+        for (Row row : pending) {
+            processed++;
+            if (row.error() != null) {
+                errors.add(row.error());
+            } else if (batchError != null) {
+                errors.add(lineLabel(row.lineNumber(), row.column()) + ": błąd zapisu do bazy danych: " + batchError);
+            } else if (saved.contains(row.employee())) {
+                imported++;
+            } else {
+                errors.add("Nie udało się dodać pracownika z " + inLine(row.lineNumber(), row.column()) + ". Możliwe, że email już istnieje.");
+            }
+        }
+        progress.addRows(pending.size(), errors.size() - failedBefore);
+        pending.clear();
+    }
+
+    private List<Employee> acceptedInDryRun(List<Employee> candidates) {
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : candidates) emails.add(employee.getEmail());
+        Set<String> existing = employeeService.findExistingEmails(emails);
+        List<Employee> accepted = new ArrayList<>(candidates.size());
+        for (Employee employee : candidates) {
+            if (!existing.contains(employee.getEmail())) accepted.add(employee);
+        }
+        return accepted;
+    }
+
+    private record Row(int lineNumber, int column, Employee employee, String error) {}
+}
@@ -1,140 +1,293 @@
 package com.example.zad1.service;
 
+import com.example.zad1.csv.CsvChunker;
+import com.example.zad1.csv.CsvReader;
 import com.example.zad1.exception.InvalidDataException;
+import com.example.zad1.model.ImportProgress;
 import com.example.zad1.model.ImportSummary;
 import com.example.zad1.model.Position;
 import com.example.zad1.model.Employee;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
-import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 @Service
 public class ImportService {
     private final EmployeeService employeeService;
+    private final Validator validator;
+    private final int batchSize;
     private final Path uploadDir;
+    private final XMLInputFactory xmlInputFactory;
+    private final int parallelism;
+    private final long parallelThreshold;
+    private final long chunkSize;
 
-    public ImportService(EmployeeService employeeService) {
+    public ImportService(EmployeeService employeeService,
+                         Validator validator,
+                         @Value("${app.import.batch-size:500}") int batchSize,
+                         @Value("${app.import.parallel.threads:0}") int parallelThreads,
+                         @Value("${app.import.parallel.threshold:32MB}") DataSize parallelThreshold,
+                         @Value("${app.import.parallel.chunk-size:8MB}") DataSize chunkSize) {
         this.employeeService = employeeService;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.parallelism = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = parallelThreshold.toBytes();
+        this.chunkSize = chunkSize.toBytes();
         this.uploadDir = Paths.get("uploads").toAbsolutePath().normalize();
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
     public ImportSummary importFromCsv(String filePath) {
-        List<String> errors = new ArrayList<>();
-        int imported = 0;
+        return importFromCsv(filePath, false);
+    }
+
+    public ImportSummary importFromCsv(String filePath, boolean dryRun) {
+        return importFromCsv(filePath, dryRun, new ImportProgress());
+    }
 
+    public ImportSummary importFromCsv(String filePath, boolean dryRun, ImportProgress progress) {
         Path path = resolvePath(filePath);
-        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String line;
-            int lineNumber = 0;
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (IOException e) {
+            return new ImportSummary(0, List.of("Błąd podczas odczytu pliku: " + e.getMessage()));
+        }
+        if (parallelism > 1 && size >= parallelThreshold) {
+            return importFromCsvParallel(path, parallelism, chunkSize, dryRun, progress);
+        }
+        return importFromCsvSequential(path, dryRun, progress);
+    }
+
+    public ImportSummary importFromCsvParallel(String filePath, int parallelism, long chunkSize, boolean dryRun, ImportProgress progress) {
+        return importFromCsvParallel(resolvePath(filePath), parallelism, chunkSize, dryRun, progress);
+    }
 
-            line = br.readLine();
-            lineNumber++;
-            if (line == null) {
+    private ImportSummary importFromCsvSequential(Path path, boolean dryRun, ImportProgress progress) {
+        ImportRun run = new ImportRun(employeeService, batchSize, progress, dryRun);
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(openTracked(path, progress), StandardCharsets.UTF_8))) {
+            if (!reader.next()) {
                 return new ImportSummary(0, List.of("Plik jest pusty"));
             }
+            CsvColumns columns = CsvColumns.fromHeader(reader);
 
-            while ((line = br.readLine()) != null){
-                lineNumber++;
-                if (line.trim().isBlank()) continue;
+            while (!run.isCancelled() && reader.next()) {
+                if (reader.isBlankRecord()) continue;
+                stage(run, parseCsvRecord(reader, columns, reader.getLineNumber()));
+            }
+        } catch (Exception e) {
+            run.fail("Błąd podczas odczytu pliku: " + e.getMessage());
+        }
+        return run.finish();
+    }
 
-                try {
-                    String[] parts = line.split(",");
-                    if (parts.length < 6){
-                        throw new InvalidDataException("Linia " + lineNumber + ": za mało pól");
-                    }
+    private ImportSummary importFromCsvParallel(Path path, int parallelism, long chunkSize, boolean dryRun, ImportProgress progress) {
+        ImportRun run = new ImportRun(employeeService, batchSize, progress, dryRun);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
 
-                    String firstName = parts[0].trim();
-                    String lastName = parts[1].trim();
-                    String email = parts[2].trim();
-                    String companyName = parts[3].trim();
-                    String positionStr = parts[4].trim();
-                    String salaryStr = parts[5].trim();
-
-                    if (addingEmp(firstName, lastName, email, companyName, positionStr, salaryStr, lineNumber)) {;
-                        imported++;
-                    } else {
-                        throw new InvalidDataException("Nie udało się dodać pracownika z linii " + lineNumber + ". Możliwe, że email już istnieje.");
-                    }
-                } catch (InvalidDataException e) {
-                    errors.add(e.getMessage());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            progress.start(channel.size());
+            CsvColumns columns;
+            try (CsvReader header = new CsvReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
+                if (!header.next()) {
+                    return new ImportSummary(0, List.of("Plik jest pusty"));
+                }
+                columns = CsvColumns.fromHeader(header);
+            }
+
+            List<CsvChunker.Chunk> chunks = CsvChunker.split(channel, chunkSize, pool);
+            Deque<ForkJoinTask<List<StagedRow>>> window = new ArrayDeque<>();
+            int next = 0;
+            while (!run.isCancelled() && (next < chunks.size() || !window.isEmpty())) {
+                while (next < chunks.size() && window.size() < pool.getParallelism() * 2) {
+                    CsvChunker.Chunk chunk = chunks.get(next++);
+                    window.add(pool.submit(() -> parseChunk(channel, chunk, columns, progress)));
+                }
+                for (StagedRow row : window.poll().join()) {
+                    if (run.isCancelled()) break;
+                    stage(run, row);
                 }
             }
         } catch (Exception e) {
-            errors.add("Błąd podczas odczytu pliku: " + e.getMessage());
+            run.fail("Błąd podczas odczytu pliku: " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        return run.finish();
+    }
+
+    private List<StagedRow> parseChunk(FileChannel channel, CsvChunker.Chunk chunk, CsvColumns columns, ImportProgress progress) {
+        List<StagedRow> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new InputStreamReader(CsvChunker.open(channel, chunk), StandardCharsets.UTF_8))) {
+            if (chunk.start() == 0) {
+                reader.next();
+            }
+            while (!progress.isCancelled() && reader.next()) {
+                if (reader.isBlankRecord()) continue;
+                rows.add(parseCsvRecord(reader, columns, chunk.firstLine() - 1 + reader.getLineNumber()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        progress.addBytes(chunk.length());
+        return rows;
+    }
+
+    private StagedRow parseCsvRecord(CsvReader reader, CsvColumns columns, int lineNumber) {
+        if (reader.getFieldCount() < columns.required) {
+            return StagedRow.rejected("Linia " + lineNumber + ": za mało pól");
+        }
+
+        try {
+            String fullName = columns.fullName >= 0
+                    ? reader.getString(columns.fullName)
+                    : reader.getString(columns.firstName) + " " + reader.getString(columns.lastName);
+            String email = reader.getString(columns.email);
+            String companyName = columns.company >= 0 ? reader.getString(columns.company) : null;
+            Position position = parsePosition(reader.getString(columns.position), lineNumber, 0);
+            int salary = parseSalary(reader, columns.salary, lineNumber);
+            return new StagedRow(lineNumber, toEmployee(fullName, email, companyName, position, salary, lineNumber, 0), null);
+        } catch (InvalidDataException e) {
+            return StagedRow.rejected(e.getMessage());
+        }
+    }
+
+    private void stage(ImportRun run, StagedRow row) {
+        if (row.employee() != null) {
+            run.add(row.lineNumber(), row.employee());
+        } else {
+            run.reject(row.error());
         }
-        return new ImportSummary(imported, errors);
     }
 
     public ImportSummary importFromXml(String filePath) {
-        List<String> errors = new ArrayList<>();
-        int imported = 0;
+        return importFromXml(filePath, false);
+    }
+
+    public ImportSummary importFromXml(String filePath, boolean dryRun) {
+        return importFromXml(filePath, dryRun, new ImportProgress());
+    }
+
+    public ImportSummary importFromXml(String filePath, boolean dryRun, ImportProgress progress) {
+        ImportRun run = new ImportRun(employeeService, batchSize, progress, dryRun);
 
         Path path = resolvePath(filePath);
         try {
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            if (lines.isEmpty()) {
+            if (Files.size(path) == 0) {
                 return new ImportSummary(0, List.of("Plik jest pusty"));
             }
 
-            int lineNumber = 0;
-            Map<String, String> data = new HashMap<>();
-
-            for (String line : lines) {
-                lineNumber++;
-                line = line.trim();
-                if (line.isBlank()) continue;
-
-                if (line.startsWith("<employee>")) {
-                    data.clear();
-                } else if (line.startsWith("</employee>")){
-                    try{
-                        String firstName = data.get("firstName");
-                        String lastName = data.get("lastName");
-                        String email = data.get("email");
-                        String companyName = data.get("companyName");
-                        String positionStr = data.get("position");
-                        String salaryStr = data.get("salary");
-
-                        if (firstName==null || lastName==null || email==null || positionStr==null || salaryStr==null) {
-                            throw new InvalidDataException("Linia " + lineNumber + ": Brak wymaganych pól.");
-                        }
+            try (InputStream in = openTracked(path, progress)) {
+                XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+                try {
+                    Map<String, String> data = null;
+                    int line = 0;
+                    int column = 0;
 
-                        if (addingEmp(firstName, lastName, email, companyName, positionStr, salaryStr, lineNumber)) {;
-                            imported++;
-                        } else {
-                            throw new InvalidDataException("Nie udało się dodać pracownika z linii " + lineNumber + ". Możliwe, że email już istnieje.");
+                    while (!run.isCancelled() && xml.hasNext()) {
+                        int event = xml.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            if ("employee".equals(xml.getLocalName())) {
+                                data = new HashMap<>();
+                                line = xml.getLocation().getLineNumber();
+                                column = xml.getLocation().getColumnNumber();
+                            } else if (data != null) {
+                                String name = xml.getLocalName();
+                                String value = readFieldText(xml);
+                                if (value != null) {
+                                    data.put(name, value);
+                                }
+                            }
+                        } else if (event == XMLStreamConstants.END_ELEMENT && data != null && "employee".equals(xml.getLocalName())) {
+                            stageXmlEmployee(run, data, line, column);
+                            data = null;
                         }
-                    } catch (InvalidDataException e) {
-                        errors.add(e.getMessage());
-                    }
-                } else {
-                    if (line.contains("<") && line.contains(">") && line.contains("</")) {
-                        int start = line.indexOf("<") + 1;
-                        int end = line.indexOf(">");
-                        String key = line.substring(start, end).trim();
-                        int closeStart = line.indexOf("</" + key + ">");
-                        String value = line.substring(end + 1, closeStart).trim();
-
-                        data.put(key, value);
                     }
+                } finally {
+                    xml.close();
                 }
+            }
+        } catch (Exception e) {
+            run.fail("Błąd podczas odczytu pliku: " + e.getMessage());
+        }
+        return run.finish();
+    }
 
+    private static String readFieldText(XMLStreamReader xml) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean nested = false;
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                nested = true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE)) {
+                text.append(xml.getText());
             }
+        }
+        return nested ? null : text.toString().trim();
+    }
 
-        } catch (Exception e) {
-            errors.add("Błąd podczas odczytu pliku: " + e.getMessage());
+    private void stageXmlEmployee(ImportRun run, Map<String, String> data, int line, int column) {
+        try {
+            String firstName = data.get("firstName");
+            String lastName = data.get("lastName");
+            String email = data.get("email");
+            String companyName = data.get("companyName");
+            String positionStr = data.get("position");
+            String salaryStr = data.get("salary");
+
+            if (firstName==null || lastName==null || email==null || positionStr==null || salaryStr==null) {
+                throw new InvalidDataException(ImportRun.lineLabel(line, column) + ": Brak wymaganych pól.");
+            }
+
+            Position position = parsePosition(positionStr, line, column);
+            int salary = parseSalary(salaryStr, line, column);
+            run.add(line, column, toEmployee(firstName + " " + lastName, email, companyName, position, salary, line, column));
+        } catch (InvalidDataException e) {
+            run.reject(e.getMessage());
         }
+    }
 
-        return new ImportSummary(imported, errors);
+    private InputStream openTracked(Path path, ImportProgress progress) throws IOException {
+        progress.start(Files.size(path));
+        return new ProgressInputStream(Files.newInputStream(path), progress);
     }
 
     private Path resolvePath(String filePath){
@@ -145,31 +298,88 @@ public class ImportService {
         return p;
     }
 
-    private boolean addingEmp(String firstName, String lastName, String email, String companyName, String positionStr, String salaryStr, int lineNumber) {
-        if (!validatePosition(String.valueOf(positionStr))) {
-            throw new InvalidDataException("Stanowisko w linii " + lineNumber + " nie istnieje w bazie danych.");
+    private Position parsePosition(String positionStr, int line, int column) {
+        return Position.fromName(positionStr)
+                .orElseThrow(() -> new InvalidDataException("Stanowisko w " + ImportRun.inLine(line, column) + " nie istnieje w bazie danych."));
+    }
+
+    private int parseSalary(String salaryStr, int line, int column) {
+        try {
+            return Integer.parseInt(salaryStr);
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException("Wynagrodzenie w " + ImportRun.inLine(line, column) + " nie jest liczbą.", e);
         }
+    }
 
-        int salary;
+    private int parseSalary(CsvReader reader, int index, int lineNumber) {
         try {
-            salary = Integer.parseInt(salaryStr);
+            return reader.getInt(index);
         } catch (NumberFormatException e) {
             throw new InvalidDataException("Wynagrodzenie w linii " + lineNumber + " nie jest liczbą.", e);
         }
+    }
+
+    private Employee toEmployee(String fullName, String email, String companyName, Position position, int salary, int line, int column) {
         if (!(salary > 0)) {
-            throw new InvalidDataException("Wynagrodzenie w linii " + lineNumber + " jest ujemne.");
+            throw new InvalidDataException("Wynagrodzenie w " + ImportRun.inLine(line, column) + " jest ujemne.");
         }
 
-        Employee emp = new Employee(firstName + " " + lastName, email, companyName, Position.valueOf(positionStr.toUpperCase()), salary);
-        return employeeService.addEmployee(emp);
+        Employee emp = new Employee(fullName, email, companyName, position, salary);
+        Set<ConstraintViolation<Employee>> violations = validator.validate(emp);
+        if (!violations.isEmpty()) {
+            String details = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            throw new InvalidDataException(ImportRun.lineLabel(line, column) + ": " + details);
+        }
+        return emp;
+    }
+
+    private record StagedRow(int lineNumber, Employee employee, String error) {
+        static StagedRow rejected(String error) {
+            return new StagedRow(0, null, error);
+        }
     }
 
-    private boolean validatePosition(String positionStr) {
-        for (Position pos : Position.values()) {
-            if (pos.name().equalsIgnoreCase(positionStr)) {
-                return true;
+    private static final class CsvColumns {
+        private final int fullName;
+        private final int firstName;
+        private final int lastName;
+        private final int email;
+        private final int company;
+        private final int position;
+        private final int salary;
+        private final int required;
+
+        private CsvColumns(int fullName, int firstName, int lastName, int email, int company, int position, int salary) {
+            this.fullName = fullName;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.company = company;
+            this.position = position;
+            this.salary = salary;
+            this.required = 1 + Math.max(Math.max(Math.max(fullName, firstName), Math.max(lastName, email)),
+                    Math.max(company, Math.max(position, salary)));
+        }
+
+        static CsvColumns fromHeader(CsvReader header) {
+            int fullName = -1, firstName = -1, lastName = -1, email = -1, company = -1, position = -1, salary = -1;
+            for (int i = 0; i < header.getFieldCount(); i++) {
+                if (header.equalsIgnoreCase(i, "fullName")) fullName = i;
+                else if (header.equalsIgnoreCase(i, "firstName")) firstName = i;
+                else if (header.equalsIgnoreCase(i, "lastName")) lastName = i;
+                else if (header.equalsIgnoreCase(i, "email")) email = i;
+                else if (header.equalsIgnoreCase(i, "company") || header.equalsIgnoreCase(i, "companyName")) company = i;
+                else if (header.equalsIgnoreCase(i, "position")) position = i;
+                else if (header.equalsIgnoreCase(i, "salary")) salary = i;
+            }
+            boolean hasName = fullName >= 0 || (firstName >= 0 && lastName >= 0);
+            if (hasName && email >= 0 && position >= 0 && salary >= 0) {
+                return new CsvColumns(firstName >= 0 && lastName >= 0 ? -1 : fullName, firstName, lastName, email, company, position, salary);
             }
+            return new CsvColumns(-1, 0, 1, 2, 3, 4, 5);
         }
-        return false;
     }
 }
@@ -0,0 +1,37 @@
+package com.example.zad1.service;
+
+import com.example.zad1.model.ImportProgress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+class ProgressInputStream extends FilterInputStream {
+    private final ImportProgress progress;
+
+    ProgressInputStream(InputStream in, ImportProgress progress) {
+        super(in);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) progress.addBytes(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) progress.addBytes(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) progress.addBytes(skipped);
+        return skipped;
+    }
+}
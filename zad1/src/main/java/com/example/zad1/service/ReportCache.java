@@ -0,0 +1,300 @@
+package com.example.zad1.service;
+
+import com.example.zad1.cache.SharedStream;
+import com.example.zad1.cache.SingleFlight;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.exception.FileStorageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ReportCache {
+    private static final String DIRECTORY = "cache";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FileStorageService storageService;
+    private final long maxBytes;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final SingleFlight<String, Path> generations = new SingleFlight<>();
+    private final SharedStream<String> streams = new SharedStream<>();
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean prepared;
+
+    @FunctionalInterface
+    public interface ReportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public record CachedReport(Resource resource, String etag) implements Closeable {
+        @Override
+        public void close() {
+            if (resource instanceof OpenedFile opened) {
+                closeQuietly(opened.channel);
+            }
+        }
+    }
+
+    private record CachedFile(Path path, long size) {}
+
+    // Kanał jest otwierany pod blokadą cache, więc późniejsze usunięcie pliku (eviction, nowa wersja danych)
+    // nie przerywa odczytu raportu, który został już wydany.
+    private static final class OpenedFile extends FileSystemResource {
+        private final FileChannel channel;
+        private final long size;
+
+        OpenedFile(Path path, FileChannel channel, long size) {
+            super(path);
+            this.channel = channel;
+            this.size = size;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return Channels.newInputStream(channel);
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() {
+            return channel;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+    }
+
+    public ReportCache(FileStorageService storageService,
+                       @Value("${app.reports.cache.max-size:256MB}") DataSize maxSize) {
+        if (maxSize.toBytes() < 1) {
+            throw new IllegalArgumentException("Rozmiar cache raportów musi być dodatni");
+        }
+        this.storageService = storageService;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public String etag(String type, String variant) {
+        return '"' + key(type, variant, dataVersion.get()) + '"';
+    }
+
+    public CachedReport get(String type, String variant, String extension, ReportWriter writer) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long version = dataVersion.get();
+            String key = key(type, variant, version);
+            CachedReport cached = open(key);
+            if (cached != null) {
+                return cached;
+            }
+            generations.execute(key, () -> {
+                Path finished = lookup(key);
+                return finished != null ? finished : generate(key, version, type, extension, writer);
+            });
+            cached = open(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return generateUncached(type, writer);
+    }
+
+    public CachedReport find(String type, String variant) {
+        return open(key(type, variant, dataVersion.get()));
+    }
+
+    public void stream(String type, String variant, ReportWriter writer, OutputStream out) throws IOException {
+        streams.stream(key(type, variant, dataVersion.get()), directory(), writer::write, out);
+    }
+
+    public SingleFlight.Stats coalescingStats() {
+        return generations.stats();
+    }
+
+    public SingleFlight.Stats streamingStats() {
+        return streams.stats();
+    }
+
+    private Path generate(String key, long version, String type, String extension, ReportWriter writer) {
+        Path dir = directory();
+        Path target = dir.resolve(type + "-" + key + "." + extension);
+        Path tmp = null;
+        try {
+            tmp = write(dir, type, writer);
+            move(tmp, target);
+            tmp = null;
+            if (!store(key, version, new CachedFile(target, Files.size(target)))) {
+                deleteQuietly(target);
+            }
+        } catch (IOException e) {
+            throw new FileStorageException("Nie udało się zapisać raportu: " + type, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+        return target;
+    }
+
+    private CachedReport generateUncached(String type, ReportWriter writer) {
+        Path tmp = null;
+        try {
+            tmp = write(directory(), type, writer);
+            FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            CachedReport report = new CachedReport(new OpenedFile(tmp, channel, channel.size()), null);
+            tmp = null;
+            return report;
+        } catch (IOException e) {
+            throw new FileStorageException("Nie udało się zapisać raportu: " + type, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static Path write(Path dir, String type, ReportWriter writer) throws IOException {
+        Path tmp = Files.createTempFile(dir, type + "-", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            writer.write(out);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    public synchronized int size() {
+        return files.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        dataVersion.incrementAndGet();
+        synchronized (this) {
+            files.values().forEach(file -> deleteQuietly(file.path()));
+            files.clear();
+            totalBytes = 0;
+        }
+    }
+
+    private synchronized CachedReport open(String key) {
+        CachedFile file = files.get(key);
+        if (file == null) return null;
+        try {
+            FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ);
+            return new CachedReport(new OpenedFile(file.path(), channel, file.size()), '"' + key + '"');
+        } catch (NoSuchFileException e) {
+            files.remove(key);
+            totalBytes -= file.size();
+            return null;
+        } catch (IOException e) {
+            throw new FileStorageException("Błąd odczytu raportu: " + file.path(), e);
+        }
+    }
+
+    private synchronized Path lookup(String key) {
+        CachedFile file = files.get(key);
+        if (file == null) return null;
+        if (Files.isRegularFile(file.path())) {
+            return file.path();
+        }
+        files.remove(key);
+        totalBytes -= file.size();
+        return null;
+    }
+
+    private synchronized boolean store(String key, long version, CachedFile file) {
+        if (dataVersion.get() != version) {
+            return false;
+        }
+        CachedFile previous = files.put(key, file);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += file.size();
+        for (Iterator<CachedFile> it = files.values().iterator(); totalBytes > maxBytes && files.size() > 1; ) {
+            CachedFile eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.size();
+            deleteQuietly(eldest.path());
+        }
+        return true;
+    }
+
+    private synchronized Path directory() {
+        Path dir = storageService.getReportsDir().resolve(DIRECTORY);
+        storageService.ensureDir(dir);
+        if (!prepared) {
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir)) {
+                leftovers.forEach(ReportCache::deleteQuietly);
+            } catch (IOException e) {
+                throw new FileStorageException("Nie można odczytać katalogu: " + dir, e);
+            }
+            prepared = true;
+        }
+        return dir;
+    }
+
+    private String key(String type, String variant, long version) {
+        String source = type + '\n' + Objects.toString(variant, "") + '\n' + instanceId + '\n' + version;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -1,102 +1,122 @@
 package com.example.zad1.service;
 
 import com.example.zad1.exception.FileNotFoundException;
-import com.example.zad1.exception.FileStorageException;
 import com.example.zad1.model.CompanyStatistics;
-import com.example.zad1.model.Employee;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.itextpdf.layout.properties.UnitValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public class ReportGeneratorService {
+    private static final String CSV_HEADER = "fullName,email,companyName,position,salary\n";
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_REPORT = "employees";
+    private static final String PDF_REPORT = "statistics";
+    private static final int PDF_FLUSH_ROWS = 100;
+
     private final EmployeeService employeeService;
-    private final FileStorageService storageService;
+    private final CompanyStatisticsStore companyStatistics;
+    private final ReportCache reportCache;
+    private final long largePdfThreshold;
 
-    public ReportGeneratorService(EmployeeService employeeService, FileStorageService storageService) {
+    public ReportGeneratorService(EmployeeService employeeService, CompanyStatisticsStore companyStatistics,
+                                  ReportCache reportCache,
+                                  @Value("${app.reports.pdf.large-table-threshold:2000}") long largePdfThreshold) {
         this.employeeService = employeeService;
-        this.storageService = storageService;
-    }
-
-    public Resource generateCsv(String company) {
-        List<Employee> list;
-        if (company == null || company.isBlank()) {
-            list = employeeService.getAllEmployees().stream()
-                    .filter(Objects::nonNull)
-                    .sorted(Comparator.comparing(Employee::getCompanyName, Comparator.nullsLast(String::compareToIgnoreCase))
-                            .thenComparing(Employee::getLastName, Comparator.nullsLast(String::compareToIgnoreCase))
-                            .thenComparing(Employee::getFirstName, Comparator.nullsLast(String::compareToIgnoreCase)))
-                    .toList();
-        } else {
-            list = employeeService.getEmployeeByCompany(company).stream().filter(Objects::nonNull).toList();
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("fullName,email,companyName,position,salary\n");
-        for (Employee e : list) {
-            if (e == null) continue;
-            String fullName = safeCsv(e.getFullName());
-            String email = safeCsv(e.getEmail());
-            String companyName = safeCsv(e.getCompanyName());
-            String position = e.getPosition() != null ? e.getPosition().name() : "";
-            int salary = e.getSalary();
-            sb.append(fullName).append(',')
-                    .append(email).append(',')
-                    .append(companyName).append(',')
-                    .append(position).append(',')
-                    .append(salary).append('\n');
-        }
+        this.companyStatistics = companyStatistics;
+        this.reportCache = reportCache;
+        this.largePdfThreshold = largePdfThreshold;
+    }
 
-        String fileName = (company == null || company.isBlank()) ? "employees.csv" : "employees-" + company + ".csv";
-        Path out = storageService.getReportsDir().resolve(fileName);
-        storageService.ensureDir(out.getParent());
+    public void writeCsv(String company, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(256);
         try {
-            Files.write(out, sb.toString().getBytes(StandardCharsets.UTF_8));
-            return toResource(out);
-        } catch (IOException e) {
-            throw new FileStorageException("Nie udało się zapisać raportu CSV", e);
+            employeeService.forEachEmployeeSorted(company, e -> {
+                if (e == null) return;
+                line.setLength(0);
+                line.append(safeCsv(e.getFullName())).append(',')
+                        .append(safeCsv(e.getEmail())).append(',')
+                        .append(safeCsv(e.getCompanyName())).append(',')
+                        .append(e.getPosition() != null ? e.getPosition().name() : "").append(',')
+                        .append(e.getSalary()).append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        writer.flush();
+    }
+
+    public void streamCsv(String company, OutputStream out) throws IOException {
+        reportCache.stream(CSV_REPORT, company, target -> writeCsv(company, target), out);
+    }
+
+    public String csvETag(String company) {
+        return reportCache.etag(CSV_REPORT, company);
+    }
+
+    public Optional<ReportCache.CachedReport> cachedCsv(String company) {
+        return Optional.ofNullable(reportCache.find(CSV_REPORT, company));
+    }
+
+    public ReportCache.CachedReport generateCsv(String company) {
+        return reportCache.get(CSV_REPORT, company, "csv", out -> writeCsv(company, out));
+    }
+
+    public ReportCache.CachedReport generateCompanyStatisticsPdf(String companyName) {
+        CompanyStatistics stats = requireStatistics(companyName);
+        return reportCache.get(PDF_REPORT, companyName, "pdf", out -> writeStatisticsPdf(companyName, stats, out));
+    }
+
+    public String statisticsPdfETag(String companyName) {
+        return reportCache.etag(PDF_REPORT, companyName);
+    }
+
+    public boolean isLargeStatisticsPdf(String companyName) {
+        return requireStatistics(companyName).getEmployeeCount() >= largePdfThreshold;
+    }
+
+    public void writeCompanyStatisticsPdf(String companyName, OutputStream out) throws IOException {
+        writeStatisticsPdf(companyName, requireStatistics(companyName), out);
+    }
+
+    public void streamCompanyStatisticsPdf(String companyName, OutputStream out) throws IOException {
+        CompanyStatistics stats = requireStatistics(companyName);
+        reportCache.stream(PDF_REPORT, companyName, target -> writeStatisticsPdf(companyName, stats, target), out);
     }
 
-    public Resource generateCompanyStatisticsPdf(String companyName) {
+    private CompanyStatistics requireStatistics(String companyName) {
         if (companyName == null || companyName.isBlank()) {
             throw new IllegalArgumentException("Nazwa firmy jest wymagana");
         }
+        return companyStatistics.get(companyName)
+                .orElseThrow(() -> new FileNotFoundException("Brak danych dla firmy: " + companyName));
+    }
 
-        Map<String, CompanyStatistics> statsAll = employeeService.getCompanyStatistics();
-        CompanyStatistics stats = statsAll.get(companyName);
-        if (stats == null) {
-            stats = statsAll.entrySet().stream()
-                    .filter(e -> e.getKey() != null && e.getKey().equalsIgnoreCase(companyName))
-                    .map(Map.Entry::getValue)
-                    .findFirst()
-                    .orElse(null);
-        }
-        if (stats == null) {
-            throw new FileNotFoundException("Brak danych dla firmy: " + companyName);
-        }
-
-        List<Employee> employees = employeeService.getEmployeeByCompany(companyName);
-        String fileName = "statistics-" + companyName + ".pdf";
-        Path out = storageService.getReportsDir().resolve(fileName);
-        storageService.ensureDir(out.getParent());
-
-        try (PdfWriter writer = new PdfWriter(out.toFile());
+    private void writeStatisticsPdf(String companyName, CompanyStatistics stats, OutputStream out) throws IOException {
+        try (PdfWriter writer = new PdfWriter(out);
              PdfDocument pdf = new PdfDocument(writer);
              Document doc = new Document(pdf)) {
 
@@ -114,23 +134,27 @@ public class ReportGeneratorService {
 
             doc.add(new Paragraph("\nPracownicy:"));
 
-            Table table = new Table(new float[]{35, 25, 20, 20});
-            table.setWidth(100);
+            Table table = new Table(UnitValue.createPercentArray(new float[]{35, 25, 20, 20}), true);
+            table.useAllAvailableWidth();
+            for (String header : List.of("Imię i nazwisko", "Email", "Stanowisko", "Pensja")) {
+                table.addHeaderCell(header);
+            }
+            doc.add(table);
 
-            addRow(table, "Imię i nazwisko", "Email", "Stanowisko", "Pensja");
-            for (Employee e : employees) {
-                if (e == null) continue;
+            int[] rows = {0};
+            employeeService.forEachEmployeeOfCompany(companyName, e -> {
+                if (e == null) return;
                 addRow(table,
                         Objects.toString(e.getFullName(), ""),
                         Objects.toString(e.getEmail(), ""),
                         e.getPosition() != null ? e.getPosition().name() : "",
                         String.valueOf(e.getSalary()));
-            }
-            doc.add(table);
-        } catch (IOException ex) {
-            throw new FileStorageException("Nie udało się wygenerować PDF", ex);
+                if (++rows[0] % PDF_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
+            });
+            table.complete();
         }
-        return toResource(out);
     }
 
     private void addRow(Table table, String c1, String c2) {
@@ -148,17 +172,10 @@ public class ReportGeneratorService {
     private String safeCsv(String value) {
         if (value == null) return "";
         String v = value.replace("\"", "\"\"");
-        if (v.contains(",") || v.contains("\n") || v.contains("\r")) {
+        if (v.contains(",") || v.contains("\"") || v.contains("\n") || v.contains("\r")
+                || (!v.isEmpty() && (Character.isWhitespace(v.charAt(0)) || Character.isWhitespace(v.charAt(v.length() - 1))))) {
             return '"' + v + '"';
         }
         return v;
     }
-
-    private Resource toResource(Path path) {
-        try {
-            return new UrlResource(path.toUri());
-        } catch (MalformedURLException e) {
-            throw new FileStorageException("Błąd tworzenia zasobu dla pliku: " + path, e);
-        }
-    }
 }
@@ -0,0 +1,116 @@
+package com.example.zad1.service;
+
+import com.example.zad1.config.ReportWarmupProperties;
+import com.example.zad1.dto.ReportWarmupStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReportWarmupService {
+    private final ReportGeneratorService reportGeneratorService;
+    private final ReportWarmupProperties properties;
+    private final TaskScheduler scheduler;
+    private final Map<ReportWarmupProperties.Spec, RunState> states = new LinkedHashMap<>();
+
+    public ReportWarmupService(ReportGeneratorService reportGeneratorService, ReportWarmupProperties properties,
+                               @Qualifier("reportWarmupScheduler") TaskScheduler scheduler) {
+        this.reportGeneratorService = reportGeneratorService;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        for (ReportWarmupProperties.Spec spec : properties.reports()) {
+            states.putIfAbsent(spec, new RunState());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) return;
+        for (ReportWarmupProperties.Spec spec : states.keySet()) {
+            scheduler.schedule(() -> run(spec), new CronTrigger(spec.cron(), properties.zone()));
+        }
+    }
+
+    public List<ReportWarmupStatus> getStatus() {
+        return states.entrySet().stream()
+                .map(entry -> entry.getValue().toStatus(entry.getKey(), nextRun(entry.getKey())))
+                .toList();
+    }
+
+    void run(ReportWarmupProperties.Spec spec) {
+        RunState state = states.get(spec);
+        if (state == null || !state.start()) return;
+        long started = System.nanoTime();
+        try {
+            state.finish(warm(spec) ? "OK" : "SKIPPED", null, started);
+        } catch (RuntimeException e) {
+            state.finish("ERROR", e.getMessage(), started);
+        }
+    }
+
+    private boolean warm(ReportWarmupProperties.Spec spec) {
+        return switch (spec.type()) {
+            case CSV -> published(reportGeneratorService.generateCsv(spec.company()));
+            case PDF -> {
+                if (reportGeneratorService.isLargeStatisticsPdf(spec.company())) {
+                    yield false;
+                }
+                yield published(reportGeneratorService.generateCompanyStatisticsPdf(spec.company()));
+            }
+        };
+    }
+
+    private static boolean published(ReportCache.CachedReport report) {
+        if (report != null) {
+            report.close();
+        }
+        return true;
+    }
+
+    private Instant nextRun(ReportWarmupProperties.Spec spec) {
+        if (!properties.enabled()) return null;
+        ZonedDateTime next = CronExpression.parse(spec.cron()).next(ZonedDateTime.now(properties.zone()));
+        return next != null ? next.toInstant() : null;
+    }
+
+    private static class RunState {
+        private boolean running;
+        private long runs;
+        private Instant lastStartedAt;
+        private Instant lastFinishedAt;
+        private Long lastDurationMs;
+        private String lastOutcome;
+        private String lastError;
+
+        synchronized boolean start() {
+            if (running) return false;
+            running = true;
+            lastStartedAt = Instant.now();
+            return true;
+        }
+
+        synchronized void finish(String outcome, String error, long startedNanos) {
+            running = false;
+            runs++;
+            lastFinishedAt = Instant.now();
+            lastDurationMs = (System.nanoTime() - startedNanos) / 1_000_000;
+            lastOutcome = outcome;
+            lastError = error;
+        }
+
+        synchronized ReportWarmupStatus toStatus(ReportWarmupProperties.Spec spec, Instant nextRunAt) {
+            return new ReportWarmupStatus(spec.type(), spec.company(), spec.cron(), running, runs,
+                    lastStartedAt, lastFinishedAt, lastDurationMs, lastOutcome, lastError, nextRunAt);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.zad1.service;
+
+import com.example.zad1.cache.TtlCache;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+public class StatisticsService {
+    private static final String ALL = "";
+
+    private final EmployeeService employeeService;
+    private final TtlCache<String, Double> averageSalary;
+    private final TtlCache<String, Long> employeeCount;
+    private final TtlCache<String, Map<Position, Long>> positionCounts;
+    private final TtlCache<String, Map<EmploymentStatus, Long>> statusCounts;
+
+    public StatisticsService(EmployeeService employeeService,
+                             @Value("${app.statistics.cache.ttl:30s}") Duration ttl,
+                             @Value("${app.statistics.cache.max-size:1000}") int maxSize) {
+        this.employeeService = employeeService;
+        this.averageSalary = new TtlCache<>(ttl, maxSize);
+        this.employeeCount = new TtlCache<>(ttl, 1);
+        this.positionCounts = new TtlCache<>(ttl, 1);
+        this.statusCounts = new TtlCache<>(ttl, 1);
+    }
+
+    public double getAverageSalary() {
+        return averageSalary.get(ALL, key -> employeeService.getAverageSalary());
+    }
+
+    public double getAverageSalaryByCompany(String company) {
+        return averageSalary.get(company, employeeService::getAverageSalaryByCompany);
+    }
+
+    public long countEmployees() {
+        return employeeCount.get(ALL, key -> employeeService.countEmployees());
+    }
+
+    public Map<Position, Long> countByPosition() {
+        return positionCounts.get(ALL, key -> Collections.unmodifiableMap(new LinkedHashMap<>(employeeService.countByPosition())));
+    }
+
+    public Map<EmploymentStatus, Long> countByStatus() {
+        return statusCounts.get(ALL, key -> Collections.unmodifiableMap(new LinkedHashMap<>(employeeService.countByStatus())));
+    }
+
+    public Map<String, TtlCache.Stats> cacheStats() {
+        Map<String, TtlCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("averageSalary", averageSalary.stats());
+        stats.put("employeeCount", employeeCount.stats());
+        stats.put("positionCounts", positionCounts.stats());
+        stats.put("statusCounts", statusCounts.stats());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.cleared()) {
+            averageSalary.invalidateAll();
+            employeeCount.invalidateAll();
+            positionCounts.invalidateAll();
+            statusCounts.invalidateAll();
+            return;
+        }
+
+        boolean membership = false;
+        boolean salary = false;
+        boolean position = false;
+        boolean status = false;
+        Set<String> companies = new HashSet<>();
+        for (EmployeeChangedEvent.Change change : event.changes()) {
+            EmployeeSnapshot before = change.before();
+            EmployeeSnapshot after = change.after();
+            if (before == null || after == null) {
+                membership = true;
+                addCompany(companies, before);
+                addCompany(companies, after);
+                continue;
+            }
+            if (before.salary() != after.salary()) {
+                salary = true;
+                addCompany(companies, before);
+                addCompany(companies, after);
+            }
+            if (!Objects.equals(before.companyName(), after.companyName())) {
+                addCompany(companies, before);
+                addCompany(companies, after);
+            }
+            position |= before.position() != after.position();
+            status |= before.status() != after.status();
+        }
+
+        if (membership) {
+            employeeCount.invalidateAll();
+        }
+        if (membership || salary) {
+            averageSalary.invalidate(ALL);
+        }
+        if (!companies.isEmpty()) {
+            averageSalary.invalidateIf(key -> !key.equals(ALL) && companies.contains(key));
+        }
+        if (membership || position) {
+            positionCounts.invalidateAll();
+        }
+        if (membership || status) {
+            statusCounts.invalidateAll();
+        }
+    }
+
+    private static void addCompany(Set<String> companies, EmployeeSnapshot employee) {
+        if (employee != null && employee.companyName() != null) {
+            companies.add(employee.companyName());
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.example.zad1.specification;
 
 import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
 import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.util.List;
 
 public class EmployeeSpecification {
+    public static final char LIKE_ESCAPE = '\\';
 
     public static Specification<Employee> filterBy(String companyName, Integer minSalary, Integer maxSalary) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            if (companyName != null && !companyName.isBlank()) {
-                predicates.add(cb.like(cb.lower(root.get("companyName")), "%" + companyName.toLowerCase() + "%"));
+            String companyPattern = companyContains(companyName);
+            if (companyPattern != null) {
+                predicates.add(cb.like(root.get("companyKey"), companyPattern, LIKE_ESCAPE));
             }
 
             if (minSalary != null) {
@@ -27,4 +31,32 @@ public class EmployeeSpecification {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    // Wzorzec LIKE "zawiera" dla znormalizowanej nazwy firmy; %, _ i \ z danych użytkownika są dosłowne.
+    public static String companyContains(String companyName) {
+        String companyKey = Employee.companyKeyOf(companyName);
+        if (companyKey == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(companyKey.length() + 2).append('%');
+        for (char c : companyKey.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    public static Specification<Employee> salaryBelowPositionBase() {
+        return (root, query, cb) -> {
+            CriteriaBuilder.SimpleCase<Position, Integer> baseSalary = cb.selectCase(root.get("position"));
+            for (Position position : Position.values()) {
+                baseSalary.when(position, position.getSalary());
+            }
+            return cb.and(
+                    cb.isNotNull(root.get("position")),
+                    cb.lessThan(root.get("salary"), baseSalary.otherwise(0)));
+        };
+    }
+}
@@ -0,0 +1,22 @@
+-- Backfill the normalized company key for rows written before the column existed.
+UPDATE employees
+SET company_key = NULLIF(LOWER(TRIM(company_name)), '')
+WHERE company_key IS NULL AND company_name IS NOT NULL;
+
+-- EmployeeSpecification.filterBy: company prefix + salary range.
+CREATE INDEX IF NOT EXISTS idx_employees_company_salary ON employees (company_key, salary);
+
+-- Salary-only ranges and top earner lookups.
+CREATE INDEX IF NOT EXISTS idx_employees_salary ON employees (salary);
+
+-- findByStatus and status distribution.
+CREATE INDEX IF NOT EXISTS idx_employees_status ON employees (status);
+
+-- groupByPosition / getByPosition paging.
+CREATE INDEX IF NOT EXISTS idx_employees_position ON employees (position, id);
+
+-- Department views: employees of a department.
+CREATE INDEX IF NOT EXISTS idx_employees_department ON employees (department_id);
+
+-- Department listings per company.
+CREATE INDEX IF NOT EXISTS idx_departments_company ON departments (company_name);
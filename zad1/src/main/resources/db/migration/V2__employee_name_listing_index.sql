@@ -0,0 +1,4 @@
+-- Alphabetical listing (ORDER BY last_name, first_name, id): the id column lets the
+-- paged listing read the index in order instead of sorting the whole table.
+DROP INDEX IF EXISTS idx_employees_name;
+CREATE INDEX IF NOT EXISTS idx_employees_name ON employees (last_name, first_name, id);
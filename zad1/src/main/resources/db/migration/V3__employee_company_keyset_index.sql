@@ -0,0 +1,2 @@
+-- Keyset paging with sort=company seeks on (company_key, id) and reads the index in order.
+CREATE INDEX IF NOT EXISTS idx_employees_company_key_id ON employees (company_key, id);
@@ -0,0 +1,162 @@
+package com.example.zad1.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedStreamTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final SharedStream<String> streams = new SharedStream<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger renders = new AtomicInteger();
+    private Path spoolDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        spoolDir = Files.createTempDirectory("shared-stream-");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdownNow();
+        try (Stream<Path> walk = Files.walk(spoolDir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private SharedStream.Renderer blocking(String head, String tail) {
+        return out -> {
+            renders.incrementAndGet();
+            out.write(head.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (tail == null) {
+                throw new IOException("baza niedostępna");
+            }
+            out.write(tail.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private Future<String> submit(SharedStream.Renderer renderer) {
+        return pool.submit(() -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            streams.stream("TechCorp", spoolDir, renderer, out);
+            return out.toString(StandardCharsets.UTF_8);
+        });
+    }
+
+    private void awaitFollowers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (streams.stats().coalesced() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private long spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void concurrentCallsForSameKey_readOneRenderWhileItIsWritten() throws Exception {
+        SharedStream.Renderer renderer = blocking("naglowek\n", "wiersz\n");
+        Future<String> leader = submit(renderer);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> first = submit(renderer);
+        Future<String> second = submit(renderer);
+        awaitFollowers(2);
+        release.countDown();
+
+        assertEquals("naglowek\nwiersz\n", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("naglowek\nwiersz\n", first.get(5, TimeUnit.SECONDS));
+        assertEquals("naglowek\nwiersz\n", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, renders.get());
+        SingleFlight.Stats stats = streams.stats();
+        assertEquals(3, stats.calls());
+        assertEquals(1, stats.executions());
+        assertEquals(2, stats.coalesced());
+        assertEquals(0, stats.inFlight());
+        assertEquals(0, spoolFiles());
+    }
+
+    @Test
+    void renderFailure_reachesFollowersAndNextCallRendersAgain() throws Exception {
+        Future<String> leader = submit(blocking("naglowek\n", null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = submit(out -> fail("follower must not render"));
+        awaitFollowers(1);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("baza niedostępna", leaderError.getCause().getMessage());
+        assertEquals("baza niedostępna", followerError.getCause().getCause().getMessage());
+        assertEquals(0, spoolFiles());
+
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        streams.stream("TechCorp", spoolDir, out -> out.write('x'), again);
+        assertEquals("x", again.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void leaderClientDisconnect_doesNotAbortRenderForFollowers() throws Exception {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        CountDownLatch followerJoined = new CountDownLatch(1);
+        Future<?> leader = pool.submit(() -> {
+            streams.stream("TechCorp", spoolDir, out -> {
+                started.countDown();
+                try {
+                    followerJoined.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write("caly raport".getBytes(StandardCharsets.UTF_8));
+            }, broken);
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = submit(out -> fail("follower must not render"));
+        awaitFollowers(1);
+        followerJoined.countDown();
+
+        assertEquals("caly raport", follower.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("Broken pipe", error.getCause().getMessage());
+    }
+}
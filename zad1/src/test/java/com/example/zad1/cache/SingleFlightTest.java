@@ -0,0 +1,105 @@
+package com.example.zad1.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private <T> Supplier<T> blocking(Supplier<T> result) {
+        return () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private void awaitWaiters(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.stats().coalesced() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void concurrentCallsForSameKey_shareOneExecution() throws Exception {
+        Supplier<String> action = blocking(() -> "raport");
+        Future<String> leader = pool.submit(() -> flight.execute("TechCorp", action));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(pool.submit(() -> flight.execute("TechCorp", action)));
+        }
+        awaitWaiters(3);
+        release.countDown();
+
+        assertEquals("raport", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> waiter : waiters) {
+            assertEquals("raport", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        SingleFlight.Stats stats = flight.stats();
+        assertEquals(4, stats.calls());
+        assertEquals(1, stats.executions());
+        assertEquals(3, stats.coalesced());
+        assertEquals(0, stats.inFlight());
+        assertEquals(0.75, stats.coalescedRate(), 0.0001);
+    }
+
+    @Test
+    void failure_isDeliveredToEveryWaiterAndNextCallRunsAgain() throws Exception {
+        Supplier<String> failing = blocking(() -> {
+            throw new IllegalStateException("baza niedostępna");
+        });
+        Future<String> leader = pool.submit(() -> flight.execute("TechCorp", failing));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = pool.submit(() -> flight.execute("TechCorp", failing));
+        awaitWaiters(1);
+        release.countDown();
+
+        for (Future<String> call : List.of(leader, waiter)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals("ok", flight.execute("TechCorp", () -> "ok"));
+        assertEquals(2, flight.stats().executions());
+    }
+
+    @Test
+    void differentKeys_runIndependently() {
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("b", flight.execute("b", () -> "b"));
+        assertNull(flight.execute("c", () -> null));
+
+        assertEquals(3, flight.stats().executions());
+        assertEquals(0, flight.stats().coalesced());
+    }
+}
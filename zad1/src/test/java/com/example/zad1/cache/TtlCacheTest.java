@@ -0,0 +1,76 @@
+package com.example.zad1.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return key.toUpperCase();
+    }
+
+    @Test
+    void get_cachesUntilTtlExpires() {
+        TtlCache<String, String> cache = new TtlCache<>(Duration.ofSeconds(10), 10, now::get);
+
+        assertEquals("A", cache.get("a", this::load));
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("A", cache.get("a", this::load));
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("A", cache.get("a", this::load));
+
+        assertEquals(2, loads.get());
+        TtlCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(1.0 / 3, stats.hitRate(), 0.0001);
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedOverMaxSize() {
+        TtlCache<String, String> cache = new TtlCache<>(Duration.ofMinutes(1), 2, now::get);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void invalidate_dropsMatchingKeysAndDiscardsInFlightLoads() {
+        TtlCache<String, String> cache = new TtlCache<>(Duration.ofMinutes(1), 10, now::get);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        cache.invalidateIf(key -> key.equals("a"));
+        assertEquals(1, cache.stats().size());
+
+        cache.get("c", key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new TtlCache<String, String>(Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TtlCache<String, String>(Duration.ofSeconds(1), 0));
+    }
+}
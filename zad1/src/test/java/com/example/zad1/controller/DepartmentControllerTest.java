@@ -0,0 +1,55 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.dto.DepartmentSummary;
+import com.example.zad1.exception.GlobalExceptionHandler;
+import com.example.zad1.service.DepartmentService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = DepartmentController.class)
+@ContextConfiguration(classes = {DepartmentController.class, GlobalExceptionHandler.class, DepartmentControllerTest.TestConfig.class})
+class DepartmentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    @DisplayName("GET /api/departments/summary - 200 and return headcount, payroll and manager per department")
+    void summary_shouldReturnSummaries() throws Exception {
+        when(departmentService.getDepartmentSummaries()).thenReturn(List.of(
+                new DepartmentSummary(1L, "IT", "TechCorp", "Warszawa", 500000, "anna@techcorp.com", "Anna Nowak", 2, 20000),
+                new DepartmentSummary(2L, "HR", "TechCorp", "Kraków", 200000, null, null, 0, 0)));
+
+        mockMvc.perform(get("/api/departments/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].managerName").value("Anna Nowak"))
+                .andExpect(jsonPath("$[0].employeeCount").value(2))
+                .andExpect(jsonPath("$[0].totalSalary").value(20000))
+                .andExpect(jsonPath("$[1].employeeCount").value(0));
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public DepartmentService departmentService() {
+            return Mockito.mock(DepartmentService.class);
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.zad1.controller;
 
+import com.example.zad1.dto.DepartmentSummary;
+import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.ManagerCandidate;
 import com.example.zad1.model.Department;
 import com.example.zad1.model.Employee;
+import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
 import com.example.zad1.service.DepartmentDocumentService;
 import com.example.zad1.service.DepartmentService;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.FileDownloadService;
 import com.example.zad1.service.FileStorageService;
 import com.example.zad1.model.DepartmentDocument;
 import com.example.zad1.model.DocumentType;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,10 +32,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
@@ -55,25 +66,30 @@ class DepartmentViewControllerTest {
 
     @Test
     void listDepartments_shouldReturnListView() throws Exception {
-        when(departmentService.getAllDepartments()).thenReturn(List.of(new Department("IT","GradientCorp", "Test", 100, null)));
-        when(employeeService.getAllEmployees()).thenReturn(List.of());
+        List<DepartmentSummary> summaries = List.of(
+                new DepartmentSummary(1L, "IT", "GradientCorp", "Test", 100, "anna@test.com", "Anna Nowak", 3, 24000),
+                new DepartmentSummary(2L, "HR", "GradientCorp", "Test", 100, null, null, 0, 0));
+        when(departmentService.getDepartmentSummaries()).thenReturn(summaries);
 
         mockMvc.perform(get("/departments"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("departments/list"))
-                .andExpect(model().attributeExists("departments", "employeeNames"));
+                .andExpect(model().attribute("departments", summaries))
+                .andExpect(content().string(containsString("Anna Nowak")))
+                .andExpect(content().string(containsString("Nieprzypisany")));
     }
 
     @Test
     void showAddForm_shouldReturnForm() throws Exception {
-        when(employeeService.getAllEmployees()).thenReturn(List.of(
-                new Employee("Test Manager", "manager@test.com", "Firma", Position.MANAGER, 10000)
-        ));
+        List<ManagerCandidate> managers = List.of(new ManagerCandidate(1L, "Test Manager", "manager@test.com", Position.MANAGER));
+        when(departmentService.getManagerCandidates()).thenReturn(managers);
 
         mockMvc.perform(get("/departments/add"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("departments/form"))
-                .andExpect(model().attributeExists("department", "managers"));
+                .andExpect(model().attributeExists("department", "managers"))
+                .andExpect(model().attribute("managers", managers))
+                .andExpect(content().string(containsString("Test Manager (MANAGER)")));
     }
 
     @Test
@@ -91,7 +107,7 @@ class DepartmentViewControllerTest {
 
     @Test
     void addDepartment_validationError_shouldReturnForm() throws Exception {
-        when(employeeService.getAllEmployees()).thenReturn(List.of());
+        when(departmentService.getManagerCandidates()).thenReturn(List.of());
 
         mockMvc.perform(post("/departments/add")
                         .param("name", "")
@@ -106,7 +122,7 @@ class DepartmentViewControllerTest {
     void showEditForm_shouldReturnForm() throws Exception {
         Department testDept = new Department("IT","AiCorporation","Warszawa", 500000, "email@email.com");
         when(departmentService.getDepartmentById(1L)).thenReturn(Optional.of(testDept));
-        when(employeeService.getAllEmployees()).thenReturn(List.of());
+        when(departmentService.getManagerCandidates()).thenReturn(List.of());
         mockMvc.perform(get("/departments/edit/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("departments/form"))
@@ -138,7 +154,7 @@ class DepartmentViewControllerTest {
 
     @Test
     void updateDepartment_validationError_shouldReturnForm() throws Exception {
-        when(employeeService.getAllEmployees()).thenReturn(List.of());
+        when(departmentService.getManagerCandidates()).thenReturn(List.of());
 
         mockMvc.perform(post("/departments/edit/1")
                         .param("name", "")
@@ -161,27 +177,41 @@ class DepartmentViewControllerTest {
     void departmentDetails_shouldReturnDetailsView() throws Exception {
         Department testDept = new Department("IT","AiCorporation","Warszawa", 500000, "manager@test.com");
         Employee manager = new Employee("Manager", "manager@test.com", "Firma", Position.MANAGER, 10000);
-        Employee worker = new Employee("Worker", "worker@test.com", "Firma", Position.PROGRAMISTA, 8000);
-        worker.setDepartmentId(1L);
+        EmployeeListView worker = new EmployeeListView(2L, "Worker", "worker@test.com", "Firma", Position.PROGRAMISTA,
+                8000, EmploymentStatus.ACTIVE, "IT");
 
         when(departmentService.getDepartmentById(1L)).thenReturn(Optional.of(testDept));
-        when(employeeService.getAllEmployees()).thenReturn(List.of(manager, worker));
+        when(employeeService.getEmployeesInDepartment(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(worker), PageRequest.of(0, 20), 1));
         when(employeeService.getEmployeeByEmail("manager@test.com")).thenReturn(Optional.of(manager));
 
         mockMvc.perform(get("/departments/details/1"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("departments/details"))
-                .andExpect(model().attributeExists("department", "employeesInDept", "managerName"));
+                .andExpect(model().attributeExists("department", "employeesInDept", "managerName"))
+                .andExpect(model().attribute("employeesInDept", List.of(worker)));
     }
 
     @Test
-    void departmentDetails_noManagerEmail_shouldReturnDetailsView() throws Exception {
+    void departmentDetails_shouldRequestPageSortedByName() throws Exception {
         Department testDept = new Department("IT","AiCorporation","Warszawa", 500000, null);
-        Employee worker = new Employee("Worker", "worker@test.com", "Firma", Position.PROGRAMISTA, 8000);
-        worker.setDepartmentId(1L);
+        testDept.setId(3L);
+        when(departmentService.getDepartmentById(3L)).thenReturn(Optional.of(testDept));
+        when(employeeService.getEmployeesInDepartment(3L, PageRequest.of(2, 5, Sort.by("lastName", "firstName", "id"))))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(2, 5), 10));
+
+        mockMvc.perform(get("/departments/details/3").param("page", "2").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("departments/details"))
+                .andExpect(model().attributeExists("employeesPage"));
+    }
 
+    @Test
+    void departmentDetails_noManagerEmail_shouldReturnDetailsView() throws Exception {
+        Department testDept = new Department("IT","AiCorporation","Warszawa", 500000, null);
         when(departmentService.getDepartmentById(1L)).thenReturn(Optional.of(testDept));
-        when(employeeService.getAllEmployees()).thenReturn(List.of(worker));
+        when(employeeService.getEmployeesInDepartment(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
 
         mockMvc.perform(get("/departments/details/1"))
                 .andExpect(status().isOk())
@@ -217,7 +247,7 @@ class DepartmentViewControllerTest {
         MockMultipartFile file = new MockMultipartFile("file","test.pdf","application/pdf","pdf".getBytes());
         doNothing().when(fileStorageService).validateFile(any(), any(Set.class), anyLong(), any(Set.class));
         when(departmentDocumentService.saveDocument(eq(1L), any(MultipartFile.class), eq(DocumentType.CONTRACT)))
-                .thenReturn(new DepartmentDocument(1L,"uuid.pdf","test.pdf",DocumentType.CONTRACT,"/path"));
+                .thenReturn(new DepartmentDocument(1L,"uuid.pdf","test.pdf",DocumentType.CONTRACT,"/path",null));
         mockMvc.perform(multipart("/departments/documents/1").file(file).param("type","CONTRACT"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/departments/documents/1"));
@@ -225,14 +255,31 @@ class DepartmentViewControllerTest {
 
     @Test
     void downloadDepartmentDocument_shouldReturnFile() throws Exception {
-        DepartmentDocument doc = new DepartmentDocument(1L, "uuid", "file.pdf", DocumentType.CONTRACT, "path");
+        DepartmentDocument doc = new DepartmentDocument(1L, "uuid", "file.pdf", DocumentType.CONTRACT, "path", null);
         when(departmentDocumentService.findDocument(1L, "doc1")).thenReturn(Optional.of(doc));
-        when(fileStorageService.loadFromUploads(anyString(), anyString())).thenReturn(new ByteArrayResource("test".getBytes()));
+        Path stored = Files.writeString(Files.createTempFile("department-doc", ".pdf"), "test");
+        when(fileStorageService.locateInUploads("departments/1", "uuid")).thenReturn(stored);
 
         mockMvc.perform(get("/departments/documents/1/download/doc1"))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"file.pdf\""))
-                .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().string("test"));
+    }
+
+    @Test
+    void downloadDepartmentDocument_withRange_returnsPartialContent() throws Exception {
+        DepartmentDocument doc = new DepartmentDocument(1L, "uuid-range", "scan.pdf", DocumentType.CONTRACT, "path", null);
+        when(departmentDocumentService.findDocument(1L, "doc2")).thenReturn(Optional.of(doc));
+        Path stored = Files.writeString(Files.createTempFile("department-doc", ".pdf"), "0123456789");
+        when(fileStorageService.locateInUploads("departments/1", "uuid-range")).thenReturn(stored);
+
+        mockMvc.perform(get("/departments/documents/1/download/doc2").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
     }
 
     @Test
@@ -262,5 +309,9 @@ class DepartmentViewControllerTest {
         public FileStorageService fileStorageService() {
             return Mockito.mock(FileStorageService.class);
         }
+        @Bean
+        public FileDownloadService fileDownloadService() {
+            return new FileDownloadService();
+        }
     }
 }
\ No newline at end of file
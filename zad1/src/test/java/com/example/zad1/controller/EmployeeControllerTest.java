@@ -1,9 +1,15 @@
 package com.example.zad1.controller;
 
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.dto.SearchPage;
 import com.example.zad1.exception.GlobalExceptionHandler;
+import com.example.zad1.exception.InvalidDataException;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
+import com.example.zad1.service.EmployeeBulkService;
+import com.example.zad1.service.EmployeeSearchIndex;
 import com.example.zad1.service.EmployeeService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +44,12 @@ public class EmployeeControllerTest {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeBulkService bulkService;
+
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+
     private Employee makeEmployee(String fullName, String email, String company, Position pos, int salary, EmploymentStatus status) {
         Employee e = new Employee(fullName, email, company, pos, salary);
         e.setStatus(status);
@@ -64,6 +76,84 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$[1].position").value("WICEPREZES"));
     }
 
+    @Test
+    @DisplayName("GET /api/employees?limit=2 - 200 and return keyset page with cursor")
+    void getPage_shouldReturnItemsAndNextCursor() throws Exception {
+        when(employeeService.getEmployeesAfter(null, "abc", 2, "company", false))
+                .thenReturn(new KeysetPage<>(List.of(emp1, emp2), "def", null));
+
+        mockMvc.perform(get("/api/employees").param("after", "abc").param("limit", "2").param("sort", "company"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("steczkowska1764@gmail.com"))
+                .andExpect(jsonPath("$.items[1].email").value("edyth@gmail.com"))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalCount").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?company=TechCorp&limit=2 - keyset page filtered by company")
+    void getPage_withCompany_shouldPassCompanyFilter() throws Exception {
+        when(employeeService.getEmployeesAfter("TechCorp", null, 2, "id", false))
+                .thenReturn(new KeysetPage<>(List.of(emp1), null, null));
+
+        mockMvc.perform(get("/api/employees").param("company", "TechCorp").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.items[0].email").value("steczkowska1764@gmail.com"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        Mockito.verify(employeeService, Mockito.never()).getEmployeeByCompany(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?after=abc without limit - keyset page with the default size")
+    void getPage_withCursorWithoutLimit_shouldUseDefaultPageSize() throws Exception {
+        when(employeeService.getEmployeesAfter(null, "abc", EmployeeService.DEFAULT_PAGE_SIZE, "id", false))
+                .thenReturn(new KeysetPage<>(List.of(emp2), "def", null));
+
+        mockMvc.perform(get("/api/employees").param("after", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("edyth@gmail.com"))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+        Mockito.verify(employeeService, Mockito.never()).getAllEmployees();
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?limit=10&after=bad - 400 for invalid cursor")
+    void getPage_withInvalidCursor_shouldReturn400() throws Exception {
+        when(employeeService.getEmployeesAfter(null, "bad", 10, "id", true))
+                .thenThrow(new InvalidDataException("Nieprawidłowy kursor stronicowania: bad"));
+
+        mockMvc.perform(get("/api/employees").param("after", "bad").param("limit", "10").param("count", "true"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/employees/search?q=gorn - 200 and return ranked hits")
+    void search_shouldReturnRankedPage() throws Exception {
+        EmployeeSearchHit hit = new EmployeeSearchHit("edyth@gmail.com", "Edyta Gorniak", "TechCorp", "IT",
+                Position.WICEPREZES, Position.WICEPREZES.getSalary(), 2.4);
+        when(searchIndex.search("gorn", 1, 5)).thenReturn(new SearchPage<>(List.of(hit), 1, 5, 7));
+
+        mockMvc.perform(get("/api/employees/search").param("q", "gorn").param("page", "1").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].email").value("edyth@gmail.com"))
+                .andExpect(jsonPath("$.items[0].departmentName").value("IT"))
+                .andExpect(jsonPath("$.totalCount").value(7))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("POST /api/employees/search/rebuild - 200 and return indexed count")
+    void rebuildSearchIndex_shouldReturnCount() throws Exception {
+        when(searchIndex.rebuild()).thenReturn(12);
+
+        mockMvc.perform(post("/api/employees/search/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indexed").value(12));
+    }
+
     @Test
     @DisplayName("GET /api/employees?company=TechCorp - 200 and return filtered list")
     void getAll_withCompanyFilter_shouldReturn200AndFilteredList() throws Exception {
@@ -433,11 +523,128 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$.status").value(400));
     }
 
+    @Test
+    @DisplayName("GET /api/employees with Accept: application/x-ndjson - one DTO per line")
+    void getAll_ndjson_shouldStreamOneEmployeePerLine() throws Exception {
+        Mockito.doAnswer(inv -> {
+            java.util.function.Consumer<Employee> action = inv.getArgument(1);
+            action.accept(emp1);
+            action.accept(emp2);
+            return null;
+        }).when(employeeService).forEachEmployee(Mockito.isNull(), Mockito.any());
+
+        String body = mockMvc.perform(get("/api/employees").accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        org.junit.jupiter.api.Assertions.assertEquals(2, lines.length);
+        org.junit.jupiter.api.Assertions.assertTrue(lines[0].contains("\"email\":\"steczkowska1764@gmail.com\""));
+        org.junit.jupiter.api.Assertions.assertTrue(lines[1].contains("\"email\":\"edyth@gmail.com\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?stream=true&company=X - streamed JSON array")
+    void getAll_streamFlag_shouldStreamJsonArray() throws Exception {
+        Mockito.doAnswer(inv -> {
+            java.util.function.Consumer<Employee> action = inv.getArgument(1);
+            action.accept(emp1);
+            return null;
+        }).when(employeeService).forEachEmployee(Mockito.eq("TechCorp"), Mockito.any());
+
+        mockMvc.perform(get("/api/employees").param("stream", "true").param("company", "TechCorp"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value("steczkowska1764@gmail.com"));
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?limit=2&stream=true - 400, pagination and streaming are exclusive")
+    void getPage_withStreamFlag_shouldReturn400() throws Exception {
+        Mockito.clearInvocations(employeeService);
+        mockMvc.perform(get("/api/employees").param("limit", "2").param("stream", "true"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+        Mockito.verify(employeeService, Mockito.never()).forEachEmployee(Mockito.any(), Mockito.any());
+        Mockito.verify(employeeService, Mockito.never()).getEmployeesAfter(Mockito.any(), Mockito.any(), Mockito.eq(2), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?limit=3 with Accept: application/x-ndjson only - 400")
+    void getPage_withNdjsonOnlyAccept_shouldReturn400() throws Exception {
+        Mockito.clearInvocations(employeeService);
+        mockMvc.perform(get("/api/employees").param("limit", "3").accept("application/x-ndjson"))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(employeeService, Mockito.never()).getEmployeesAfter(Mockito.any(), Mockito.any(), Mockito.eq(3), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?limit=4 accepting NDJSON and JSON - JSON keyset page")
+    void getPage_withNdjsonAndJsonAccept_shouldReturnJsonPage() throws Exception {
+        when(employeeService.getEmployeesAfter(null, null, 4, "id", false))
+                .thenReturn(new KeysetPage<>(List.of(emp1), null, null));
+
+        mockMvc.perform(get("/api/employees").param("limit", "4")
+                        .header("Accept", "application/x-ndjson, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.items[0].email").value("steczkowska1764@gmail.com"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/employees?stream=true with Accept: application/x-ndjson - NDJSON stream")
+    void getAll_streamFlagWithNdjsonAccept_shouldStreamNdjson() throws Exception {
+        Mockito.doAnswer(inv -> {
+            java.util.function.Consumer<Employee> action = inv.getArgument(1);
+            action.accept(emp2);
+            return null;
+        }).when(employeeService).forEachEmployee(Mockito.eq("Beta"), Mockito.any());
+
+        String body = mockMvc.perform(get("/api/employees").param("stream", "true").param("company", "Beta")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        org.junit.jupiter.api.Assertions.assertEquals(1, body.split("\n").length);
+        org.junit.jupiter.api.Assertions.assertTrue(body.contains("\"email\":\"edyth@gmail.com\""));
+    }
+
+    @Test
+    @DisplayName("POST /api/employees/bulk - NDJSON body is streamed to the bulk service")
+    void bulk_ndjson_shouldDelegateWithNdjsonFlag() throws Exception {
+        Mockito.doAnswer(inv -> {
+            java.io.OutputStream out = inv.getArgument(1);
+            out.write("{\"summary\":{\"created\":0,\"updated\":0,\"failed\":0}}\n".getBytes());
+            return null;
+        }).when(bulkService).upsert(Mockito.any(), Mockito.any(), Mockito.eq(true));
+
+        mockMvc.perform(post("/api/employees/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(jsonPath("$.summary.created").value(0));
+        Mockito.verify(bulkService).upsert(Mockito.any(), Mockito.any(), Mockito.eq(true));
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
         public EmployeeService employeeService() {
             return Mockito.mock(EmployeeService.class);
         }
+
+        @Bean
+        public EmployeeBulkService employeeBulkService() {
+            return Mockito.mock(EmployeeBulkService.class);
+        }
+
+        @Bean
+        public EmployeeSearchIndex employeeSearchIndex() {
+            return Mockito.mock(EmployeeSearchIndex.class);
+        }
     }
 }
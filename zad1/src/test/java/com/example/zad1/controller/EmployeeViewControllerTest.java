@@ -1,12 +1,16 @@
 package com.example.zad1.controller;
 
-import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.dto.SearchPage;
 import com.example.zad1.model.Employee;
+import com.example.zad1.model.ImportJob;
 import com.example.zad1.model.ImportSummary;
 import com.example.zad1.model.Position;
+import com.example.zad1.service.EmployeeSearchIndex;
 import com.example.zad1.service.EmployeeService;
 import com.example.zad1.service.FileStorageService;
-import com.example.zad1.service.ImportService;
+import com.example.zad1.service.ImportJobService;
 import com.example.zad1.service.DepartmentService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -45,22 +49,40 @@ class EmployeeViewControllerTest {
     @Autowired
     private EmployeeService employeeService;
     @Autowired
-    private ImportService importService;
+    private ImportJobService importJobService;
     @Autowired
     private FileStorageService storageService;
     @Autowired
     private DepartmentService departmentService;
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
 
     @Test
     void listEmployees_shouldReturnListViewAndModel() throws Exception {
-        EmployeeListView viewMock = Mockito.mock(EmployeeListView.class);
-        Page<EmployeeListView> page = new PageImpl<>(List.of(viewMock));
-        when(employeeService.getEmployeesList(any(Pageable.class))).thenReturn(page);
+        Employee emp = new Employee("Jan Kowalski", "jan@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+        when(employeeService.getEmployeesAfter(isNull(), isNull(), eq(10), eq("id"), eq(true)))
+                .thenReturn(new KeysetPage<>(List.of(emp), "next-cursor", 25L));
 
         mockMvc.perform(get("/employees"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("employees/list"))
-                .andExpect(model().attributeExists("employees"));
+                .andExpect(model().attributeExists("employees"))
+                .andExpect(model().attribute("nextCursor", "next-cursor"))
+                .andExpect(model().attribute("totalItems", 25L))
+                .andExpect(model().attribute("firstPage", true));
+    }
+
+    @Test
+    void listEmployees_shouldSeekAfterCursorWithoutCount() throws Exception {
+        when(employeeService.getEmployeesAfter(null, "abc", 20, "company", false))
+                .thenReturn(new KeysetPage<>(List.of(), null, null));
+
+        mockMvc.perform(get("/employees").param("after", "abc").param("size", "20")
+                        .param("sort", "company").param("count", "false"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("employees/list"))
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(model().attribute("nextCursor", (Object) null));
     }
 
     @Test
@@ -168,7 +190,22 @@ class EmployeeViewControllerTest {
     void showSearchForm_shouldReturnSearchForm() throws Exception{
         mockMvc.perform(get("/employees/search"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("employees/search-form"));
+                .andExpect(view().name("employees/search-form"))
+                .andExpect(model().attributeDoesNotExist("hits"));
+    }
+
+    @Test
+    void showSearchForm_withQuery_shouldRenderRankedHits() throws Exception {
+        EmployeeSearchHit hit = new EmployeeSearchHit("jan@test.com", "Jan Kowalski", "Corp", null,
+                Position.PROGRAMISTA, 8000, 3.0);
+        SearchPage<EmployeeSearchHit> hits = new SearchPage<>(List.of(hit), 0, 20, 1);
+        when(searchIndex.search("kowalsky", 0, 20)).thenReturn(hits);
+
+        mockMvc.perform(get("/employees/search").param("q", "kowalsky"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("employees/search-form"))
+                .andExpect(model().attribute("query", "kowalsky"))
+                .andExpect(model().attribute("hits", hits));
     }
 
     @Test
@@ -195,18 +232,18 @@ class EmployeeViewControllerTest {
     @Test
     void handleImport_csv_success_shouldRedirect() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", "content".getBytes());
-        ImportSummary summary = new ImportSummary(1, List.of());
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "test.csv");
 
         doNothing().when(storageService).validateFile(any(), any(Set.class), anyLong(), any(Set.class));
         when(storageService.storeInUploads(any(), isNull())).thenReturn("saved.csv");
-        when(importService.importFromCsv("saved.csv")).thenReturn(summary);
+        when(importJobService.submitCsv("saved.csv", "test.csv", false)).thenReturn(job);
 
         mockMvc.perform(multipart("/employees/import")
                         .file(file)
                         .param("fileType", "csv"))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/employees"))
-                .andExpect(flash().attribute("message", "Import zakończony. Zaimportowano: 1. Błędów: 0"));
+                .andExpect(redirectedUrl("/employees/import/jobs/" + job.getId()))
+                .andExpect(flash().attributeExists("message"));
     }
 
     @Test
@@ -224,18 +261,42 @@ class EmployeeViewControllerTest {
     @Test
     void handleImport_xml_success_shouldRedirect() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "test.xml", "application/xml", "content".getBytes());
-        ImportSummary summary = new ImportSummary(2, List.of());
+        ImportJob job = new ImportJob(ImportJob.Type.XML, "test.xml");
 
         doNothing().when(storageService).validateFile(any(), any(Set.class), anyLong(), any(Set.class));
         when(storageService.storeInUploads(any(), isNull())).thenReturn("saved.xml");
-        when(importService.importFromXml("saved.xml")).thenReturn(summary);
+        when(importJobService.submitXml("saved.xml", "test.xml", false)).thenReturn(job);
 
         mockMvc.perform(multipart("/employees/import")
                         .file(file)
                         .param("fileType", "xml"))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/employees"))
-                .andExpect(flash().attribute("message", "Import zakończony. Zaimportowano: 2. Błędów: 0"));
+                .andExpect(redirectedUrl("/employees/import/jobs/" + job.getId()));
+    }
+
+    @Test
+    void showImportStatus_finishedJob_shouldShowSummary() throws Exception {
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "test.csv");
+        job.markRunning();
+        job.complete(new ImportSummary(2, List.of("Linia 3: za mało pól")));
+        when(importJobService.getJob(job.getId())).thenReturn(job);
+
+        mockMvc.perform(get("/employees/import/jobs/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("employees/import-status"))
+                .andExpect(model().attribute("finished", true))
+                .andExpect(model().attributeExists("job"));
+    }
+
+    @Test
+    void cancelImport_shouldRedirectToStatus() throws Exception {
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "test.csv");
+        when(importJobService.cancel(job.getId())).thenReturn(job);
+
+        mockMvc.perform(post("/employees/import/jobs/" + job.getId() + "/cancel"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/employees/import/jobs/" + job.getId()));
+        verify(importJobService).cancel(job.getId());
     }
 
     @Test
@@ -255,10 +316,12 @@ class EmployeeViewControllerTest {
         @Bean
         public EmployeeService employeeService() { return Mockito.mock(EmployeeService.class); }
         @Bean
-        public ImportService importService() { return Mockito.mock(ImportService.class); }
+        public ImportJobService importJobService() { return Mockito.mock(ImportJobService.class); }
         @Bean
         public FileStorageService fileStorageService() { return Mockito.mock(FileStorageService.class); }
         @Bean
         public DepartmentService departmentService() { return Mockito.mock(DepartmentService.class); }
+        @Bean
+        public EmployeeSearchIndex employeeSearchIndex() { return Mockito.mock(EmployeeSearchIndex.class); }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.zad1.controller;
 
+import com.example.zad1.exception.FileStorageException;
 import com.example.zad1.exception.GlobalExceptionHandler;
 import com.example.zad1.exception.InvalidFileException;
 import com.example.zad1.model.DocumentType;
@@ -7,8 +8,10 @@ import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmployeeDocument;
 import com.example.zad1.model.ImportSummary;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.FileDownloadService;
 import com.example.zad1.service.FileStorageService;
 import com.example.zad1.service.ImportService;
+import com.example.zad1.service.ReportCache;
 import com.example.zad1.service.ReportGeneratorService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,13 +29,25 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -59,6 +74,7 @@ class FileUploadControllerTest {
         @Bean FileStorageService fileStorageService(){ return Mockito.mock(FileStorageService.class); }
         @Bean ImportService importService(){ return Mockito.mock(ImportService.class); }
         @Bean ReportGeneratorService reportGeneratorService(){ return Mockito.mock(ReportGeneratorService.class); }
+        @Bean FileDownloadService fileDownloadService(){ return new FileDownloadService(); }
     }
 
     @AfterEach
@@ -66,6 +82,12 @@ class FileUploadControllerTest {
         Mockito.reset(fileStorageService);
     }
 
+    private static Path storedFile(byte[] content) throws Exception {
+        Path file = Files.createTempFile("stored-", ".bin");
+        Files.write(file, content);
+        return file;
+    }
+
     @Test
     @DisplayName("POST /api/files/import/csv - 200 OK and returns ImportSummary")
     void importCsv_success() throws Exception {
@@ -74,7 +96,7 @@ class FileUploadControllerTest {
                         "Jan,Kowalski,TechCorp,PREZES,10000\n").getBytes(StandardCharsets.UTF_8));
 
         when(fileStorageService.storeInUploads(any(), isNull())).thenReturn("tmp.csv");
-        when(importService.importFromCsv(anyString())).thenReturn(new ImportSummary(1, List.of()));
+        when(importService.importFromCsv(anyString(), eq(false))).thenReturn(new ImportSummary(1, List.of()));
 
         mockMvc.perform(multipart("/api/files/import/csv").file(file))
                 .andExpect(status().isOk())
@@ -104,6 +126,36 @@ class FileUploadControllerTest {
                 .andExpect(status().isPayloadTooLarge());
     }
 
+    @Test
+    @DisplayName("POST /api/files/import/csv - 400 for files above the synchronous limit, pointing at import jobs")
+    void importCsv_aboveSyncLimit_returns400WithoutImporting() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", new byte[1]) {
+            @Override
+            public long getSize() {
+                return 10L * 1024 * 1024 + 1;
+            }
+        };
+        Mockito.clearInvocations(importService);
+
+        mockMvc.perform(multipart("/api/files/import/csv").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", org.hamcrest.Matchers.containsString("/api/files/import/jobs/csv")));
+        Mockito.verify(fileStorageService, Mockito.never()).storeInUploads(any(), any());
+        Mockito.verify(importService, Mockito.never()).importFromCsv(anyString(), Mockito.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("POST /api/files/import/xml - validates against the synchronous limit")
+    void importXml_validatesAgainstSyncLimit() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.xml", "application/xml", "<employees/>".getBytes());
+        when(fileStorageService.storeInUploads(any(), isNull())).thenReturn("tmp.xml");
+        when(importService.importFromXml(anyString(), eq(false))).thenReturn(new ImportSummary(0, List.of()));
+
+        mockMvc.perform(multipart("/api/files/import/xml").file(file))
+                .andExpect(status().isOk());
+        Mockito.verify(fileStorageService).validateFile(any(), eq(Set.of("xml")), eq(10L * 1024 * 1024), anySet());
+    }
+
     @Test
     @DisplayName("POST /api/files/import/xml - 200 OK and returns ImportSummary")
     void importXml_success() throws Exception {
@@ -118,7 +170,7 @@ class FileUploadControllerTest {
                         "  </employee>\n" +
                         "</employees>").getBytes(StandardCharsets.UTF_8));
         when(fileStorageService.storeInUploads(any(), isNull())).thenReturn("tmp.xml");
-        when(importService.importFromXml(anyString())).thenReturn(new ImportSummary(1, List.of()));
+        when(importService.importFromXml(anyString(), eq(false))).thenReturn(new ImportSummary(1, List.of()));
         mockMvc.perform(multipart("/api/files/import/xml").file(file))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.importedCount").value(1))
@@ -147,25 +199,34 @@ class FileUploadControllerTest {
                 .andExpect(status().isPayloadTooLarge());
     }
 
+    private void streamCsv(String company, String csv) throws Exception {
+        when(reportGeneratorService.csvETag(company == null ? isNull() : eq(company))).thenReturn("\"csv-" + company + "\"");
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reportGeneratorService).streamCsv(company == null ? isNull() : eq(company), any(OutputStream.class));
+    }
+
     @Test
-    @DisplayName("GET /api/files/export/csv - 200 OK with CSV headers")
+    @DisplayName("GET /api/files/export/csv - 200 OK with CSV headers streamed without saving")
     void exportCsv_success() throws Exception {
-        String csv = "fullName,email,companyName,position,salary\n";
-        Resource res = new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
-        when(reportGeneratorService.generateCsv(isNull())).thenReturn(res);
+        String csv = "fullName,email,companyName,position,salary\nJan Kowalski,jan@a,Alpha,MANAGER,12000\n";
+        streamCsv(null, csv);
 
         mockMvc.perform(get("/api/files/export/csv"))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", org.hamcrest.Matchers.containsString("text/csv")))
-                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment")));
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().bytes(csv.getBytes(StandardCharsets.UTF_8)));
+        verify(reportGeneratorService, never()).generateCsv(isNull());
     }
 
     @Test
     @DisplayName("GET /api/files/export/csv?company=TechCorp - 200 OK with filtered filename")
     void exportCsv_withCompany_success() throws Exception {
-        String csv = "fullName,email,companyName,position,salary\n";
-        Resource res = new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
-        when(reportGeneratorService.generateCsv(eq("TechCorp"))).thenReturn(res);
+        streamCsv("TechCorp", "fullName,email,companyName,position,salary\n");
 
         mockMvc.perform(get("/api/files/export/csv").param("company", "TechCorp"))
                 .andExpect(status().isOk())
@@ -175,15 +236,105 @@ class FileUploadControllerTest {
     @Test
     @DisplayName("GET /api/files/export/csv?company='' - default filename employees.csv")
     void exportCsv_blankCompany_usesDefaultFileName() throws Exception {
-        String csv = "fullName,email,companyName,position,salary\n";
-        Resource res = new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
-        when(reportGeneratorService.generateCsv(eq(""))).thenReturn(res);
+        streamCsv("", "fullName,email,companyName,position,salary\n");
 
         mockMvc.perform(get("/api/files/export/csv").param("company", ""))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("employees.csv")));
     }
 
+    @Test
+    @DisplayName("GET /api/files/export/csv with Accept-Encoding gzip - compressed body")
+    void exportCsv_gzipWhenAccepted() throws Exception {
+        String csv = "fullName,email,companyName,position,salary\nŁukasz Żak,lz@a,Alpha,MANAGER,12000\n";
+        streamCsv("Alpha", csv);
+
+        byte[] body = mockMvc.perform(get("/api/files/export/csv").param("company", "Alpha")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(csv, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/files/export/csv with Accept-Encoding gzip;q=0 - identity body")
+    void exportCsv_noGzipWhenRefusedByQValue() throws Exception {
+        String csv = "fullName,email,companyName,position,salary\nA A,a@a,Alpha,MANAGER,12000\n";
+        streamCsv("Alpha", csv);
+
+        mockMvc.perform(get("/api/files/export/csv").param("company", "Alpha")
+                        .header("Accept-Encoding", "gzip;q=0, *;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", org.hamcrest.Matchers.containsString("Accept-Encoding")))
+                .andExpect(content().string(csv));
+    }
+
+    @Test
+    @DisplayName("Accept-Encoding negotiation honours q-values and wildcards")
+    void acceptsGzip_parsesQValues() {
+        assertAll(
+                () -> assertTrue(FileUploadController.acceptsGzip("gzip, deflate")),
+                () -> assertTrue(FileUploadController.acceptsGzip("deflate;q=1.0, GZIP;q=0.2")),
+                () -> assertTrue(FileUploadController.acceptsGzip("br, *;q=0.1")),
+                () -> assertTrue(FileUploadController.acceptsGzip("x-gzip")),
+                () -> assertFalse(FileUploadController.acceptsGzip("gzip;q=0")),
+                () -> assertFalse(FileUploadController.acceptsGzip("gzip; q=0.000, *")),
+                () -> assertFalse(FileUploadController.acceptsGzip("identity, br")),
+                () -> assertFalse(FileUploadController.acceptsGzip("*;q=0")),
+                () -> assertFalse(FileUploadController.acceptsGzip(null))
+        );
+    }
+
+    @Test
+    @DisplayName("GET /api/files/export/csv with matching If-None-Match - 304 without generating")
+    void exportCsv_notModified() throws Exception {
+        when(reportGeneratorService.csvETag(eq("Cached"))).thenReturn("\"cached-v1\"");
+
+        mockMvc.perform(get("/api/files/export/csv").param("company", "Cached")
+                        .header("If-None-Match", "\"cached-v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        verify(reportGeneratorService, never()).streamCsv(eq("Cached"), any());
+        verify(reportGeneratorService, never()).generateCsv("Cached");
+    }
+
+    @Test
+    @DisplayName("GET /api/files/export/csv - serves a warmed report without streaming from the database")
+    void exportCsv_servesWarmedReportFromCache() throws Exception {
+        String csv = "fullName,email,companyName,position,salary\nJan Kowalski,jan@a,Warm,MANAGER,12000\n";
+        when(reportGeneratorService.csvETag(eq("Warm"))).thenReturn("\"warm-v1\"");
+        when(reportGeneratorService.cachedCsv(eq("Warm"))).thenReturn(Optional.of(
+                new ReportCache.CachedReport(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)), "\"warm-v1\"")));
+
+        mockMvc.perform(get("/api/files/export/csv").param("company", "Warm"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"warm-v1\""))
+                .andExpect(content().string(csv));
+        verify(reportGeneratorService, never()).streamCsv(eq("Warm"), any());
+        verify(reportGeneratorService, never()).generateCsv("Warm");
+    }
+
+    @Test
+    @DisplayName("GET /api/files/export/csv?save=true - stores report and returns its content")
+    void exportCsv_saveWritesReportFile() throws Exception {
+        String csv = "fullName,email,companyName,position,salary\n";
+        when(reportGeneratorService.csvETag(eq("Saved"))).thenReturn("\"saved-v1\"");
+        when(reportGeneratorService.generateCsv(eq("Saved"))).thenReturn(
+                new ReportCache.CachedReport(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)), "\"saved-v1\""));
+
+        mockMvc.perform(get("/api/files/export/csv").param("company", "Saved").param("save", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"saved-v1\""))
+                .andExpect(content().string(csv));
+        verify(reportGeneratorService).generateCsv("Saved");
+    }
+
     @Test
     @DisplayName("POST /api/files/documents/{email} - 201 Created and returns EmployeeDocument")
     void uploadDocument_success_returns201() throws Exception {
@@ -235,8 +386,8 @@ class FileUploadControllerTest {
     void listDocuments_success() throws Exception {
         String email = "jan@example.com";
         when(fileStorageService.listEmployeeDocuments(email)).thenReturn(List.of(
-                new EmployeeDocument(email, "saved1.pdf", "doc1.pdf", DocumentType.CONTRACT, "/p1"),
-                new EmployeeDocument(email, "saved2.pdf", "doc2.pdf", DocumentType.CERTIFICATE, "/p2")
+                new EmployeeDocument(email, "saved1.pdf", "doc1.pdf", DocumentType.CONTRACT, "/p1", null),
+                new EmployeeDocument(email, "saved2.pdf", "doc2.pdf", DocumentType.CERTIFICATE, "/p2", null)
         ));
         mockMvc.perform(get("/api/files/documents/{email}", email))
                 .andExpect(status().isOk())
@@ -251,9 +402,9 @@ class FileUploadControllerTest {
         String docId = "doc-123";
         var employee = new Employee("Jan Kowalski", email, "TechCorp", com.example.zad1.model.Position.PREZES, 10000);
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(employee));
-        var stored = new EmployeeDocument(email, "saved.pdf", "contract.pdf", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.pdf");
+        var stored = new EmployeeDocument(email, "saved.pdf", "contract.pdf", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.pdf", null);
         when(fileStorageService.findDocument(email, docId)).thenReturn(Optional.of(stored));
-        when(fileStorageService.loadFromUploads(anyString(), anyString())).thenReturn(new ByteArrayResource(new byte[]{1,2,3}));
+        when(fileStorageService.locateInUploads(anyString(), anyString())).thenReturn(storedFile(new byte[]{1,2,3}));
 
         mockMvc.perform(get("/api/files/documents/{email}/{documentId}", email, docId))
                 .andExpect(status().isOk())
@@ -266,9 +417,9 @@ class FileUploadControllerTest {
     void downloadDocument_png_success() throws Exception {
         String email = "jan@example.com";
         String docId = "doc-123";
-        var stored = new EmployeeDocument(email, "saved.png", "image.png", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.png");
+        var stored = new EmployeeDocument(email, "saved.png", "image.png", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.png", null);
         when(fileStorageService.findDocument(email, docId)).thenReturn(Optional.of(stored));
-        when(fileStorageService.loadFromUploads(anyString(), anyString())).thenReturn(new ByteArrayResource(new byte[]{1}));
+        when(fileStorageService.locateInUploads(anyString(), anyString())).thenReturn(storedFile(new byte[]{1}));
 
         mockMvc.perform(get("/api/files/documents/{email}/{documentId}", email, docId))
                 .andExpect(status().isOk())
@@ -281,9 +432,9 @@ class FileUploadControllerTest {
     void downloadDocument_jpg_success() throws Exception {
         String email = "jan@example.com";
         String docId = "doc-456";
-        var stored = new EmployeeDocument(email, "saved.jpg", "photo.jpg", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.jpg");
+        var stored = new EmployeeDocument(email, "saved.jpg", "photo.jpg", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.jpg", null);
         when(fileStorageService.findDocument(email, docId)).thenReturn(Optional.of(stored));
-        when(fileStorageService.loadFromUploads(anyString(), anyString())).thenReturn(new ByteArrayResource(new byte[]{1}));
+        when(fileStorageService.locateInUploads(anyString(), anyString())).thenReturn(storedFile(new byte[]{1}));
 
         mockMvc.perform(get("/api/files/documents/{email}/{documentId}", email, docId))
                 .andExpect(status().isOk())
@@ -302,6 +453,25 @@ class FileUploadControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /api/files/documents/{email}/{documentId} z Range - 206 Partial Content")
+    void downloadDocument_range_returnsPartialContent() throws Exception {
+        String email = "jan@example.com";
+        String docId = "doc-range";
+        String hash = "c".repeat(64);
+        var stored = new EmployeeDocument(email, "scan.pdf", "scan.pdf", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/scan.pdf", hash);
+        when(fileStorageService.findDocument(email, docId)).thenReturn(Optional.of(stored));
+        when(fileStorageService.locateInUploads(anyString(), eq("scan.pdf"))).thenReturn(storedFile("%PDF-1.7 strona".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(get("/api/files/documents/{email}/{documentId}", email, docId).header("Range", "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-3/15"))
+                .andExpect(header().string("Content-Length", "4"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(content().string("%PDF"));
+    }
+
     @Test
     @DisplayName("DELETE /api/files/documents/{email}/{documentId} - 204 No Content")
     void deleteDocument_success() throws Exception {
@@ -318,16 +488,13 @@ class FileUploadControllerTest {
         String email = "anna@example.com";
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(new Employee("Anna Nowak", email, "TechCorp", com.example.zad1.model.Position.PREZES, 9000)));
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1,2});
-        when(fileStorageService.storeInUploads(any(), eq("photos"))).thenReturn("randomname.jpg");
-        Path tmp = Files.createTempDirectory("uploadsTest");
-        Files.createDirectories(tmp.resolve("photos"));
-        Files.write(tmp.resolve("photos").resolve("randomname.jpg"), new byte[]{1,2});
-        when(fileStorageService.getUploadDir()).thenReturn(tmp);
+        when(fileStorageService.storeHashedInUploads(any(), eq("photos"))).thenReturn("randomname.jpg");
         when(fileStorageService.getExtension(anyString())).thenReturn("jpg");
 
         mockMvc.perform(multipart("/api/files/photos/{email}", email).file(file))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.photoFileName", org.hamcrest.Matchers.containsString(email)));
+        Mockito.verify(fileStorageService).moveInUploads("photos", "randomname.jpg", email + ".jpg");
     }
 
     @Test
@@ -351,11 +518,7 @@ class FileUploadControllerTest {
         emp.setPhotoFileName("old.jpg");
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(emp));
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1});
-        when(fileStorageService.storeInUploads(any(), eq("photos"))).thenReturn("random.jpg");
-        Path tmp = Files.createTempDirectory("uploadsTest2");
-        Files.createDirectories(tmp.resolve("photos"));
-        Files.write(tmp.resolve("photos").resolve("random.jpg"), new byte[]{1});
-        when(fileStorageService.getUploadDir()).thenReturn(tmp);
+        when(fileStorageService.storeHashedInUploads(any(), eq("photos"))).thenReturn("random.jpg");
         when(fileStorageService.getExtension(anyString())).thenReturn("jpg");
 
         mockMvc.perform(multipart("/api/files/photos/{email}", email).file(file))
@@ -381,11 +544,10 @@ class FileUploadControllerTest {
         String email = "fail@example.com";
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(new Employee("X", email, "Tech", com.example.zad1.model.Position.PROGRAMISTA, 4000)));
         MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1});
-        when(fileStorageService.storeInUploads(any(), eq("photos"))).thenReturn("notExisting.jpg");
-        Path tmp = Files.createTempDirectory("uploadsTest3");
-        Files.createDirectories(tmp.resolve("photos"));
-        when(fileStorageService.getUploadDir()).thenReturn(tmp);
+        when(fileStorageService.storeHashedInUploads(any(), eq("photos"))).thenReturn("notExisting.jpg");
         when(fileStorageService.getExtension(anyString())).thenReturn("jpg");
+        Mockito.doThrow(new FileStorageException("Błąd przenoszenia pliku", new IOException("brak pliku")))
+                .when(fileStorageService).moveInUploads("photos", "notExisting.jpg", email + ".jpg");
 
         mockMvc.perform(multipart("/api/files/photos/{email}", email).file(file))
                 .andExpect(status().isBadRequest());
@@ -407,7 +569,7 @@ class FileUploadControllerTest {
         var emp = new Employee("PNG", email, "Tech", com.example.zad1.model.Position.MANAGER, 6000);
         emp.setPhotoFileName("img.png");
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(emp));
-        when(fileStorageService.loadFromUploads(eq("photos"), eq("img.png"))).thenReturn(new ByteArrayResource(new byte[]{1}));
+        when(fileStorageService.locateInUploads(eq("photos"), eq("img.png"))).thenReturn(storedFile(new byte[]{1}));
 
         mockMvc.perform(get("/api/files/photos/{email}", email))
                 .andExpect(status().isOk())
@@ -421,21 +583,40 @@ class FileUploadControllerTest {
         var emp = new Employee("JPG", email, "Tech", com.example.zad1.model.Position.MANAGER, 6000);
         emp.setPhotoFileName("img.jpg");
         when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(emp));
-        when(fileStorageService.loadFromUploads(eq("photos"), eq("img.jpg"))).thenReturn(new ByteArrayResource(new byte[]{1}));
+        when(fileStorageService.locateInUploads(eq("photos"), eq("img.jpg"))).thenReturn(storedFile(new byte[]{1}));
 
         mockMvc.perform(get("/api/files/photos/{email}", email))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", MediaType.IMAGE_JPEG.toString()));
     }
 
+    @Test
+    @DisplayName("GET /api/files/photos/{email} z If-None-Match - 304 Not Modified")
+    void getPhoto_notModified() throws Exception {
+        String email = "etag@example.com";
+        var emp = new Employee("ETag", email, "Tech", com.example.zad1.model.Position.MANAGER, 6000);
+        emp.setPhotoFileName("etag.jpg");
+        when(employeeService.getEmployeeByEmail(email)).thenReturn(Optional.of(emp));
+        when(fileStorageService.locateInUploads("photos", "etag.jpg")).thenReturn(storedFile(new byte[]{1, 2, 3}));
+
+        String etag = mockMvc.perform(get("/api/files/photos/{email}", email))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/files/photos/{email}", email).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @Test
     @DisplayName("GET /api/files/documents/{email}/{documentId} - 200 OK unknown extension -> application/octet-stream")
     void downloadDocument_unknownExtension_defaultsOctetStream() throws Exception {
         String email = "jan@example.com";
         String docId = "doc-789";
-        var stored = new EmployeeDocument(email, "saved.bin", "artifact.bin", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.bin");
+        var stored = new EmployeeDocument(email, "saved.bin", "artifact.bin", DocumentType.CONTRACT, "/uploads/documents/jan@example.com/saved.bin", null);
         when(fileStorageService.findDocument(email, docId)).thenReturn(Optional.of(stored));
-        when(fileStorageService.loadFromUploads(anyString(), anyString())).thenReturn(new ByteArrayResource(new byte[]{1}));
+        when(fileStorageService.locateInUploads(anyString(), anyString())).thenReturn(storedFile(new byte[]{1}));
 
         mockMvc.perform(get("/api/files/documents/{email}/{documentId}", email, docId))
                 .andExpect(status().isOk())
@@ -458,10 +639,44 @@ class FileUploadControllerTest {
     @DisplayName("GET /api/files/reports/statistics/{companyName} - 200 OK PDF")
     void statsPdf_success() throws Exception {
         String company = "TechCorp";
-        when(reportGeneratorService.generateCompanyStatisticsPdf(company)).thenReturn(new ByteArrayResource(new byte[]{1,2}));
+        when(reportGeneratorService.generateCompanyStatisticsPdf(company))
+                .thenReturn(new ReportCache.CachedReport(new ByteArrayResource(new byte[]{1,2}), "\"pdf-v1\""));
+        mockMvc.perform(get("/api/files/reports/statistics/{companyName}", company))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"pdf-v1\""))
+                .andExpect(header().string("Content-Type", org.hamcrest.Matchers.containsString("application/pdf")))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("statistics-"+company+".pdf")))
+                .andExpect(content().bytes(new byte[]{1,2}));
+    }
+
+    @Test
+    @DisplayName("GET /api/files/reports/statistics/{companyName} z If-None-Match - 304 Not Modified")
+    void statsPdf_notModified() throws Exception {
+        String company = "DataSoft";
+        when(reportGeneratorService.statisticsPdfETag(company)).thenReturn("\"pdf-v2\"");
+        mockMvc.perform(get("/api/files/reports/statistics/{companyName}", company)
+                        .header("If-None-Match", "\"pdf-v2\""))
+                .andExpect(status().isNotModified());
+        verify(reportGeneratorService, never()).generateCompanyStatisticsPdf(company);
+    }
+
+    @Test
+    @DisplayName("GET /api/files/reports/statistics/{companyName} - duża firma strumieniowana bez cache")
+    void statsPdf_largeCompany_streamsDirectly() throws Exception {
+        String company = "BigCorp";
+        when(reportGeneratorService.statisticsPdfETag(company)).thenReturn("\"pdf-big\"");
+        when(reportGeneratorService.isLargeStatisticsPdf(company)).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(new byte[]{'%', 'P', 'D', 'F'});
+            return null;
+        }).when(reportGeneratorService).streamCompanyStatisticsPdf(eq(company), any(OutputStream.class));
+
         mockMvc.perform(get("/api/files/reports/statistics/{companyName}", company))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"pdf-big\""))
                 .andExpect(header().string("Content-Type", org.hamcrest.Matchers.containsString("application/pdf")))
-                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("statistics-"+company+".pdf")));
+                .andExpect(content().string("%PDF"));
+        verify(reportGeneratorService, never()).generateCompanyStatisticsPdf(company);
     }
 }
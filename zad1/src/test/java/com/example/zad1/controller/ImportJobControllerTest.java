@@ -0,0 +1,119 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.exception.GlobalExceptionHandler;
+import com.example.zad1.exception.ImportJobNotFoundException;
+import com.example.zad1.exception.ImportRejectedException;
+import com.example.zad1.model.ImportJob;
+import com.example.zad1.model.ImportSummary;
+import com.example.zad1.service.FileStorageService;
+import com.example.zad1.service.ImportJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ImportJobController.class)
+@ContextConfiguration(classes = {ImportJobController.class, GlobalExceptionHandler.class, ImportJobControllerTest.TestConfig.class})
+class ImportJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImportJobService importJobService;
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean ImportJobService importJobService(){ return Mockito.mock(ImportJobService.class); }
+        @Bean FileStorageService fileStorageService(){ return Mockito.mock(FileStorageService.class); }
+    }
+
+    @AfterEach
+    void resetMocks(){
+        Mockito.reset(importJobService, fileStorageService);
+    }
+
+    @Test
+    @DisplayName("POST /api/files/import/jobs/csv - 202 Accepted with job id")
+    void submitCsv_returnsAccepted() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+                "firstName,lastName,email,company,position,salary\n".getBytes(StandardCharsets.UTF_8));
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "employees.csv", true);
+        when(fileStorageService.storeInUploads(any(), isNull())).thenReturn("tmp.csv");
+        when(importJobService.submitCsv("tmp.csv", "employees.csv", true)).thenReturn(job);
+
+        mockMvc.perform(multipart("/api/files/import/jobs/csv").file(file).param("dryRun", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/files/import/jobs/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId()))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.dryRun").value(true));
+    }
+
+    @Test
+    @DisplayName("POST /api/files/import/jobs/xml - 503 when the import queue is full")
+    void submitXml_queueFull_returns503() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "employees.xml", "application/xml", "<employees/>".getBytes());
+        when(fileStorageService.storeInUploads(any(), isNull())).thenReturn("tmp.xml");
+        when(importJobService.submitXml(anyString(), anyString(), anyBoolean())).thenThrow(new ImportRejectedException("Zbyt wiele importów"));
+
+        mockMvc.perform(multipart("/api/files/import/jobs/xml").file(file))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("GET /api/files/import/jobs/{id} - 200 OK with progress and result")
+    void getJob_returnsProgressAndResult() throws Exception {
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "employees.csv");
+        job.markRunning();
+        job.getProgress().addRows(5, 1);
+        job.complete(new ImportSummary(4, List.of("Linia 3: za mało pól")));
+        when(importJobService.getJob(job.getId())).thenReturn(job);
+
+        mockMvc.perform(get("/api/files/import/jobs/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsProcessed").value(5))
+                .andExpect(jsonPath("$.rowsFailed").value(1))
+                .andExpect(jsonPath("$.percentComplete").value(100))
+                .andExpect(jsonPath("$.result.importedCount").value(4));
+    }
+
+    @Test
+    @DisplayName("GET /api/files/import/jobs/{id} - 404 for unknown job")
+    void getJob_unknown_returns404() throws Exception {
+        when(importJobService.getJob("missing")).thenThrow(new ImportJobNotFoundException("missing"));
+
+        mockMvc.perform(get("/api/files/import/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/files/import/jobs/{id} - cancels the job")
+    void cancelJob_returnsJob() throws Exception {
+        ImportJob job = new ImportJob(ImportJob.Type.CSV, "employees.csv");
+        job.markCancelled();
+        when(importJobService.cancel(job.getId())).thenReturn(job);
+
+        mockMvc.perform(delete("/api/files/import/jobs/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.zad1.controller;
+
+import com.example.zad1.dto.ReportWarmupStatus;
+import com.example.zad1.exception.GlobalExceptionHandler;
+import com.example.zad1.model.ReportType;
+import com.example.zad1.service.ReportWarmupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ReportWarmupController.class)
+@ContextConfiguration(classes = {ReportWarmupController.class, GlobalExceptionHandler.class, ReportWarmupControllerTest.TestConfig.class})
+class ReportWarmupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReportWarmupService reportWarmupService;
+
+    @Test
+    @DisplayName("GET /api/files/reports/warmup - 200 and return last run and next run per report")
+    void status_shouldReturnRunsPerReport() throws Exception {
+        Instant started = Instant.parse("2026-10-12T05:30:00Z");
+        when(reportWarmupService.getStatus()).thenReturn(List.of(
+                new ReportWarmupStatus(ReportType.PDF, "TechCorp", "0 30 5 * * MON", false, 3,
+                        started, started.plusMillis(1250), 1250L, "OK", null, Instant.parse("2026-10-19T05:30:00Z")),
+                new ReportWarmupStatus(ReportType.CSV, null, "0 35 5 * * MON", false, 0,
+                        null, null, null, null, null, Instant.parse("2026-10-19T05:35:00Z"))));
+
+        mockMvc.perform(get("/api/files/reports/warmup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].type").value("PDF"))
+                .andExpect(jsonPath("$[0].lastDurationMs").value(1250))
+                .andExpect(jsonPath("$[0].lastOutcome").value("OK"))
+                .andExpect(jsonPath("$[0].runs").value(3))
+                .andExpect(jsonPath("$[1].lastStartedAt").value(org.hamcrest.Matchers.nullValue()));
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public ReportWarmupService reportWarmupService() {
+            return Mockito.mock(ReportWarmupService.class);
+        }
+    }
+}
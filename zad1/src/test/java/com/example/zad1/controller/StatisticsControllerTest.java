@@ -4,7 +4,11 @@ import com.example.zad1.exception.GlobalExceptionHandler;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
-import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.CompanyStatisticsStore;
+import com.example.zad1.service.ReportCache;
+import com.example.zad1.cache.SingleFlight;
+import com.example.zad1.cache.TtlCache;
+import com.example.zad1.service.StatisticsService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -18,9 +22,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = StatisticsController.class)
@@ -31,12 +37,18 @@ class StatisticsControllerTest {
     private MockMvc mockMvc;
 
     @Autowired
-    private EmployeeService employeeService;
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private CompanyStatisticsStore companyStatistics;
+
+    @Autowired
+    private ReportCache reportCache;
 
     @Test
     @DisplayName("GET /api/statistics/salary/average -> 200 and global average salary")
     void averageSalary_global() throws Exception {
-        Mockito.when(employeeService.getAverageSalary()).thenReturn(12345.67);
+        Mockito.when(statisticsService.getAverageSalary()).thenReturn(12345.67);
 
         mockMvc.perform(get("/api/statistics/salary/average"))
                 .andExpect(status().isOk())
@@ -47,7 +59,7 @@ class StatisticsControllerTest {
     @Test
     @DisplayName("GET /api/statistics/salary/average?company=X -> 200 and average salary for company X")
     void averageSalary_byCompany() throws Exception {
-        Mockito.when(employeeService.getAverageSalaryByCompany("TechCorp")).thenReturn(19250.0);
+        Mockito.when(statisticsService.getAverageSalaryByCompany("TechCorp")).thenReturn(19250.0);
 
         mockMvc.perform(get("/api/statistics/salary/average").param("company", "TechCorp"))
                 .andExpect(status().isOk())
@@ -57,7 +69,7 @@ class StatisticsControllerTest {
     @Test
     @DisplayName("GET /api/statistics/salary/average?company=null -> 200 and global average salary")
     void averageSalary_companyNull() throws Exception {
-        Mockito.when(employeeService.getAverageSalary()).thenReturn(12345.67);
+        Mockito.when(statisticsService.getAverageSalary()).thenReturn(12345.67);
 
         mockMvc.perform(get("/api/statistics/salary/average").param("company", ""))
                 .andExpect(status().isOk())
@@ -68,8 +80,7 @@ class StatisticsControllerTest {
     @DisplayName("GET /api/statistics/company/{companyName} -> 200 and company statistics")
     void companyStats_success() throws Exception {
         CompanyStatistics cs = new CompanyStatistics("TechCorp", 2, 19250.0, "Jan Kowalski", 27000);
-        Map<String, CompanyStatistics> map = Map.of("TechCorp", cs);
-        Mockito.when(employeeService.getCompanyStatistics()).thenReturn(map);
+        Mockito.when(companyStatistics.get("TechCorp")).thenReturn(Optional.of(cs));
 
         mockMvc.perform(get("/api/statistics/company/{company}", "TechCorp"))
                 .andExpect(status().isOk())
@@ -83,7 +94,7 @@ class StatisticsControllerTest {
     @Test
     @DisplayName("GET /api/statistics/company/{companyName} -> 400 when company not found in stats")
     void companyStats_notFoundInStats() throws Exception {
-        Mockito.when(employeeService.getCompanyStatistics()).thenReturn(Map.of());
+        Mockito.when(companyStatistics.get("UnknownCorp")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/statistics/company/{company}", "UnknownCorp"))
                 .andExpect(status().isBadRequest())
@@ -92,6 +103,16 @@ class StatisticsControllerTest {
                 .andExpect(jsonPath("$.message", is("No stats for company: UnknownCorp")));
     }
 
+    @Test
+    @DisplayName("POST /api/statistics/companies/rebuild -> 200 and number of rebuilt companies")
+    void rebuildCompanyStats() throws Exception {
+        Mockito.when(companyStatistics.rebuild()).thenReturn(3);
+
+        mockMvc.perform(post("/api/statistics/companies/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.companies", is(3)));
+    }
+
     @Test
     @DisplayName("GET /api/statistics/positions -> 200 and positions distribution")
     void positions_distribution() throws Exception {
@@ -99,7 +120,7 @@ class StatisticsControllerTest {
         counts.put(Position.MANAGER, 3L);
         counts.put(Position.PROGRAMISTA, 5L);
 
-        Mockito.when(employeeService.countByPosition()).thenReturn(counts);
+        Mockito.when(statisticsService.countByPosition()).thenReturn(counts);
 
         mockMvc.perform(get("/api/statistics/positions"))
                 .andExpect(status().isOk())
@@ -113,7 +134,7 @@ class StatisticsControllerTest {
         Map<EmploymentStatus, Long> counts = new LinkedHashMap<>();
         counts.put(EmploymentStatus.ACTIVE, 4L);
         counts.put(EmploymentStatus.ON_LEAVE, 1L);
-        Mockito.when(employeeService.countByStatus()).thenReturn(counts);
+        Mockito.when(statisticsService.countByStatus()).thenReturn(counts);
 
         mockMvc.perform(get("/api/statistics/status"))
                 .andExpect(status().isOk())
@@ -121,11 +142,53 @@ class StatisticsControllerTest {
                 .andExpect(jsonPath("$.ON_LEAVE", is(1)));
     }
 
+    @Test
+    @DisplayName("GET /api/statistics/cache -> 200 and hit/miss metrics per cache")
+    void cacheStats() throws Exception {
+        Map<String, TtlCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("averageSalary", new TtlCache.Stats(3, 1, 0, 1));
+        Mockito.when(statisticsService.cacheStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/statistics/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageSalary.hits", is(3)))
+                .andExpect(jsonPath("$.averageSalary.misses", is(1)))
+                .andExpect(jsonPath("$.averageSalary.hitRate", is(0.75)));
+    }
+
+    @Test
+    @DisplayName("GET /api/statistics/coalescing -> 200 and coalesced call counts per component")
+    void coalescingStats() throws Exception {
+        Mockito.when(companyStatistics.coalescingStats()).thenReturn(new SingleFlight.Stats(10, 4, 6, 0));
+        Mockito.when(reportCache.coalescingStats()).thenReturn(new SingleFlight.Stats(5, 1, 4, 1));
+        Mockito.when(reportCache.streamingStats()).thenReturn(new SingleFlight.Stats(3, 1, 2, 0));
+
+        mockMvc.perform(get("/api/statistics/coalescing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.companyStatistics.executions", is(4)))
+                .andExpect(jsonPath("$.companyStatistics.coalesced", is(6)))
+                .andExpect(jsonPath("$.companyStatistics.coalescedRate", is(0.6)))
+                .andExpect(jsonPath("$.reports.coalesced", is(4)))
+                .andExpect(jsonPath("$.reports.inFlight", is(1)))
+                .andExpect(jsonPath("$.reportStreams.executions", is(1)))
+                .andExpect(jsonPath("$.reportStreams.coalesced", is(2)));
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
-        public EmployeeService employeeService() {
-            return Mockito.mock(EmployeeService.class);
+        public StatisticsService statisticsService() {
+            return Mockito.mock(StatisticsService.class);
+        }
+
+        @Bean
+        public CompanyStatisticsStore companyStatisticsStore() {
+            return Mockito.mock(CompanyStatisticsStore.class);
+        }
+
+        @Bean
+        public ReportCache reportCache() {
+            return Mockito.mock(ReportCache.class);
         }
     }
 }
@@ -3,8 +3,10 @@ package com.example.zad1.controller;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.Position;
+import com.example.zad1.service.CompanyStatisticsStore;
 import com.example.zad1.service.DepartmentService;
 import com.example.zad1.service.EmployeeService;
+import com.example.zad1.service.StatisticsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -31,29 +34,36 @@ class StatisticsViewControllerTest {
     private EmployeeService employeeService;
     @Autowired
     private DepartmentService departmentService;
+    @Autowired
+    private CompanyStatisticsStore companyStatistics;
+    @Autowired
+    private StatisticsService statisticsService;
 
     @TestConfiguration
     static class TestConfig {
         @Bean public EmployeeService employeeService() { return Mockito.mock(EmployeeService.class); }
         @Bean public DepartmentService departmentService() { return Mockito.mock(DepartmentService.class); }
+        @Bean public CompanyStatisticsStore companyStatisticsStore() { return Mockito.mock(CompanyStatisticsStore.class); }
+        @Bean public StatisticsService statisticsService() { return Mockito.mock(StatisticsService.class); }
     }
 
     @Test
     void statisticsDashboard_shouldReturnViewWithModel() throws Exception {
-        when(employeeService.getAllEmployees()).thenReturn(List.of(new Employee("Test","t@test.com","Firma", Position.PROGRAMISTA, 5000)));
-        when(employeeService.getAverageSalary()).thenReturn(5000.0);
+        when(statisticsService.countEmployees()).thenReturn(1L);
+        when(statisticsService.getAverageSalary()).thenReturn(5000.0);
         when(departmentService.getAllDepartments()).thenReturn(List.of());
-        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("Firma", new CompanyStatistics("TechCorp", 1,5000.0,"Test",5000)));
+        when(companyStatistics.getAll()).thenReturn(Map.of("Firma", new CompanyStatistics("TechCorp", 1,5000.0,"Test",5000)));
 
         mockMvc.perform(get("/statistics"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("statistics/index"))
-                .andExpect(model().attributeExists("totalEmployees","averageSalary","totalDepartments","companyStats","positionCounts"));
+                .andExpect(model().attributeExists("totalEmployees","averageSalary","totalDepartments","companyStats","positionCounts"))
+                .andExpect(model().attribute("totalEmployees", 1L));
     }
 
     @Test
     void companyStatistics_shouldReturnCompanyView() throws Exception {
-        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("Firma", new CompanyStatistics("StrawberryPie", 1,5000.0,"Test",5000)));
+        when(companyStatistics.get("Firma")).thenReturn(Optional.of(new CompanyStatistics("StrawberryPie", 1,5000.0,"Test",5000)));
         when(employeeService.getEmployeeByCompany("Firma")).thenReturn(List.of(new Employee("Test","t@test.com","Firma", Position.PROGRAMISTA, 5000)));
 
         mockMvc.perform(get("/statistics/company/Firma"))
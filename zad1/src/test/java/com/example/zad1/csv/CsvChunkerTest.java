@@ -0,0 +1,77 @@
+package com.example.zad1.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvChunkerTest {
+
+    private static final String CSV = "h1,h2\n"
+            + "\"a\nb\",1\r\n"
+            + "plain,2\n"
+            + "\"q,\"\"\n\"\"\",3\n"
+            + "ąę,4\n";
+
+    @Test
+    void shouldSplitOnlyOnRecordBoundariesAndKeepLineNumbers() throws IOException {
+        Path file = Files.createTempFile("chunker-", ".csv");
+        try {
+            Files.writeString(file, CSV, StandardCharsets.UTF_8);
+            for (int chunkSize = 1; chunkSize <= 40; chunkSize++) {
+                assertEquals(readAll(CSV), readChunks(file, chunkSize), "chunkSize=" + chunkSize);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void shouldFallBackToSingleChunkWhenQuotesAreUnbalanced() throws IOException {
+        Path file = Files.createTempFile("chunker-odd-", ".csv");
+        try {
+            Files.writeString(file, "h1,h2\n\"open,1\nnext,2\nlast,3\n", StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(file)) {
+                List<CsvChunker.Chunk> chunks = CsvChunker.split(channel, 4, ForkJoinPool.commonPool());
+                assertEquals(List.of(new CsvChunker.Chunk(0, channel.size(), 1)), chunks);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<String> readAll(String content) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(content))) {
+            while (reader.next()) {
+                records.add(reader.getLineNumber() + ":" + reader.getString(0) + "|" + reader.getString(1));
+            }
+        }
+        return records;
+    }
+
+    private List<String> readChunks(Path file, int chunkSize) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            for (CsvChunker.Chunk chunk : CsvChunker.split(channel, chunkSize, ForkJoinPool.commonPool())) {
+                try (CsvReader reader = new CsvReader(new InputStreamReader(CsvChunker.open(channel, chunk), StandardCharsets.UTF_8))) {
+                    while (reader.next()) {
+                        int line = chunk.firstLine() - 1 + reader.getLineNumber();
+                        records.add(line + ":" + reader.getString(0) + "|" + reader.getString(1));
+                    }
+                }
+            }
+        }
+        return records;
+    }
+}
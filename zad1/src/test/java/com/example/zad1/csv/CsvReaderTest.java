@@ -0,0 +1,93 @@
+package com.example.zad1.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    private CsvReader reader(String content) {
+        return new CsvReader(new StringReader(content), 16);
+    }
+
+    @Test
+    void shouldTrimUnquotedFieldsAndSplitOnCommas() throws IOException {
+        try (CsvReader r = reader(" Jan , Kowalski,jan@techcorp.com\n")) {
+            assertTrue(r.next());
+            assertAll(
+                    () -> assertEquals(3, r.getFieldCount()),
+                    () -> assertEquals("Jan", r.getString(0)),
+                    () -> assertEquals("Kowalski", r.getString(1)),
+                    () -> assertEquals("jan@techcorp.com", r.field(2).toString())
+            );
+            assertFalse(r.next());
+        }
+    }
+
+    @Test
+    void shouldHandleQuotedCommasEscapedQuotesAndEmbeddedNewlines() throws IOException {
+        try (CsvReader r = reader("\"John, \"\"JJ\"\" Smith\",\"line1\r\nline2\",\"  keep  \"\r\nnext,row\r\n")) {
+            assertTrue(r.next());
+            assertAll(
+                    () -> assertEquals("John, \"JJ\" Smith", r.getString(0)),
+                    () -> assertEquals("line1\r\nline2", r.getString(1)),
+                    () -> assertEquals("  keep  ", r.getString(2)),
+                    () -> assertEquals(1, r.getLineNumber())
+            );
+            assertTrue(r.next());
+            assertAll(
+                    () -> assertEquals(3, r.getLineNumber()),
+                    () -> assertEquals("next", r.getString(0))
+            );
+            assertFalse(r.next());
+        }
+    }
+
+    @Test
+    void shouldReportBlankRecordsAndEmptyFields() throws IOException {
+        try (CsvReader r = reader("a,,c\n   \n,\n")) {
+            assertTrue(r.next());
+            assertTrue(r.isEmpty(1));
+            assertFalse(r.isBlankRecord());
+            assertTrue(r.next());
+            assertTrue(r.isBlankRecord());
+            assertTrue(r.next());
+            assertEquals(2, r.getFieldCount());
+            assertTrue(r.isBlankRecord());
+            assertFalse(r.next());
+        }
+    }
+
+    @Test
+    void shouldParseIntegersWithoutIntermediateStrings() throws IOException {
+        try (CsvReader r = reader("27000, -5 ,x\n")) {
+            assertTrue(r.next());
+            assertAll(
+                    () -> assertEquals(27000, r.getInt(0)),
+                    () -> assertEquals(-5, r.getInt(1)),
+                    () -> assertThrows(NumberFormatException.class, () -> r.getInt(2)),
+                    () -> assertThrows(IndexOutOfBoundsException.class, () -> r.getInt(3))
+            );
+        }
+    }
+
+    @Test
+    void shouldCompareFieldsIgnoringCase() throws IOException {
+        try (CsvReader r = reader("companyName,Email\n")) {
+            assertTrue(r.next());
+            assertTrue(r.equalsIgnoreCase(0, "COMPANYNAME"));
+            assertTrue(r.equalsIgnoreCase(1, "email"));
+            assertFalse(r.equalsIgnoreCase(1, "mail"));
+        }
+    }
+
+    @Test
+    void shouldReturnFalseForEmptyInput() throws IOException {
+        try (CsvReader r = reader("")) {
+            assertFalse(r.next());
+        }
+    }
+}
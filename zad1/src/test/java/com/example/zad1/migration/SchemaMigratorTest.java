@@ -0,0 +1,129 @@
+package com.example.zad1.migration;
+
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
+import com.example.zad1.repository.EmployeeRepository;
+import com.example.zad1.specification.EmployeeSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class SchemaMigratorTest {
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Employee e = new Employee("Jan Kowalski" + i, "jan" + i + "@test.com", i % 2 == 0 ? "TechCorp" : "DataSoft",
+                    Position.values()[i % Position.values().length], 5000 + i * 10);
+            e.setStatus(i % 10 == 0 ? EmploymentStatus.ON_LEAVE : EmploymentStatus.ACTIVE);
+            employees.add(e);
+        }
+        employeeRepository.saveAllAndFlush(employees);
+    }
+
+    @Test
+    void migrationsAreRecordedAndNotReapplied() {
+        assertTrue(schemaMigrator.appliedVersions().containsAll(List.of(1, 2, 3)));
+        assertTrue(schemaMigrator.migrate().isEmpty());
+    }
+
+    @Test
+    void companyKeyIsBackfilled() {
+        Integer missing = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM employees WHERE company_name IS NOT NULL AND company_key IS NULL", Integer.class);
+        assertEquals(0, missing);
+    }
+
+    @Test
+    void companyFilterAndSalaryRange_avoidTableScan() {
+        assertUsesIndex(() -> employeeRepository.findAll(EmployeeSpecification.filterBy("corp", 6000, null), PageRequest.of(0, 50)),
+                "IDX_EMPLOYEES_SALARY", "IDX_EMPLOYEES_COMPANY_SALARY");
+    }
+
+    @Test
+    void statusFilter_usesIndex() {
+        assertUsesIndex(() -> employeeRepository.findByStatus(EmploymentStatus.ON_LEAVE), "IDX_EMPLOYEES_STATUS");
+    }
+
+    @Test
+    void positionPage_usesIndex() {
+        assertUsesIndex(() -> employeeRepository.findByPosition(Position.MANAGER, PageRequest.of(0, 20, Sort.by("id"))),
+                "IDX_EMPLOYEES_POSITION");
+    }
+
+    @Test
+    void departmentLookup_usesIndex() {
+        assertUsesIndex(() -> employeeRepository.findByDepartmentId(1L, PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id"))),
+                "IDX_EMPLOYEES_DEPARTMENT");
+    }
+
+    @Test
+    void alphabeticalListing_readsNameIndexInOrder() {
+        String plan = assertUsesIndex(() -> employeeRepository.findAllByOrderByLastNameAscFirstNameAscIdAsc(PageRequest.of(0, 50)),
+                "IDX_EMPLOYEES_NAME");
+        assertTrue(plan.contains("index sorted"), () -> "Listowanie sortuje wyniki zamiast czytać indeks:\n" + plan);
+    }
+
+    @Test
+    void companyKeysetPage_seeksOnCompanyKeyIndexInOrder() {
+        String plan = assertUsesIndex(() -> employeeRepository.findAfterCompanyKey("datasoft", 10L, PageRequest.of(0, 21)),
+                "IDX_EMPLOYEES_COMPANY_KEY_ID");
+        assertTrue(plan.contains("index sorted"), () -> "Strona keyset sortuje wyniki zamiast czytać indeks:\n" + plan);
+        assertUsesIndex(() -> employeeRepository.findWithoutCompanyKeyAfterId(10L, PageRequest.of(0, 21)),
+                "IDX_EMPLOYEES_COMPANY_KEY_ID", "IDX_EMPLOYEES_COMPANY_KEY");
+        assertUsesIndex(() -> employeeRepository.findMatchingCompanyAfterCompanyKey("%soft%", "datasoft", 10L, PageRequest.of(0, 21)),
+                "IDX_EMPLOYEES_COMPANY_KEY_ID", "IDX_EMPLOYEES_COMPANY_KEY", "IDX_EMPLOYEES_COMPANY_SALARY");
+    }
+
+    private String assertUsesIndex(Runnable call, String... indexes) {
+        recorder.clear();
+        call.run();
+        List<StatementRecorder.Executed> selects = recorder.selects();
+        assertFalse(selects.isEmpty(), "Wywołanie nie wykonało zapytania SELECT");
+        String sql = selects.get(0).inlined();
+        String plan = jdbc.queryForObject("EXPLAIN " + sql, String.class);
+        assertNotNull(plan);
+        assertFalse(plan.contains("tableScan"), () -> "Zapytanie wykonuje pełny skan tabeli:\n" + plan);
+        assertTrue(Arrays.stream(indexes).anyMatch(plan.toUpperCase()::contains),
+                () -> "Plan nie używa żadnego z indeksów " + Arrays.toString(indexes) + ":\n" + plan);
+        return plan;
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+}
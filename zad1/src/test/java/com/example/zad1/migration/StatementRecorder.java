@@ -0,0 +1,114 @@
+package com.example.zad1.migration;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class StatementRecorder implements BeanPostProcessor {
+
+    record Executed(String sql, Map<Integer, Object> parameters) {
+        String inlined() {
+            StringBuilder out = new StringBuilder();
+            boolean quoted = false;
+            int index = 1;
+            for (char c : sql.toCharArray()) {
+                if (c == '\'') quoted = !quoted;
+                if (c == '?' && !quoted) {
+                    out.append(literal(parameters.get(index++)));
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+
+        private static String literal(Object value) {
+            if (value == null) return "NULL";
+            if (value instanceof Number || value instanceof Boolean) return value.toString();
+            return "'" + value.toString().replace("'", "''") + "'";
+        }
+    }
+
+    private final List<Executed> executed = new CopyOnWriteArrayList<>();
+
+    void clear() {
+        executed.clear();
+    }
+
+    List<Executed> selects() {
+        List<Executed> selects = new ArrayList<>();
+        for (Executed statement : executed) {
+            String sql = statement.sql().trim().toLowerCase(Locale.ROOT);
+            if (sql.startsWith("select") && !sql.startsWith("select count(")) {
+                selects.add(statement);
+            }
+        }
+        return selects;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, (method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? connection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if ("prepareStatement".equals(method.getName()) && result instanceof PreparedStatement statement) {
+                return statement(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement statement(PreparedStatement target, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if ("executeQuery".equals(name) || "execute".equals(name)) {
+                executed.add(new Executed(sql, new TreeMap<>(parameters)));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.zad1.repository;
+
+import com.example.zad1.dto.DepartmentOption;
+import com.example.zad1.dto.DepartmentSummary;
+import com.example.zad1.model.Department;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DepartmentRepositoryTest {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Employee employee(String fullName, String email, int salary, Department department) {
+        Employee e = new Employee(fullName, email, "TechCorp", Position.PROGRAMISTA, salary);
+        e.setDepartment(department);
+        return entityManager.persist(e);
+    }
+
+    @Test
+    void findSummaries_joinsManagerHeadcountAndPayrollInOneStatement() {
+        Department it = entityManager.persist(new Department("IT", "TechCorp", "Warszawa", 500000, "anna@techcorp.com"));
+        Department hr = entityManager.persist(new Department("HR", "TechCorp", "Kraków", 200000, null));
+        Department ops = entityManager.persist(new Department("Ops", "TechCorp", "Gdańsk", 100000, "ghost@techcorp.com"));
+        employee("Anna Nowak", "anna@techcorp.com", 12000, it);
+        employee("Jan Kowalski", "jan@techcorp.com", 8000, it);
+        employee("Ewa Lis", "ewa@techcorp.com", 5000, ops);
+        employee("Bez Departamentu", "bez@techcorp.com", 3000, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DepartmentSummary> summaries = departmentRepository.findSummaries();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(summaries).extracting(DepartmentSummary::name).containsExactly("HR", "IT", "Ops");
+        assertThat(summaries.get(0)).isEqualTo(new DepartmentSummary(hr.getId(), "HR", "TechCorp", "Kraków", 200000,
+                null, null, 0, 0));
+        assertThat(summaries.get(1)).isEqualTo(new DepartmentSummary(it.getId(), "IT", "TechCorp", "Warszawa", 500000,
+                "anna@techcorp.com", "Anna Nowak", 2, 20000));
+        assertThat(summaries.get(2).managerName()).isNull();
+        assertThat(summaries.get(2).employeeCount()).isEqualTo(1);
+        assertThat(ops.getId()).isEqualTo(summaries.get(2).id());
+    }
+
+    @Test
+    void findOptions_returnsIdAndNameProjectionsOrderedByName() {
+        Department it = entityManager.persist(new Department("IT", "TechCorp", "Warszawa", 500000, null));
+        Department hr = entityManager.persist(new Department("HR", "TechCorp", "Kraków", 200000, null));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(departmentRepository.findOptions())
+                .containsExactly(new DepartmentOption(hr.getId(), "HR"), new DepartmentOption(it.getId(), "IT"));
+    }
+}
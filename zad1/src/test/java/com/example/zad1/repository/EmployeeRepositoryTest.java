@@ -0,0 +1,185 @@
+package com.example.zad1.repository;
+
+import com.example.zad1.dto.EmployeeListView;
+import com.example.zad1.model.Department;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
+import com.example.zad1.specification.EmployeeSpecification;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class EmployeeRepositoryTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private final List<Department> departments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        for (String name : List.of("IT", "Kadry", "Sprzedaż")) {
+            departments.add(entityManager.persist(new Department(name, "TechCorp", "Warszawa", 100000, null)));
+        }
+        for (int i = 0; i < 30; i++) {
+            Employee e = new Employee("Pracownik Numer" + i, "p" + i + "@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+            e.setDepartment(departments.get(i % departments.size()));
+            entityManager.persist(e);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long statementsFor(Runnable query) {
+        entityManager.clear();
+        statistics.clear();
+        query.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void keysetPage_loadsDepartmentsInTheSameStatement() {
+        for (int size : List.of(3, 25)) {
+            long statements = statementsFor(() -> employeeRepository.findFirstOrderedById(PageRequest.of(0, size))
+                    .forEach(e -> assertThat(e.getDepartment().getName()).isNotNull()));
+            assertThat(statements).as("page size %d", size).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findByDepartmentId_returnsOnlyThatDepartmentWithConstantStatements() {
+        Long itId = departments.get(0).getId();
+        for (int size : List.of(2, 8)) {
+            long statements = statementsFor(() -> {
+                Page<EmployeeListView> page = employeeRepository.findByDepartmentId(itId,
+                        PageRequest.of(0, size, Sort.by("lastName", "firstName", "id")));
+                assertThat(page.getTotalElements()).isEqualTo(10);
+                assertThat(page.getContent()).hasSize(size)
+                        .allSatisfy(view -> assertThat(view.departmentName()).isEqualTo("IT"));
+            });
+            assertThat(statements).as("page size %d", size).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void streamByCompanyKeySorted_ordersByNameInTheDatabase() {
+        entityManager.persist(new Employee("adam Zieliński", "az@datasoft.com", "DataSoft", Position.STAZYSTA, 3000));
+        entityManager.persist(new Employee("Ewa Adamska", "ea@datasoft.com", "DataSoft", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Piotr Adamski", "pa@data.pl", "Data", Position.PROGRAMISTA, 8000));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> emails;
+        try (Stream<Employee> stream = employeeRepository.streamByCompanyKeySorted("%datas%")) {
+            emails = stream.map(Employee::getEmail).toList();
+        }
+
+        assertThat(emails).containsExactly("ea@datasoft.com", "az@datasoft.com");
+    }
+
+    @Test
+    void streamByCompanyKeyEqualSorted_skipsCompaniesSharingThePrefix() {
+        entityManager.persist(new Employee("Ewa Zawada", "ez@tech.pl", "Tech", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Jan Adamski", "ja@tech.pl", " TECH ", Position.STAZYSTA, 3000));
+        entityManager.persist(new Employee("Ola Adamska", "oa@techcorp.pl", "TechCorp", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Piotr Nowak", "pn@technosoft.pl", "TechnoSoft", Position.PROGRAMISTA, 8000));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> emails;
+        try (Stream<Employee> stream = employeeRepository.streamByCompanyKeyEqualSorted("tech")) {
+            emails = stream.map(Employee::getEmail).toList();
+        }
+
+        assertThat(emails).containsExactly("ja@tech.pl", "ez@tech.pl");
+    }
+
+    @Test
+    void streamByCompanyKey_matchesLikeTheListFilter() {
+        entityManager.persist(new Employee("Ewa Adamska", "ea@datasoft.com", "DataSoft", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Piotr Nowak", "pn@bigdata.pl", "BigData", Position.PROGRAMISTA, 8000));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> emails;
+        try (Stream<Employee> stream = employeeRepository.streamByCompanyKey(EmployeeSpecification.companyContains("Data"))) {
+            emails = stream.map(Employee::getEmail).toList();
+        }
+        assertThat(emails).containsExactly("ea@datasoft.com", "pn@bigdata.pl");
+
+        try (Stream<Employee> stream = employeeRepository.streamByCompanyKey(EmployeeSpecification.companyContains("d_ta"))) {
+            emails = stream.map(Employee::getEmail).toList();
+        }
+        assertThat(emails).isEmpty();
+    }
+
+    @Test
+    void companyKeyset_walksRowsWithoutCompanyThenCompaniesCaseInsensitively() {
+        employeeRepository.deleteAll();
+        entityManager.persist(new Employee("Ola Bez", "ola@example.com", null, Position.STAZYSTA, 3000));
+        entityManager.persist(new Employee("Adam Beta", "adam@beta.pl", "beta", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Ewa Alfa", "ewa@alfa.pl", "Alfa", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Jan Alfa", "jan@alfa.pl", "ALFA", Position.PROGRAMISTA, 8000));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> withoutCompany = employeeRepository.findWithoutCompanyKeyAfterId(Long.MIN_VALUE, PageRequest.of(0, 10))
+                .stream().map(Employee::getEmail).toList();
+        List<Employee> firstCompanies = employeeRepository.findAfterCompanyKey("", Long.MIN_VALUE, PageRequest.of(0, 2));
+        Employee last = firstCompanies.get(1);
+        List<String> rest = employeeRepository.findAfterCompanyKey(last.getCompanyKey(), last.getId(), PageRequest.of(0, 10))
+                .stream().map(Employee::getEmail).toList();
+
+        assertThat(withoutCompany).containsExactly("ola@example.com");
+        assertThat(firstCompanies).extracting(Employee::getCompanyKey).containsExactly("alfa", "alfa");
+        assertThat(rest).containsExactly("adam@beta.pl");
+    }
+
+    @Test
+    void companyFilteredKeyset_walksOnlyMatchingCompanies() {
+        employeeRepository.deleteAll();
+        entityManager.persist(new Employee("Ola Bez", "ola@example.com", null, Position.STAZYSTA, 3000));
+        entityManager.persist(new Employee("Adam Beta", "adam@betacorp.pl", "BetaCorp", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Ewa Alfa", "ewa@alfacorp.pl", "AlfaCorp", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Jan Soft", "jan@soft.pl", "Soft", Position.PROGRAMISTA, 8000));
+        entityManager.persist(new Employee("Iza Alfa", "iza@alfacorp.pl", "alfacorp", Position.PROGRAMISTA, 8000));
+        entityManager.flush();
+        entityManager.clear();
+        String corp = EmployeeSpecification.companyContains("corp");
+
+        List<Employee> byId = employeeRepository.findMatchingCompanyAfterId(corp, Long.MIN_VALUE, PageRequest.of(0, 2));
+        List<String> byIdRest = employeeRepository.findMatchingCompanyAfterId(corp, byId.get(1).getId(), PageRequest.of(0, 10))
+                .stream().map(Employee::getEmail).toList();
+        List<Employee> byCompany = employeeRepository.findMatchingCompanyAfterCompanyKey(corp, "", Long.MIN_VALUE, PageRequest.of(0, 2));
+        Employee last = byCompany.get(1);
+        List<String> byCompanyRest = employeeRepository.findMatchingCompanyAfterCompanyKey(corp, last.getCompanyKey(), last.getId(), PageRequest.of(0, 10))
+                .stream().map(Employee::getEmail).toList();
+
+        assertThat(byId).extracting(Employee::getEmail).containsExactly("adam@betacorp.pl", "ewa@alfacorp.pl");
+        assertThat(byIdRest).containsExactly("iza@alfacorp.pl");
+        assertThat(byCompany).extracting(Employee::getEmail).containsExactly("ewa@alfacorp.pl", "iza@alfacorp.pl");
+        assertThat(byCompanyRest).containsExactly("adam@betacorp.pl");
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.zad1.service;
+
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.CompanyStatistics;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyStatisticsStoreTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @InjectMocks
+    private CompanyStatisticsStore store;
+
+    private Employee anna;
+    private Employee jan;
+
+    @BeforeEach
+    void setUp() {
+        anna = new Employee("Anna Nowak", "anna@techcorp.com", "TechCorp", Position.MANAGER, 12000);
+        jan = new Employee("Jan Kowalski", "jan@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+    }
+
+    private void rebuild() {
+        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("TechCorp", techCorp()));
+        store.rebuild();
+    }
+
+    private static CompanyStatistics techCorp() {
+        return new CompanyStatistics("TechCorp", 2, 10000.0, "Anna Nowak", 12000);
+    }
+
+    @Test
+    void get_loadsSingleCompanyOnceCaseInsensitively() {
+        when(employeeService.getCompanyStatistics("techcorp ")).thenReturn(Optional.of(techCorp()));
+
+        CompanyStatistics first = store.get("techcorp ").orElseThrow();
+        CompanyStatistics second = store.get("TECHCORP").orElseThrow();
+
+        assertEquals(2, first.getEmployeeCount());
+        assertEquals("TechCorp", second.getCompanyName());
+        assertEquals("Anna Nowak", second.getTopEarnerFullName());
+        verify(employeeService, times(1)).getCompanyStatistics(anyString());
+        verify(employeeService, never()).getCompanyStatistics();
+    }
+
+    @Test
+    void eventDuringCompanyLoad_returnsLoadedValueWithoutCachingIt() {
+        when(employeeService.getCompanyStatistics("TechCorp")).thenAnswer(invocation -> {
+            store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(jan)));
+            return Optional.of(techCorp());
+        });
+
+        assertEquals(2, store.get("TechCorp").orElseThrow().getEmployeeCount());
+        assertEquals(2, store.get("TechCorp").orElseThrow().getEmployeeCount());
+
+        verify(employeeService, times(2)).getCompanyStatistics("TechCorp");
+        assertEquals(2, store.coalescingStats().executions());
+    }
+
+    @Test
+    void eventsForCompaniesNotYetLoaded_areSkippedUntilRead() {
+        store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(jan)));
+        when(employeeService.getCompanyStatistics("TechCorp")).thenReturn(Optional.of(techCorp()));
+
+        assertEquals(2, store.get("TechCorp").orElseThrow().getEmployeeCount());
+    }
+
+    @Test
+    void getAll_loadsEverythingOnce() {
+        rebuild();
+
+        assertEquals(List.of("TechCorp"), List.copyOf(store.getAll().keySet()));
+        store.get("OtherCorp");
+        verify(employeeService, never()).getCompanyStatistics(anyString());
+    }
+
+    @Test
+    void created_updatesCountAverageAndTopEarner() {
+        rebuild();
+        Employee ceo = new Employee("Ewa Lis", "ewa@techcorp.com", "TechCorp", Position.PREZES, 25000);
+
+        store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(ceo)));
+
+        CompanyStatistics stats = store.get("TechCorp").orElseThrow();
+        assertEquals(3, stats.getEmployeeCount());
+        assertEquals(15000.0, stats.getAverageSalary(), 0.001);
+        assertEquals(25000, stats.getHighestSalary());
+        assertEquals("Ewa Lis", stats.getTopEarnerFullName());
+    }
+
+    @Test
+    void removingTopEarner_refreshesTopEarnerOnNextRead() {
+        rebuild();
+        when(employeeService.findTopEarner("TechCorp")).thenReturn(Optional.of(jan));
+
+        store.onEmployeeChanged(EmployeeChangedEvent.deleted(anna));
+
+        CompanyStatistics stats = store.get("TechCorp").orElseThrow();
+        assertEquals(1, stats.getEmployeeCount());
+        assertEquals(8000, stats.getHighestSalary());
+        assertEquals("Jan Kowalski", stats.getTopEarnerFullName());
+        store.get("TechCorp");
+        verify(employeeService, times(1)).findTopEarner("TechCorp");
+    }
+
+    @Test
+    void movingEmployeeBetweenCompanies_adjustsBoth() {
+        rebuild();
+        EmployeeSnapshot before = EmployeeSnapshot.of(jan);
+        jan.setCompanyName("NewCorp");
+
+        store.onEmployeeChanged(EmployeeChangedEvent.updated(before, jan));
+
+        assertEquals(1, store.get("TechCorp").orElseThrow().getEmployeeCount());
+        assertEquals("Jan Kowalski", store.get("NewCorp").orElseThrow().getTopEarnerFullName());
+        assertEquals(List.of("NewCorp", "TechCorp"), List.copyOf(store.getAll().keySet()));
+    }
+
+    @Test
+    void allDeleted_marksStoreLoadedAndLastEmployeeRemovesCompany() {
+        store.onEmployeeChanged(EmployeeChangedEvent.allDeleted());
+        assertTrue(store.getAll().isEmpty());
+
+        store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(jan)));
+        store.onEmployeeChanged(EmployeeChangedEvent.deleted(jan));
+        assertTrue(store.get("TechCorp").isEmpty());
+    }
+
+    @Test
+    void writeCommittedDuringRebuild_isCountedOnce() throws Exception {
+        Employee ceo = new Employee("Ewa Lis", "ewa@techcorp.com", "TechCorp", Position.PREZES, 12000);
+        CountDownLatch eventPublished = new CountDownLatch(1);
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(employeeService.getCompanyStatistics()).thenAnswer(invocation -> {
+            readStarted.countDown();
+            assertTrue(committed.await(5, TimeUnit.SECONDS));
+            return Map.of("TechCorp", new CompanyStatistics("TechCorp", 3, 32000 / 3.0, "Anna Nowak", 12000));
+        });
+        lenient().when(employeeService.getCompanyStatistics("TechCorp"))
+                .thenReturn(Optional.of(new CompanyStatistics("TechCorp", 3, 32000 / 3.0, "Anna Nowak", 12000)));
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> write = writer.submit(() -> inTransaction(() -> {
+                store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(ceo)));
+                eventPublished.countDown();
+                await(readStarted);
+            }, committed));
+
+            assertTrue(eventPublished.await(5, TimeUnit.SECONDS));
+            store.rebuild();
+            write.get(5, TimeUnit.SECONDS);
+        } finally {
+            writer.shutdownNow();
+        }
+
+        assertEquals(3, store.get("TechCorp").orElseThrow().getEmployeeCount());
+        verify(employeeService, atLeast(2)).getCompanyStatistics();
+    }
+
+    @Test
+    void concurrentWritesAndRebuilds_endWithDatabaseCount() throws Exception {
+        AtomicInteger committedRows = new AtomicInteger(2);
+        when(employeeService.getCompanyStatistics()).thenAnswer(invocation -> {
+            int count = committedRows.get();
+            return Map.of("TechCorp", new CompanyStatistics("TechCorp", count, 8000.0, "Anna Nowak", 8000));
+        });
+        lenient().when(employeeService.getCompanyStatistics("TechCorp")).thenAnswer(invocation -> {
+            int count = committedRows.get();
+            return Optional.of(new CompanyStatistics("TechCorp", count, 8000.0, "Anna Nowak", 8000));
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Employee hired = new Employee("Jan " + i, "jan" + i + "@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+                tasks.add(pool.submit(() -> inTransaction(
+                        () -> store.onEmployeeChanged(EmployeeChangedEvent.created(List.of(hired))),
+                        committedRows::incrementAndGet)));
+                if (i % 10 == 0) {
+                    tasks.add(pool.submit(store::rebuild));
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(202, store.get("TechCorp").orElseThrow().getEmployeeCount());
+        assertEquals(202, store.getAll().get("TechCorp").getEmployeeCount());
+    }
+
+    private static void inTransaction(Runnable body, CountDownLatch committed) {
+        inTransaction(body, committed::countDown);
+    }
+
+    private static void inTransaction(Runnable body, Runnable commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            body.run();
+            commit.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -33,7 +33,8 @@ class DepartmentDocumentServiceTest {
         when(fileStorageService.getUploadDir()).thenReturn(Paths.get("uploads"));
         Long deptId = 5L;
         String storedName = "uuid123.pdf";
-        when(fileStorageService.storeInUploads(any(), eq("departments/" + deptId))).thenReturn(storedName);
+        when(fileStorageService.storeHashedInUploads(any(), eq("departments/" + deptId))).thenReturn(storedName);
+        when(fileStorageService.contentHash(Paths.get("uploads", "departments", "5", storedName))).thenReturn(Optional.of("ab12"));
 
         DepartmentDocument doc = departmentDocumentService.saveDocument(deptId, new FakeMultipartFile("plik.pdf"), DocumentType.CONTRACT);
 
@@ -43,6 +44,7 @@ class DepartmentDocumentServiceTest {
                 () -> assertEquals(storedName, doc.getFileName()),
                 () -> assertEquals("plik.pdf", doc.getOriginalFileName()),
                 () -> assertEquals(DocumentType.CONTRACT, doc.getFileType()),
+                () -> assertEquals("ab12", doc.getContentHash()),
                 () -> assertTrue(doc.getFilePath().contains("departments"), "Ścieżka powinna zawierać katalog departments")
         );
     }
@@ -62,7 +64,7 @@ class DepartmentDocumentServiceTest {
     void findDocument_shouldReturnOptional() {
         when(fileStorageService.getUploadDir()).thenReturn(Paths.get("uploads"));
         Long deptId = 2L;
-        when(fileStorageService.storeInUploads(any(), eq("departments/" + deptId))).thenReturn("fileA.pdf");
+        when(fileStorageService.storeHashedInUploads(any(), eq("departments/" + deptId))).thenReturn("fileA.pdf");
         DepartmentDocument saved = departmentDocumentService.saveDocument(deptId, new FakeMultipartFile("A.pdf"), DocumentType.CONTRACT);
 
         Optional<DepartmentDocument> found = departmentDocumentService.findDocument(deptId, saved.getId());
@@ -76,7 +78,7 @@ class DepartmentDocumentServiceTest {
     void deleteDocument_shouldRemove() {
         when(fileStorageService.getUploadDir()).thenReturn(Paths.get("uploads"));
         Long deptId = 3L;
-        when(fileStorageService.storeInUploads(any(), eq("departments/" + deptId))).thenReturn("fileB.pdf");
+        when(fileStorageService.storeHashedInUploads(any(), eq("departments/" + deptId))).thenReturn("fileB.pdf");
         DepartmentDocument saved = departmentDocumentService.saveDocument(deptId, new FakeMultipartFile("B.pdf"), DocumentType.CONTRACT);
 
         boolean first = departmentDocumentService.deleteDocument(deptId, saved.getId());
@@ -1,32 +1,47 @@
 package com.example.zad1.service;
 
+import com.example.zad1.dto.DepartmentOption;
+import com.example.zad1.dto.ManagerCandidate;
 import com.example.zad1.model.Department;
+import com.example.zad1.event.DepartmentChangedEvent;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
 import com.example.zad1.repository.DepartmentRepository;
+import com.example.zad1.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DepartmentServiceTest {
     @Mock
     private DepartmentRepository departmentRepository;
 
-    @InjectMocks
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     private DepartmentService departmentService;
 
     @BeforeEach
     void setUp() {
+        departmentService = new DepartmentService(departmentRepository, employeeRepository, events, Duration.ofMinutes(10));
         departmentService.addDepartment(new Department("IT", "TechCorp", "Gdańsk", 10000, "steczka@example.com"));
         departmentService.addDepartment(new Department("Sales", "TechCorp", "Gdańsk", 100000, "manager@example.com"));
     }
@@ -71,12 +86,57 @@ class DepartmentServiceTest {
 
     @Test
     void getAllDepartments_shouldReturnAll() {
-        when(departmentRepository.findAll()).thenReturn(List.of(new Department(), new Department()));
+        when(departmentRepository.findOptions()).thenReturn(List.of(new DepartmentOption(1L, "HR"), new DepartmentOption(2L, "IT")));
 
-        Collection<Department> departments = departmentService.getAllDepartments();
+        Collection<DepartmentOption> departments = departmentService.getAllDepartments();
         assertEquals(2, departments.size());
     }
 
+    @Test
+    void getAllDepartments_isCachedUntilDepartmentChanges() {
+        when(departmentRepository.findOptions()).thenReturn(List.of(new DepartmentOption(1L, "IT")));
+
+        departmentService.getAllDepartments();
+        departmentService.getAllDepartments();
+        verify(departmentRepository, times(1)).findOptions();
+
+        departmentService.onDepartmentChanged(new DepartmentChangedEvent(1L));
+        departmentService.getAllDepartments();
+        verify(departmentRepository, times(2)).findOptions();
+    }
+
+    @Test
+    void getManagerCandidates_isCachedAndInvalidatedOnlyByRelevantEmployeeChanges() {
+        Employee manager = new Employee("Anna Nowak", "anna@techcorp.com", "TechCorp", Position.MANAGER, 12000);
+        Employee programmer = new Employee("Jan Kowalski", "jan@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+        ManagerCandidate candidate = new ManagerCandidate(1L, "Anna Nowak", "anna@techcorp.com", Position.MANAGER);
+        when(employeeRepository.findManagerCandidates(
+                List.of(Position.PREZES, Position.WICEPREZES, Position.MANAGER))).thenReturn(List.of(candidate));
+
+        assertEquals(List.of(candidate), departmentService.getManagerCandidates());
+        departmentService.onEmployeeChanged(EmployeeChangedEvent.created(List.of(programmer)));
+        EmployeeSnapshot before = EmployeeSnapshot.of(manager);
+        manager.setSalary(13000);
+        departmentService.onEmployeeChanged(EmployeeChangedEvent.updated(before, manager));
+        departmentService.getManagerCandidates();
+        verify(employeeRepository, times(1)).findManagerCandidates(any());
+
+        EmployeeSnapshot promoted = EmployeeSnapshot.of(programmer);
+        programmer.setPosition(Position.MANAGER);
+        departmentService.onEmployeeChanged(EmployeeChangedEvent.updated(promoted, programmer));
+        departmentService.getManagerCandidates();
+        verify(employeeRepository, times(2)).findManagerCandidates(any());
+    }
+
+    @Test
+    void writes_publishDepartmentChangedEvent() {
+        when(departmentRepository.existsById(5L)).thenReturn(true);
+
+        departmentService.deleteDepartment(5L);
+
+        verify(events).publishEvent(new DepartmentChangedEvent(5L));
+    }
+
     @Test
     void updateDepartment_shouldUpdateIfFound() {
         Department existing = new Department("IT", "TechCorp", "Warsaw", 500000, "oldmanager@test.com");
@@ -0,0 +1,124 @@
+package com.example.zad1.service;
+
+import com.example.zad1.dto.BulkItemResult;
+import com.example.zad1.model.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeBulkServiceTest {
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EmployeeBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new EmployeeBulkService(employeeService, objectMapper, VALIDATOR, 2);
+    }
+
+    private String employee(String email, String position, int salary) {
+        return "{\"firstName\":\"Jan\",\"lastName\":\"Kowalski\",\"email\":\"" + email + "\",\"company\":\"TechCorp\","
+                + "\"position\":\"" + position + "\",\"salary\":" + salary + ",\"status\":\"ACTIVE\"}";
+    }
+
+    private String run(String body, boolean ndjson) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkService.upsert(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out, ndjson);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void jsonArray_reportsPerItemResultsInOrderAndFlushesInChunks() throws Exception {
+        when(employeeService.upsertEmployees(anyList()))
+                .thenReturn(List.of(BulkItemResult.Status.CREATED, BulkItemResult.Status.UPDATED))
+                .thenReturn(List.of(BulkItemResult.Status.CREATED));
+
+        String body = "[" + employee("a@techcorp.com", "manager", 12000) + ","
+                + employee("b@techcorp.com", "PREZES", 25000) + ","
+                + employee("c@techcorp.com", "KIEROWCA", 5000) + ","
+                + employee("d@techcorp.com", "STAZYSTA", 3000) + "]";
+
+        JsonNode response = objectMapper.readTree(run(body, false));
+        JsonNode results = response.get("results");
+
+        assertAll(
+                () -> assertEquals(4, results.size()),
+                () -> assertEquals("CREATED", results.get(0).get("status").asText()),
+                () -> assertEquals("UPDATED", results.get(1).get("status").asText()),
+                () -> assertEquals("FAILED", results.get(2).get("status").asText()),
+                () -> assertEquals("c@techcorp.com", results.get(2).get("email").asText()),
+                () -> assertEquals("CREATED", results.get(3).get("status").asText()),
+                () -> assertEquals(3, results.get(3).get("index").asInt()),
+                () -> assertEquals(2, response.get("created").asInt()),
+                () -> assertEquals(1, response.get("updated").asInt()),
+                () -> assertEquals(1, response.get("failed").asInt())
+        );
+        verify(employeeService, times(2)).upsertEmployees(anyList());
+    }
+
+    @Test
+    void ndjson_writesOneResultPerLineFollowedBySummary() throws Exception {
+        when(employeeService.upsertEmployees(anyList())).thenReturn(List.of(BulkItemResult.Status.CREATED));
+
+        String body = employee("a@techcorp.com", "MANAGER", 12000) + "\n"
+                + "{\"firstName\":\"J\",\"email\":\"zly-email\"}\n";
+
+        String[] lines = run(body, true).split("\n");
+
+        assertAll(
+                () -> assertEquals(3, lines.length),
+                () -> assertEquals("CREATED", objectMapper.readTree(lines[0]).get("status").asText()),
+                () -> assertEquals("FAILED", objectMapper.readTree(lines[1]).get("status").asText()),
+                () -> assertTrue(objectMapper.readTree(lines[1]).get("errors").size() > 1),
+                () -> assertEquals(1, objectMapper.readTree(lines[2]).get("summary").get("failed").asInt())
+        );
+    }
+
+    @Test
+    void databaseFailure_marksWholeChunkAsFailed() throws Exception {
+        when(employeeService.upsertEmployees(anyList())).thenThrow(new IllegalStateException("constraint"));
+
+        JsonNode response = objectMapper.readTree(run("[" + employee("a@techcorp.com", "MANAGER", 12000) + "]", false));
+
+        assertAll(
+                () -> assertEquals("FAILED", response.get("results").get(0).get("status").asText()),
+                () -> assertEquals("Błąd zapisu do bazy danych: constraint", response.get("results").get(0).get("errors").get(0).asText()),
+                () -> assertEquals(1, response.get("failed").asInt())
+        );
+    }
+
+    @Test
+    void malformedJson_stopsAndReportsError() throws Exception {
+        when(employeeService.upsertEmployees(anyList())).thenReturn(List.of(BulkItemResult.Status.CREATED));
+
+        JsonNode response = objectMapper.readTree(run("[" + employee("a@techcorp.com", "MANAGER", 12000) + ", {\"email\": ", false));
+
+        assertAll(
+                () -> assertEquals(2, response.get("results").size()),
+                () -> assertEquals("CREATED", response.get("results").get(0).get("status").asText()),
+                () -> assertEquals("FAILED", response.get("results").get(1).get("status").asText()),
+                () -> assertEquals(1, response.get("failed").asInt())
+        );
+        verify(employeeService).upsertEmployees(argThat((List<Employee> list) -> list.size() == 1));
+    }
+}
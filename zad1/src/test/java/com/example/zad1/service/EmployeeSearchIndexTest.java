@@ -0,0 +1,135 @@
+package com.example.zad1.service;
+
+import com.example.zad1.dto.EmployeeSearchHit;
+import com.example.zad1.dto.SearchPage;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.Department;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchIndexTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @InjectMocks
+    private EmployeeSearchIndex index;
+
+    private Employee anna;
+    private Employee jan;
+    private Employee janina;
+
+    @BeforeEach
+    void setUp() {
+        anna = new Employee("Anna Nowak", "anna.nowak@techcorp.com", "TechCorp", Position.MANAGER, 12000);
+        jan = new Employee("Jan Kowalski", "jan@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+        janina = new Employee("Janina Łęcka", "janina@datasoft.com", "DataSoft", Position.STAZYSTA, 3000);
+        Department hr = new Department();
+        hr.setName("Kadry");
+        janina.setDepartment(hr);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(Employee... employees) {
+        doAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(1);
+            for (Employee employee : employees) {
+                action.accept(employee);
+            }
+            return null;
+        }).when(employeeService).forEachEmployee(isNull(), any(Consumer.class));
+    }
+
+    private List<String> emails(SearchPage<EmployeeSearchHit> page) {
+        return page.items().stream().map(EmployeeSearchHit::email).toList();
+    }
+
+    @Test
+    void search_buildsIndexOnceAndRanksNameAboveEmailAndCompany() {
+        load(anna, jan, janina);
+
+        SearchPage<EmployeeSearchHit> page = index.search("jan", 0, 10);
+        index.search("anna", 0, 10);
+
+        assertEquals(List.of("jan@techcorp.com", "janina@datasoft.com"), emails(page));
+        assertTrue(page.items().get(0).score() > page.items().get(1).score());
+        verify(employeeService, times(1)).forEachEmployee(isNull(), any());
+    }
+
+    @Test
+    void search_requiresEveryTokenToMatch() {
+        load(anna, jan, janina);
+
+        assertEquals(List.of("jan@techcorp.com"), emails(index.search("techcorp jan", 0, 10)));
+        assertTrue(index.search("techcorp kadry", 0, 10).items().isEmpty());
+    }
+
+    @Test
+    void search_matchesSubstringsTyposDiacriticsAndDepartment() {
+        load(anna, jan, janina);
+
+        assertEquals(List.of("jan@techcorp.com"), emails(index.search("walsk", 0, 10)));
+        assertEquals(List.of("jan@techcorp.com"), emails(index.search("kowalsky", 0, 10)));
+        assertEquals(List.of("janina@datasoft.com"), emails(index.search("lecka", 0, 10)));
+        assertEquals(List.of("janina@datasoft.com"), emails(index.search("KADRY", 0, 10)));
+        assertTrue(index.search("zzz", 0, 10).items().isEmpty());
+    }
+
+    @Test
+    void search_paginatesRankedHits() {
+        load(anna, jan, janina);
+
+        SearchPage<EmployeeSearchHit> first = index.search("techcorp", 0, 1);
+        SearchPage<EmployeeSearchHit> second = index.search("techcorp", 1, 1);
+
+        assertEquals(2, first.totalCount());
+        assertTrue(first.hasNext());
+        assertFalse(second.hasNext());
+        assertEquals(List.of("anna.nowak@techcorp.com"), emails(first));
+        assertEquals(List.of("jan@techcorp.com"), emails(second));
+    }
+
+    @Test
+    void blankQuery_returnsEmptyPageWithoutLoading() {
+        assertEquals(0, index.search("  ", 0, 10).totalCount());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void events_keepIndexInSync() {
+        load(anna);
+        index.rebuild();
+
+        index.onEmployeeChanged(EmployeeChangedEvent.created(List.of(jan)));
+        assertEquals(List.of("jan@techcorp.com"), emails(index.search("kowalski", 0, 10)));
+
+        EmployeeSnapshot before = EmployeeSnapshot.of(jan);
+        jan.setFullName("Jan Malinowski");
+        index.onEmployeeChanged(EmployeeChangedEvent.updated(before, jan));
+        assertTrue(index.search("kowalski", 0, 10).items().isEmpty());
+        assertEquals(List.of("jan@techcorp.com"), emails(index.search("malinowski", 0, 10)));
+
+        index.onEmployeeChanged(EmployeeChangedEvent.deleted(jan));
+        assertTrue(index.search("malinowski", 0, 10).items().isEmpty());
+        assertEquals(1, index.size());
+
+        index.onEmployeeChanged(EmployeeChangedEvent.allDeleted());
+        assertEquals(0, index.size());
+    }
+}
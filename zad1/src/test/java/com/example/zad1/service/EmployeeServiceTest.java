@@ -1,26 +1,39 @@
 package com.example.zad1.service;
 
+import com.example.zad1.dto.BulkItemResult;
+import com.example.zad1.dto.EmployeeCursor;
+import com.example.zad1.dto.KeysetPage;
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.exception.InvalidDataException;
 import com.example.zad1.repository.EmployeeRepository;
 import com.example.zad1.repository.DepartmentRepository;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.EmploymentStatus;
 import com.example.zad1.model.Position;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
 import java.util.Optional;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +47,12 @@ public class EmployeeServiceTest {
     @Mock
     private DepartmentRepository departmentRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -58,6 +77,193 @@ public class EmployeeServiceTest {
         verify(employeeRepository, never()).save(any());
     }
 
+    @Test
+    void addEmployeesBatch_skipsExistingAndRepeatedEmails() {
+        Employee repeated = new Employee("Edyta Kopia", emp2.getEmail(), "TechCorp", Position.MANAGER, 12000);
+        when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of(emp1.getEmail()));
+
+        List<Employee> saved = employeeService.addEmployeesBatch(List.of(emp1, emp2, repeated));
+
+        assertAll(
+                () -> assertEquals(List.of(emp2), saved),
+                () -> verify(employeeRepository).saveAll(List.of(emp2)),
+                () -> verify(employeeRepository).flush()
+        );
+    }
+
+    @Test
+    void addEmployeesBatch_emptyInput_doesNotQueryRepository() {
+        assertTrue(employeeService.addEmployeesBatch(List.of()).isEmpty());
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void findExistingEmails_returnsOnlyEmailsPresentInRepository() {
+        when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of("a@techcorp.com"));
+
+        Set<String> existing = employeeService.findExistingEmails(List.of("a@techcorp.com", "b@techcorp.com"));
+
+        assertEquals(Set.of("a@techcorp.com"), existing);
+        verify(employeeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void upsertEmployees_updatesExistingAndCreatesNewInOneLookup() {
+        Employee change = new Employee("Justyna Nowa", emp1.getEmail(), "NewCorp", Position.MANAGER, 13000);
+        change.setStatus(EmploymentStatus.ON_LEAVE);
+        when(employeeRepository.findByEmailIn(anyCollection())).thenReturn(List.of(emp1));
+
+        String previousCompany = emp1.getCompanyName();
+
+        List<BulkItemResult.Status> statuses = employeeService.upsertEmployees(List.of(change, emp2));
+
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        List<EmployeeChangedEvent.Change> published = event.getValue().changes();
+        assertEquals(previousCompany, published.get(0).before().companyName());
+        assertEquals("NewCorp", published.get(0).after().companyName());
+        assertTrue(published.get(1).isCreated());
+
+        assertAll(
+                () -> assertEquals(List.of(BulkItemResult.Status.UPDATED, BulkItemResult.Status.CREATED), statuses),
+                () -> assertEquals("Justyna Nowa", emp1.getFullName()),
+                () -> assertEquals("NewCorp", emp1.getCompanyName()),
+                () -> assertEquals(13000, emp1.getSalary()),
+                () -> assertEquals(EmploymentStatus.ON_LEAVE, emp1.getStatus()),
+                () -> verify(employeeRepository).findByEmailIn(anyCollection()),
+                () -> verify(employeeRepository).saveAll(List.of(emp2))
+        );
+    }
+
+    @Test
+    void forEachEmployee_streamsAndDetachesEachRow() {
+        when(employeeRepository.streamAll()).thenReturn(Stream.of(emp1, emp2));
+        List<Employee> seen = new java.util.ArrayList<>();
+
+        employeeService.forEachEmployee(null, seen::add);
+
+        assertEquals(List.of(emp1, emp2), seen);
+        verify(entityManager).detach(emp1);
+        verify(entityManager).detach(emp2);
+        verify(employeeRepository, never()).findAll();
+    }
+
+    @Test
+    void forEachEmployee_withCompany_usesCompanyKeyContainsStream() {
+        when(employeeRepository.streamByCompanyKey("%tech%")).thenReturn(Stream.of(emp1));
+        List<Employee> seen = new java.util.ArrayList<>();
+
+        employeeService.forEachEmployee(" Tech ", seen::add);
+
+        assertEquals(List.of(emp1), seen);
+    }
+
+    @Test
+    void forEachEmployeeOfCompany_streamsExactCompanyKey() {
+        when(employeeRepository.streamByCompanyKeyEqualSorted("tech")).thenReturn(Stream.of(emp1));
+        List<Employee> seen = new java.util.ArrayList<>();
+
+        employeeService.forEachEmployeeOfCompany(" Tech ", seen::add);
+        employeeService.forEachEmployeeOfCompany(" ", seen::add);
+
+        assertEquals(List.of(emp1), seen);
+        verify(entityManager).detach(emp1);
+        verify(employeeRepository, never()).streamByCompanyKeySorted(any());
+    }
+
+    @Test
+    void getEmployeesAfter_firstPage_returnsCursorOfLastItemWithoutCount() {
+        ReflectionTestUtils.setField(emp1, "id", 1L);
+        ReflectionTestUtils.setField(emp2, "id", 2L);
+        Employee extra = new Employee("Ewa Lis", "ewa@techcorp.com", "TechCorp", Position.STAZYSTA, 3000);
+        when(employeeRepository.findFirstOrderedById(PageRequest.of(0, 3))).thenReturn(List.of(emp1, emp2, extra));
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter(null, null, 2, "id", false);
+
+        assertEquals(List.of(emp1, emp2), page.items());
+        assertTrue(page.hasNext());
+        assertEquals(new EmployeeCursor(2L, null), EmployeeCursor.decode(page.nextCursor()));
+        assertNull(page.totalCount());
+        verify(employeeRepository, never()).count();
+    }
+
+    @Test
+    void getEmployeesAfter_companyCursor_seeksPastLastKeyAndCounts() {
+        String cursor = new EmployeeCursor(7L, "techcorp").encode();
+        when(employeeRepository.findAfterCompanyKey("techcorp", 7L, PageRequest.of(0, 11))).thenReturn(List.of(emp1));
+        when(employeeRepository.count()).thenReturn(42L);
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter(null, cursor, 10, "company", true);
+
+        assertEquals(List.of(emp1), page.items());
+        assertFalse(page.hasNext());
+        assertEquals(42L, page.totalCount());
+    }
+
+    @Test
+    void getEmployeesAfter_companyFirstPage_continuesFromRowsWithoutCompanyIntoCompanyKeys() {
+        Employee noCompany = new Employee("Ola Bez", "ola@example.com", null, Position.STAZYSTA, 3000);
+        ReflectionTestUtils.setField(noCompany, "id", 5L);
+        ReflectionTestUtils.setField(emp1, "id", 1L);
+        when(employeeRepository.findWithoutCompanyKeyAfterId(Long.MIN_VALUE, PageRequest.of(0, 3))).thenReturn(List.of(noCompany));
+        when(employeeRepository.findAfterCompanyKey("", Long.MIN_VALUE, PageRequest.of(0, 2))).thenReturn(List.of(emp1, emp2));
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter(null, null, 2, "company", false);
+
+        assertEquals(List.of(noCompany, emp1), page.items());
+        assertEquals(new EmployeeCursor(1L, "techcorp"), EmployeeCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getEmployeesAfter_cursorInsideRowsWithoutCompany_seeksByIdThere() {
+        String cursor = new EmployeeCursor(5L, "").encode();
+        when(employeeRepository.findWithoutCompanyKeyAfterId(5L, PageRequest.of(0, 11))).thenReturn(List.of());
+        when(employeeRepository.findAfterCompanyKey("", Long.MIN_VALUE, PageRequest.of(0, 11))).thenReturn(List.of(emp1));
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter(null, cursor, 10, "company", false);
+
+        assertEquals(List.of(emp1), page.items());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void getEmployeesAfter_withCompany_seeksOnlyMatchingRowsAndCountsThem() {
+        ReflectionTestUtils.setField(emp1, "id", 1L);
+        when(employeeRepository.findMatchingCompanyAfterId("%tech%", Long.MIN_VALUE, PageRequest.of(0, 2)))
+                .thenReturn(List.of(emp1, emp2));
+        when(employeeRepository.count(any(Specification.class))).thenReturn(5L);
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter(" Tech ", null, 1, "id", true);
+
+        assertEquals(List.of(emp1), page.items());
+        assertEquals(new EmployeeCursor(1L, null), EmployeeCursor.decode(page.nextCursor()));
+        assertEquals(5L, page.totalCount());
+        verify(employeeRepository, never()).findFirstOrderedById(any());
+        verify(employeeRepository, never()).count();
+    }
+
+    @Test
+    void getEmployeesAfter_withCompanySortedByCompany_seeksPastCursorKey() {
+        String cursor = new EmployeeCursor(7L, "techcorp").encode();
+        when(employeeRepository.findMatchingCompanyAfterCompanyKey("%tech%", "techcorp", 7L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(emp2));
+
+        KeysetPage<Employee> page = employeeService.getEmployeesAfter("tech", cursor, 10, "company", false);
+
+        assertEquals(List.of(emp2), page.items());
+        assertFalse(page.hasNext());
+        verify(employeeRepository, never()).findWithoutCompanyKeyAfterId(any(), any());
+    }
+
+    @Test
+    void getEmployeesAfter_rejectsUnknownSortAndMismatchedCursor() {
+        String idCursor = new EmployeeCursor(3L, null).encode();
+
+        assertThrows(InvalidDataException.class, () -> employeeService.getEmployeesAfter(null, null, 10, "salary", false));
+        assertThrows(InvalidDataException.class, () -> employeeService.getEmployeesAfter(null, idCursor, 10, "company", false));
+        assertThrows(InvalidDataException.class, () -> employeeService.getEmployeesAfter(null, "%%%", 10, "id", false));
+    }
+
     @Test
     void shouldNotAddEmployeeWhenEmployeeIsNull() {
         assertFalse(employeeService.addEmployee(null));
@@ -105,14 +311,26 @@ public class EmployeeServiceTest {
 
     @Test
     void getAlphabetically() {
-        when(employeeRepository.findAll()).thenReturn(List.of(emp1, emp2));
+        when(employeeRepository.findAllByOrderByLastNameAscFirstNameAscIdAsc()).thenReturn(List.of(emp2, emp1));
         List<Employee> sorted = employeeService.getAllAlphabetically();
         assertNotNull(sorted);
+        assertEquals(List.of(emp2, emp1), sorted);
+    }
+
+    @Test
+    void fullName_derivesFirstAndLastNameOnWrite() {
+        Employee e = new Employee("  Jan   Maria  Kowalski ", "jan@techcorp.com", "TechCorp", Position.MANAGER, 12000);
+        assertEquals("Jan", e.getFirstName());
+        assertEquals("Kowalski", e.getLastName());
+
+        e.setFullName("Anna");
+        assertEquals("Anna", e.getFirstName());
+        assertEquals("", e.getLastName());
     }
 
     @Test
     void groupByPosition() {
-        when(employeeRepository.findAll()).thenReturn(List.of(emp1, emp2));
+        when(employeeRepository.findByPositionIsNotNullOrderByPositionAscIdAsc()).thenReturn(List.of(emp1, emp2));
         assertAll(
                 () -> assertEquals(2, employeeService.groupByPosition().size()),
                 () -> assertTrue(employeeService.groupByPosition().containsKey(Position.PREZES)),
@@ -145,22 +363,23 @@ public class EmployeeServiceTest {
 
     @Test
     void getHighestSalary_WhenNoEmployee() {
-        when(employeeRepository.findAll()).thenReturn(List.of());
+        when(employeeRepository.findFirstByOrderBySalaryDescIdAsc()).thenReturn(Optional.empty());
         assertTrue(employeeService.getHighestSalary().isEmpty());
     }
 
     @Test
     void getHighestSalary_WhenAddedEmployee() {
-        when(employeeRepository.findAll()).thenReturn(List.of(emp1));
+        when(employeeRepository.findFirstByOrderBySalaryDescIdAsc()).thenReturn(Optional.of(emp1));
         assertFalse(employeeService.getHighestSalary().isEmpty());
+        verify(employeeRepository, never()).findAll();
     }
 
     @Test
     void testValidateSalaryConsistency() {
-        Employee empNullPosition = new Employee("Svietlana Gerasimova", "svietla@outlook.com", "TechnoCorp", null, 3600);
         Employee empInvalidSalary = new Employee("Igor Ivanov", "igorek@outlook.ru", "TechnoCorp", Position.STAZYSTA, 29);
-        when(employeeRepository.findAll()).thenReturn(List.of(emp1, empNullPosition, empInvalidSalary));
+        when(employeeRepository.findAll(any(Specification.class))).thenReturn(List.of(empInvalidSalary));
         assertEquals(1, employeeService.validateSalaryConsistency().size());
+        verify(employeeRepository, never()).findAll();
     }
 
     @Test
@@ -192,6 +411,38 @@ public class EmployeeServiceTest {
         );
     }
 
+    @Test
+    void getCompanyStatistics_fillsTopEarnerFromFirstMatchingRow() {
+        CompanyStatistics stats = new CompanyStatistics("TechCorp", 2L, 10500.0, 12500);
+        when(employeeRepository.getCompanyStatisticsJPQL()).thenReturn(List.of(stats));
+        when(employeeRepository.findTopEarnersJPQL()).thenReturn(List.of(
+                new Object[]{"techcorp", "Anna Nowak"},
+                new Object[]{"techcorp", "Jan Kowalski"}));
+
+        assertEquals("Anna Nowak", employeeService.getCompanyStatistics().get("TechCorp").getTopEarnerFullName());
+    }
+
+    @Test
+    void getCompanyStatistics_forSingleCompany_usesNormalizedKey() {
+        when(employeeRepository.getCompanyStatisticsByKeyJPQL("techcorp"))
+                .thenReturn(new CompanyStatistics("TechCorp", 2L, 21500.0, 25000));
+        when(employeeRepository.findFirstByCompanyKeyOrderBySalaryDescIdAsc("techcorp")).thenReturn(Optional.of(emp1));
+
+        CompanyStatistics stats = employeeService.getCompanyStatistics("  TECHCORP ").orElseThrow();
+
+        assertEquals(2L, stats.getEmployeeCount());
+        assertEquals(emp1.getFullName(), stats.getTopEarnerFullName());
+        verify(employeeRepository, never()).getCompanyStatisticsJPQL();
+    }
+
+    @Test
+    void getCompanyStatistics_forUnknownOrBlankCompany_isEmpty() {
+        when(employeeRepository.getCompanyStatisticsByKeyJPQL("ghost")).thenReturn(new CompanyStatistics(null, 0L, 0.0, 0));
+
+        assertTrue(employeeService.getCompanyStatistics("Ghost").isEmpty());
+        assertTrue(employeeService.getCompanyStatistics(" ").isEmpty());
+    }
+
     @Test
     void testGetAllEmployees() {
         when(employeeRepository.findAll()).thenReturn(List.of(emp1, emp2));
@@ -258,13 +509,17 @@ public class EmployeeServiceTest {
 
     @Test
     void testDeleteEmployeeByEmail() {
-        when(employeeRepository.existsByEmail(emp1.getEmail())).thenReturn(true);
-        when(employeeRepository.existsByEmail("nonexistent@email.com")).thenReturn(false);
-        doNothing().when(employeeRepository).deleteByEmail(emp1.getEmail());
+        when(employeeRepository.findByEmail(emp1.getEmail())).thenReturn(Optional.of(emp1));
+        when(employeeRepository.findByEmail("nonexistent@email.com")).thenReturn(Optional.empty());
         assertAll(
                 () -> assertTrue(employeeService.deleteEmployeeByEmail(emp1.getEmail())),
                 () -> assertFalse(employeeService.deleteEmployeeByEmail("nonexistent@email.com"))
         );
+        verify(employeeRepository).delete(emp1);
+        ArgumentCaptor<EmployeeChangedEvent> event = ArgumentCaptor.forClass(EmployeeChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertTrue(event.getValue().changes().get(0).isDeleted());
+        assertEquals(emp1.getCompanyName(), event.getValue().changes().get(0).before().companyName());
     }
 
     @Test
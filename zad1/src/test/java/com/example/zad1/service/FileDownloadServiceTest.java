@@ -0,0 +1,179 @@
+package com.example.zad1.service;
+
+import com.example.zad1.exception.FileNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDownloadServiceTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private final FileDownloadService service = new FileDownloadService();
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("download-", ".pdf");
+        Files.writeString(file, CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-03-02T10:15:30Z")));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        return serve(null, request);
+    }
+
+    private MockHttpServletResponse serve(String contentHash, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, contentHash, MediaType.APPLICATION_PDF, "umowa.pdf", request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String... headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/documents/1");
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        return request;
+    }
+
+    @Test
+    void serve_sendsWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = serve(get());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(20, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("attachment; filename=\"umowa.pdf\"", response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(Instant.parse("2026-03-02T10:15:30Z").toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertTrue(response.getHeader(HttpHeaders.ETAG).matches("\"[0-9a-f]{64}\""));
+    }
+
+    @Test
+    void serve_singleRange_returnsPartialContent() throws Exception {
+        MockHttpServletResponse first = serve(get(HttpHeaders.RANGE, "bytes=5-9"));
+        MockHttpServletResponse suffix = serve(get(HttpHeaders.RANGE, "bytes=-3"));
+        MockHttpServletResponse open = serve(get(HttpHeaders.RANGE, "bytes=15-100"));
+
+        assertEquals(206, first.getStatus());
+        assertEquals("bytes 5-9/20", first.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, first.getContentLengthLong());
+        assertEquals("56789", first.getContentAsString());
+        assertEquals("hij", suffix.getContentAsString());
+        assertEquals("bytes 15-19/20", open.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("fghij", open.getContentAsString());
+    }
+
+    @Test
+    void serve_rangeBeyondFile_returns416() throws Exception {
+        MockHttpServletResponse response = serve(get(HttpHeaders.RANGE, "bytes=20-30"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_invalidOrMultipleRanges_fallBackToWholeFile() throws Exception {
+        MockHttpServletResponse invalid = serve(get(HttpHeaders.RANGE, "pages=1-2"));
+        MockHttpServletResponse multiple = serve(get(HttpHeaders.RANGE, "bytes=0-1,5-6"));
+
+        assertEquals(200, invalid.getStatus());
+        assertEquals(CONTENT, invalid.getContentAsString());
+        assertEquals(200, multiple.getStatus());
+        assertEquals(CONTENT, multiple.getContentAsString());
+    }
+
+    @Test
+    void serve_ifRange_honoursRangeOnlyForCurrentVersion() throws Exception {
+        String etag = serve(get()).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse matching = serve(get(HttpHeaders.RANGE, "bytes=0-1", HttpHeaders.IF_RANGE, etag));
+        MockHttpServletResponse stale = serve(get(HttpHeaders.RANGE, "bytes=0-1", HttpHeaders.IF_RANGE, "\"stara-wersja\""));
+        MockHttpServletResponse byDate = serve(get(HttpHeaders.RANGE, "bytes=0-1", HttpHeaders.IF_RANGE, "Mon, 02 Mar 2026 10:15:30 GMT"));
+
+        assertEquals(206, matching.getStatus());
+        assertEquals("01", matching.getContentAsString());
+        assertEquals(200, stale.getStatus());
+        assertEquals(CONTENT, stale.getContentAsString());
+        assertEquals(206, byDate.getStatus());
+    }
+
+    @Test
+    void serve_matchingIfNoneMatch_returns304WithoutBody() throws Exception {
+        String etag = serve(get()).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = serve(get(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void etag_usesHashStoredAtUploadWithoutReadingFile() throws Exception {
+        String stored = "a".repeat(64);
+
+        MockHttpServletResponse response = serve(stored, get());
+        MockHttpServletResponse notModified = serve(stored, get(HttpHeaders.IF_NONE_MATCH, '"' + stored + '"'));
+
+        assertEquals('"' + stored + '"', response.getHeader(HttpHeaders.ETAG));
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(304, notModified.getStatus());
+    }
+
+    @Test
+    void etag_followsContentAndIsRecomputedWhenFileChanges() throws Exception {
+        String before = serve(get()).getHeader(HttpHeaders.ETAG);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2026-03-03T08:00:00Z")));
+        String touched = serve(get()).getHeader(HttpHeaders.ETAG);
+        Files.writeString(file, "nowa treść dokumentu", StandardCharsets.UTF_8);
+
+        String after = serve(get()).getHeader(HttpHeaders.ETAG);
+
+        assertEquals(before, touched);
+        assertNotEquals(before, after);
+        assertEquals(200, serve(get(HttpHeaders.IF_NONE_MATCH, before)).getStatus());
+    }
+
+    @Test
+    void serve_delegatesToContainerSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = get(HttpHeaders.RANGE, "bytes=10-");
+        request.setAttribute(FileDownloadService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(FileDownloadService.SENDFILE_FILENAME));
+        assertEquals(10L, request.getAttribute(FileDownloadService.SENDFILE_START));
+        assertEquals(20L, request.getAttribute(FileDownloadService.SENDFILE_END));
+    }
+
+    @Test
+    void serve_missingFile_throwsNotFound() throws IOException {
+        Files.delete(file);
+
+        assertThrows(FileNotFoundException.class, () -> serve(get()));
+    }
+}
@@ -17,6 +17,8 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -138,6 +140,68 @@ class FileStorageServiceTest {
         assertThrows(FileNotFoundException.class, () -> service.loadFromUploads("docs", savedName));
     }
 
+    @Test
+    void locateInUploads_returnsStoredFileOrThrowsWhenMissing() {
+        MockMultipartFile file = new MockMultipartFile("file", "scan.pdf", "application/pdf", new byte[]{1, 2});
+        String savedName = service.storeInUploads(file, "docs");
+
+        assertEquals(service.getUploadDir().resolve("docs").resolve(savedName), service.locateInUploads("docs", savedName));
+        assertThrows(FileNotFoundException.class, () -> service.locateInUploads("docs", "missing.pdf"));
+        assertThrows(FileNotFoundException.class, () -> service.locateInUploads(null, "docs"));
+    }
+
+    @Test
+    void storeHashedInUploads_keepsSha256NextToTheFileThroughMovesAndDeletes() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{5, 6, 7});
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(new byte[]{5, 6, 7}));
+
+        String savedName = service.storeHashedInUploads(file, "photos");
+        Path saved = service.locateInUploads("photos", savedName);
+        assertEquals(Optional.of(expected), service.contentHash(saved));
+        assertEquals(expected, Files.readString(saved.resolveSibling(savedName + ".sha256")));
+        assertEquals(Optional.of(expected), new FileStorageService(uploads.toString(), reports.toString()).contentHash(saved));
+
+        service.moveInUploads("photos", savedName, "jan@example.com.jpg");
+        Path moved = service.locateInUploads("photos", "jan@example.com.jpg");
+        assertEquals(Optional.of(expected), service.contentHash(moved));
+        assertTrue(service.contentHash(saved).isEmpty());
+
+        service.deleteFromUploads("photos", "jan@example.com.jpg");
+        assertTrue(service.contentHash(moved).isEmpty());
+        assertFalse(Files.exists(moved.resolveSibling("jan@example.com.jpg.sha256")));
+    }
+
+    @Test
+    void storeInUploads_doesNotHashImportFiles() {
+        MockMultipartFile file = new MockMultipartFile("file", "import.csv", "text/csv", new byte[]{1, 2});
+
+        String savedName = service.storeInUploads(file, null);
+
+        assertTrue(service.contentHash(uploads.resolve(savedName)).isEmpty());
+        assertFalse(Files.exists(uploads.resolve(savedName + ".sha256")));
+    }
+
+    @Test
+    void moveInUploads_dropsStaleHashOfReplacedFile() {
+        String first = service.storeHashedInUploads(new MockMultipartFile("file", "a.jpg", "image/jpeg", new byte[]{1}), "photos");
+        service.moveInUploads("photos", first, "ola@example.com.jpg");
+        String second = service.storeInUploads(new MockMultipartFile("file", "b.jpg", "image/jpeg", new byte[]{2}), "photos");
+
+        service.moveInUploads("photos", second, "ola@example.com.jpg");
+
+        assertTrue(service.contentHash(service.locateInUploads("photos", "ola@example.com.jpg")).isEmpty());
+    }
+
+    @Test
+    void saveEmployeeDocument_keepsContentHashWithMetadata() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "umowa.pdf", "application/pdf", new byte[]{1, 2, 3});
+
+        EmployeeDocument doc = service.saveEmployeeDocument("jan@example.com", file, DocumentType.CONTRACT);
+
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(new byte[]{1, 2, 3})),
+                doc.getContentHash());
+    }
+
     @Test
     void storeInUploads_nullSubfolder_savesInRoot() {
         MockMultipartFile file = new MockMultipartFile("file", "root.txt", "text/plain", new byte[]{3});
@@ -0,0 +1,94 @@
+package com.example.zad1.service;
+
+import com.example.zad1.exception.ImportJobNotFoundException;
+import com.example.zad1.exception.ImportRejectedException;
+import com.example.zad1.model.ImportJob;
+import com.example.zad1.model.ImportJobStatus;
+import com.example.zad1.model.ImportProgress;
+import com.example.zad1.model.ImportSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ImportJobServiceTest {
+
+    private final ImportService importService = mock(ImportService.class);
+
+    @Test
+    void submitCsv_runsImportAndStoresSummaryAsResult() {
+        ImportJobService service = new ImportJobService(importService, new TaskExecutorAdapter(Runnable::run), 10);
+        ImportSummary summary = new ImportSummary(3, List.of("Linia 4: za mało pól"));
+        when(importService.importFromCsv(eq("saved.csv"), eq(false), any(ImportProgress.class))).thenReturn(summary);
+
+        ImportJob job = service.submitCsv("saved.csv", "employees.csv", false);
+
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertSame(summary, job.getResult());
+        assertSame(job, service.getJob(job.getId()));
+        assertNotNull(job.getStartedAt());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void submitXml_importFailure_marksJobFailed() {
+        ImportJobService service = new ImportJobService(importService, new TaskExecutorAdapter(Runnable::run), 10);
+        when(importService.importFromXml(eq("saved.xml"), eq(true), any(ImportProgress.class))).thenThrow(new IllegalStateException("boom"));
+
+        ImportJob job = service.submitXml("saved.xml", "employees.xml", true);
+
+        assertEquals(ImportJobStatus.FAILED, job.getStatus());
+        assertEquals("Błąd importu: boom", job.getErrorMessage());
+    }
+
+    @Test
+    void submit_whenExecutorIsFull_throwsRejectedAndForgetsJob() {
+        AsyncTaskExecutor executor = mock(AsyncTaskExecutor.class);
+        when(executor.submit(any(Runnable.class))).thenThrow(new TaskRejectedException("full"));
+        ImportJobService service = new ImportJobService(importService, executor, 10);
+
+        assertThrows(ImportRejectedException.class, () -> service.submitCsv("saved.csv", "employees.csv", false));
+        assertTrue(service.getJobs().isEmpty());
+    }
+
+    @Test
+    void cancel_queuedJob_isCancelledWithoutRunning() {
+        AsyncTaskExecutor executor = mock(AsyncTaskExecutor.class);
+        when(executor.submit(any(Runnable.class))).thenAnswer(inv -> new java.util.concurrent.FutureTask<>(inv.getArgument(0), null));
+        ImportJobService service = new ImportJobService(importService, executor, 10);
+
+        ImportJob job = service.submitCsv("saved.csv", "employees.csv", false);
+        service.cancel(job.getId());
+
+        assertEquals(ImportJobStatus.CANCELLED, job.getStatus());
+        assertTrue(job.getProgress().isCancelled());
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void getJob_unknownId_throwsNotFound() {
+        ImportJobService service = new ImportJobService(importService, new TaskExecutorAdapter(Runnable::run), 10);
+        assertThrows(ImportJobNotFoundException.class, () -> service.getJob("missing"));
+    }
+
+    @Test
+    void finishedJobs_areEvictedBeyondRetentionLimit() {
+        ImportJobService service = new ImportJobService(importService, new TaskExecutorAdapter(Runnable::run), 2);
+        when(importService.importFromCsv(any(), anyBoolean(), any(ImportProgress.class))).thenReturn(new ImportSummary(0, List.of()));
+
+        service.submitCsv("a.csv", "a.csv", false);
+        service.submitCsv("b.csv", "b.csv", false);
+        ImportJob latest = service.submitCsv("c.csv", "c.csv", false);
+
+        assertEquals(2, service.getJobs().size());
+        assertSame(latest, service.getJob(latest.getId()));
+    }
+}
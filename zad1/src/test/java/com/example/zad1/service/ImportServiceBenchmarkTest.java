@@ -0,0 +1,76 @@
+package com.example.zad1.service;
+
+import com.example.zad1.model.ImportProgress;
+import com.example.zad1.model.ImportSummary;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@SpringBootTest
+class ImportServiceBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final long CHUNK_SIZE = 1024 * 1024;
+    private static Path csv;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ImportService importService;
+
+    @BeforeAll
+    static void generateFile() throws Exception {
+        csv = Files.createTempFile("import-benchmark-", ".csv");
+        String[] positions = {"PROGRAMISTA", "MANAGER", "STAZYSTA", "WICEPREZES"};
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("firstName,lastName,email,company,position,salary\n");
+            for (int i = 0; i < ROWS; i++) {
+                out.write("Jan" + i + ",\"Kowalski, " + i + "\",bench" + i + "@techcorp.com,TechCorp,"
+                        + positions[i % positions.length] + "," + (9000 + i % 5000) + "\n");
+            }
+        }
+    }
+
+    @AfterAll
+    static void deleteFile() throws Exception {
+        Files.deleteIfExists(csv);
+    }
+
+    @Test
+    void parallelCsvImportScalesWithCores() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> levels = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            levels.add(threads);
+        }
+        levels.add(cores);
+
+        importService.importFromCsvParallel(csv.toString(), cores, CHUNK_SIZE, true, new ImportProgress());
+        double baseline = 0;
+        for (int threads : levels) {
+            employeeService.deleteAll();
+            ImportSummary summary = importService.importFromCsvParallel(csv.toString(), threads, CHUNK_SIZE, false, new ImportProgress());
+            assertEquals(ROWS, summary.getImportedCount());
+            if (threads == 1) baseline = summary.getRowsPerSecond();
+            System.out.printf("CSV import: %2d wątków, %8d wierszy, %6d ms, %10.0f wierszy/s, przyspieszenie x%.2f%n",
+                    threads, summary.getProcessedCount(), summary.getDurationMillis(),
+                    summary.getRowsPerSecond(), summary.getRowsPerSecond() / baseline);
+        }
+        employeeService.deleteAll();
+        assertTrue(baseline > 0);
+    }
+}
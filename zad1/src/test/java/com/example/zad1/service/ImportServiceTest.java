@@ -1,6 +1,7 @@
 package com.example.zad1.service;
 
 import com.example.zad1.model.CompanyStatistics;
+import com.example.zad1.model.ImportProgress;
 import com.example.zad1.model.ImportSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +10,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,7 +80,8 @@ public class ImportServiceTest {
         assertAll(
                 ()-> assertEquals(0, sum.getImportedCount()),
                 ()-> assertEquals(1, sum.getErrors().size()),
-                ()-> assertTrue(sum.getErrors().get(0).startsWith("Błąd podczas odczytu pliku:"))
+                ()-> assertTrue(sum.getErrors().get(0).startsWith("Błąd podczas odczytu pliku:")),
+                ()-> assertTrue(sum.getErrors().get(0).contains("nonexistent.csv"))
         );
     }
 
@@ -127,4 +133,242 @@ public class ImportServiceTest {
             System.out.println("Pominięto test empty.xml: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldImportCsvInBatchesAndReportErrorsInLineOrder() throws Exception {
+        Path csv = Files.createTempFile("import-batch-", ".csv");
+        try {
+            Files.writeString(csv, String.join("\n",
+                    "firstName,lastName,email,company,position,salary",
+                    "Jan,Kowalski,jan.batch@techcorp.com,TechCorp,Prezes,27000",
+                    "Jan,Duplikat,jan.batch@techcorp.com,TechCorp,Prezes,27000",
+                    "Anna,Nowak,anna.batch@techcorp.com,TechCorp,Nieznane,11500",
+                    "Ewa,Zła,to-nie-email,TechCorp,Programista,8000",
+                    "Piotr,Zieliński,piotr.batch@techcorp.com,TechCorp,Programista,8500"), StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromCsv(csv.toString());
+
+            assertAll(
+                    () -> assertEquals(2, sum.getImportedCount()),
+                    () -> assertEquals(5, sum.getProcessedCount()),
+                    () -> assertEquals(3, sum.getErrors().size()),
+                    () -> assertTrue(sum.getErrors().get(0).contains("linii 3")),
+                    () -> assertTrue(sum.getErrors().get(1).contains("linii 4")),
+                    () -> assertTrue(sum.getErrors().get(2).startsWith("Linia 5")),
+                    () -> assertTrue(sum.getRowsPerSecond() > 0),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("piotr.batch@techcorp.com").isPresent())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void shouldImportReportCsvWithQuotedFields() throws Exception {
+        Path csv = Files.createTempFile("import-quoted-", ".csv");
+        try {
+            Files.writeString(csv, String.join("\r\n",
+                    "fullName,email,companyName,position,salary",
+                    "\"John, \"\"JJ\"\" Smith\",john.quoted@techcorp.com,\"Tech, Corp\",PREZES,27000",
+                    "Anna Nowak,anna.quoted@techcorp.com,TechCorp,MANAGER,11500",
+                    ""), StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromCsv(csv.toString());
+
+            assertAll(
+                    () -> assertEquals(2, sum.getImportedCount()),
+                    () -> assertTrue(sum.getErrors().isEmpty()),
+                    () -> assertEquals("John, \"JJ\" Smith",
+                            employeeService.getEmployeeByEmail("john.quoted@techcorp.com").orElseThrow().getFullName()),
+                    () -> assertEquals("Tech, Corp",
+                            employeeService.getEmployeeByEmail("john.quoted@techcorp.com").orElseThrow().getCompanyName())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void shouldImportXmlNotFormattedOneTagPerLine() throws Exception {
+        Path xml = Files.createTempFile("import-inline-", ".xml");
+        try {
+            Files.writeString(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><employees>"
+                    + "<employee><firstName>Jan</firstName><lastName>Inline</lastName><email>jan.inline@techcorp.com</email>"
+                    + "<companyName>TechCorp</companyName><position>prezes</position><salary> 27000 </salary></employee>"
+                    + "<employee><firstName>Bez</firstName><email>bez.nazwiska@techcorp.com</email>"
+                    + "<position>MANAGER</position><salary>12000</salary></employee>"
+                    + "</employees>", StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromXml(xml.toString());
+
+            assertAll(
+                    () -> assertEquals(1, sum.getImportedCount()),
+                    () -> assertEquals(1, sum.getErrors().size()),
+                    () -> assertTrue(sum.getErrors().get(0).startsWith("Linia 1, kolumna "), sum.getErrors().get(0)),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("jan.inline@techcorp.com").isPresent())
+            );
+        } finally {
+            Files.deleteIfExists(xml);
+        }
+    }
+
+    @Test
+    void shouldSkipNestedElementsAndRejectOnlyAffectedRecord() throws Exception {
+        Path xml = Files.createTempFile("import-nested-", ".xml");
+        try {
+            Files.writeString(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><employees>"
+                    + "<employee><firstName>Jan</firstName><lastName>Adres</lastName><email>jan.adres@techcorp.com</email>"
+                    + "<address><street>Prosta 1</street><city>Warszawa</city></address>"
+                    + "<companyName>TechCorp</companyName><position>PROGRAMISTA</position><salary>9000</salary></employee>"
+                    + "<employee><firstName>Anna</firstName><lastName>Zagniezdzona</lastName>"
+                    + "<email><primary>anna@techcorp.com</primary></email>"
+                    + "<position>MANAGER</position><salary>12000</salary></employee>"
+                    + "<employee><firstName>Ewa</firstName><lastName>Dalsza</lastName><email>ewa.dalsza@techcorp.com</email>"
+                    + "<companyName>TechCorp</companyName><position>MANAGER</position><salary>12000</salary></employee>"
+                    + "</employees>", StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromXml(xml.toString());
+
+            assertAll(
+                    () -> assertEquals(2, sum.getImportedCount()),
+                    () -> assertEquals(1, sum.getErrors().size()),
+                    () -> assertTrue(sum.getErrors().get(0).endsWith("Brak wymaganych pól."), sum.getErrors().get(0)),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("jan.adres@techcorp.com").isPresent()),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("ewa.dalsza@techcorp.com").isPresent())
+            );
+        } finally {
+            Files.deleteIfExists(xml);
+        }
+    }
+
+    @Test
+    void shouldReportMalformedXmlAsReadError() throws Exception {
+        Path xml = Files.createTempFile("import-broken-", ".xml");
+        try {
+            Files.writeString(xml, "<employees><employee><firstName>Jan</employee>", StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromXml(xml.toString());
+
+            assertAll(
+                    () -> assertEquals(0, sum.getImportedCount()),
+                    () -> assertTrue(sum.getErrors().get(sum.getErrors().size() - 1).startsWith("Błąd podczas odczytu pliku:"))
+            );
+        } finally {
+            Files.deleteIfExists(xml);
+        }
+    }
+
+    @Test
+    void shouldTrackProgressWhileImportingCsv() throws Exception {
+        Path csv = Files.createTempFile("import-progress-", ".csv");
+        try {
+            Files.writeString(csv, String.join("\n",
+                    "firstName,lastName,email,company,position,salary",
+                    "Anna,Postep,anna.postep@techcorp.com,TechCorp,MANAGER,12000",
+                    "Jan,Postep,jan.postep@techcorp.com,TechCorp,NIEZNANE,12000"), StandardCharsets.UTF_8);
+            ImportProgress progress = new ImportProgress();
+
+            ImportSummary sum = importService.importFromCsv(csv.toString(), false, progress);
+
+            assertAll(
+                    () -> assertEquals(1, sum.getImportedCount()),
+                    () -> assertEquals(2, progress.getProcessed()),
+                    () -> assertEquals(1, progress.getFailed()),
+                    () -> assertEquals(Files.size(csv), progress.getBytesRead()),
+                    () -> assertEquals(100, progress.getPercentComplete())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void shouldStopImportWhenCancelled() throws Exception {
+        Path csv = Files.createTempFile("import-cancel-", ".csv");
+        try {
+            Files.writeString(csv, String.join("\n",
+                    "firstName,lastName,email,company,position,salary",
+                    "Anna,Anulowana,anna.anulowana@techcorp.com,TechCorp,MANAGER,12000"), StandardCharsets.UTF_8);
+            ImportProgress progress = new ImportProgress();
+            progress.cancel();
+
+            ImportSummary sum = importService.importFromCsv(csv.toString(), false, progress);
+
+            assertAll(
+                    () -> assertEquals(0, sum.getImportedCount()),
+                    () -> assertTrue(sum.getErrors().get(0).startsWith("Import został anulowany")),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("anna.anulowana@techcorp.com").isEmpty())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void parallelImportShouldMatchSequentialImport() {
+        String csvPath = Paths.get("data", "employees.csv").toString();
+        ImportSummary sequential = importService.importFromCsv(csvPath);
+        employeeService.deleteAll();
+
+        ImportSummary parallel = importService.importFromCsvParallel(csvPath, 4, 64, false, new ImportProgress());
+
+        assertAll(
+                () -> assertEquals(sequential.getImportedCount(), parallel.getImportedCount()),
+                () -> assertEquals(sequential.getProcessedCount(), parallel.getProcessedCount()),
+                () -> assertEquals(sequential.getErrors(), parallel.getErrors()),
+                () -> assertEquals(sequential.getImportedCount(), employeeService.getAllEmployees().size())
+        );
+    }
+
+    @Test
+    void parallelImportShouldReportDuplicateEmailsWithLineNumbers() throws Exception {
+        Path csv = Files.createTempFile("import-parallel-", ".csv");
+        try {
+            Files.writeString(csv, String.join("\n",
+                    "firstName,lastName,email,company,position,salary",
+                    "Anna,Pierwsza,dup.parallel@techcorp.com,TechCorp,MANAGER,12000",
+                    "\"Jan\nMaria\",Druga,jan.parallel@techcorp.com,TechCorp,MANAGER,12000",
+                    "Ewa,Trzecia,dup.parallel@techcorp.com,TechCorp,MANAGER,12000"), StandardCharsets.UTF_8);
+
+            ImportSummary sum = importService.importFromCsvParallel(csv.toString(), 3, 16, false, new ImportProgress());
+
+            assertAll(
+                    () -> assertEquals(2, sum.getImportedCount()),
+                    () -> assertEquals(List.of("Nie dodano pracownika z linii 5: email dup.parallel@techcorp.com występuje już w linii 2 pliku."), sum.getErrors())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void dryRunShouldValidateAndDedupeWithoutPersisting() throws Exception {
+        Path csv = Files.createTempFile("import-dry-run-", ".csv");
+        try {
+            importService.importFromCsv(Paths.get("data", "employees.csv").toString());
+            Files.writeString(csv, String.join("\n",
+                    "firstName,lastName,email,company,position,salary",
+                    "Jan,Kowalski,jan.kowalski@techcorp.com,TechCorp,Prezes,27000",
+                    "Ola,Sucha,ola.sucha@techcorp.com,TechCorp,pRoGrAmIsTa,9000",
+                    "Ola,Kopia,ola.sucha@techcorp.com,TechCorp,Programista,9000",
+                    "Ala,Zła,ala.zla@techcorp.com,TechCorp,Dyrektor,9000"), StandardCharsets.UTF_8);
+            int before = employeeService.getAllEmployees().size();
+
+            ImportSummary sum = importService.importFromCsv(csv.toString(), true);
+
+            assertAll(
+                    () -> assertTrue(sum.isDryRun()),
+                    () -> assertEquals(1, sum.getImportedCount()),
+                    () -> assertEquals(4, sum.getProcessedCount()),
+                    () -> assertEquals(List.of(
+                            "Nie udało się dodać pracownika z linii 2. Możliwe, że email już istnieje.",
+                            "Nie dodano pracownika z linii 4: email ola.sucha@techcorp.com występuje już w linii 3 pliku.",
+                            "Stanowisko w linii 5 nie istnieje w bazie danych."), sum.getErrors()),
+                    () -> assertEquals(before, employeeService.getAllEmployees().size()),
+                    () -> assertTrue(employeeService.getEmployeeByEmail("ola.sucha@techcorp.com").isEmpty())
+            );
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+}
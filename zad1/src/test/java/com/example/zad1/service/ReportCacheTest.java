@@ -0,0 +1,209 @@
+package com.example.zad1.service;
+
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.exception.FileStorageException;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheTest {
+
+    private Path reports;
+    private FileStorageService storageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        reports = Files.createTempDirectory("reports-cache-");
+        storageService = new FileStorageService(reports.resolve("uploads").toString(), reports.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(reports)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private ReportCache.ReportWriter writer(AtomicInteger calls, String content) {
+        return out -> {
+            calls.incrementAndGet();
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private long cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(reports.resolve("cache"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void get_generatesOnceAndServesTheSameFileWithStableETag() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        ReportCache.CachedReport first = cache.get("employees", "Alpha", "csv", writer(calls, "a,b\n"));
+        ReportCache.CachedReport second = cache.get("employees", "Alpha", "csv", writer(calls, "a,b\n"));
+
+        assertEquals(1, calls.get());
+        assertEquals(first.resource().getURI(), second.resource().getURI());
+        assertEquals(first.etag(), second.etag());
+        assertEquals(cache.etag("employees", "Alpha"), first.etag());
+        assertNotEquals(cache.etag("statistics", "Alpha"), first.etag());
+        assertEquals("a,b\n", Files.readString(Path.of(first.resource().getURI())));
+        assertEquals(1, cachedFiles());
+    }
+
+    @Test
+    void employeeChange_bumpsVersionAndDropsCachedFiles() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+        AtomicInteger calls = new AtomicInteger();
+        ReportCache.CachedReport before = cache.get("employees", null, "csv", writer(calls, "v1"));
+
+        cache.onEmployeeChanged(EmployeeChangedEvent.created(List.of(
+                new Employee("Jan Kowalski", "jan@a", "Alpha", Position.PROGRAMISTA, 8000))));
+
+        assertEquals(0, cache.size());
+        assertFalse(before.resource().exists());
+        ReportCache.CachedReport after = cache.get("employees", null, "csv", writer(calls, "v2"));
+        assertEquals(2, calls.get());
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals("v2", Files.readString(Path.of(after.resource().getURI())));
+    }
+
+    @Test
+    void handedOutReport_remainsReadableAfterItsFileIsDropped() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofBytes(10));
+        AtomicInteger calls = new AtomicInteger();
+        ReportCache.CachedReport invalidated = cache.get("employees", "Alpha", "csv", writer(calls, "alpha"));
+        cache.onEmployeeChanged(EmployeeChangedEvent.allDeleted());
+        ReportCache.CachedReport evicted = cache.get("employees", "Beta", "csv", writer(calls, "beta1"));
+        cache.get("employees", "Gamma", "csv", writer(calls, "gamma"));
+
+        assertFalse(invalidated.resource().exists());
+        assertFalse(evicted.resource().exists());
+        try (invalidated; InputStream in = invalidated.resource().getInputStream()) {
+            assertEquals("alpha", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (evicted; InputStream in = evicted.resource().getInputStream()) {
+            assertEquals(5, evicted.resource().contentLength());
+            assertEquals("beta1", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void get_reportFinishedAfterDataChange_isNotStoredAndCurrentVersionIsServed() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+        AtomicInteger calls = new AtomicInteger();
+        ReportCache.ReportWriter racing = out -> {
+            if (calls.incrementAndGet() == 1) {
+                cache.onEmployeeChanged(EmployeeChangedEvent.allDeleted());
+                out.write("v1".getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write("v2".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+
+        try (ReportCache.CachedReport report = cache.get("employees", null, "csv", racing);
+             InputStream in = report.resource().getInputStream()) {
+            assertEquals("v2", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(cache.etag("employees", null), report.etag());
+        }
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.size());
+        assertEquals(1, cachedFiles());
+    }
+
+    @Test
+    void store_evictsLeastRecentlyUsedReportsAboveSizeLimit() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofBytes(10));
+        AtomicInteger calls = new AtomicInteger();
+        ReportCache.CachedReport alpha = cache.get("employees", "Alpha", "csv", writer(calls, "aaaa"));
+        ReportCache.CachedReport beta = cache.get("employees", "Beta", "csv", writer(calls, "bbbb"));
+        cache.get("employees", "Alpha", "csv", writer(calls, "aaaa"));
+
+        cache.get("employees", "Gamma", "csv", writer(calls, "cccc"));
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.totalBytes());
+        assertTrue(alpha.resource().exists());
+        assertFalse(beta.resource().exists());
+        assertEquals(2, cachedFiles());
+    }
+
+    @Test
+    void get_concurrentMissesForSameReportShareOneGeneration() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReportCache.ReportWriter slow = out -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("x".getBytes(StandardCharsets.UTF_8));
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ReportCache.CachedReport> first = pool.submit(() -> cache.get("statistics", "Alpha", "pdf", slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ReportCache.CachedReport> second = pool.submit(() -> cache.get("statistics", "Alpha", "pdf", slow));
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS).etag(), second.get(5, TimeUnit.SECONDS).etag());
+            assertEquals(1, calls.get());
+            assertEquals(1, cachedFiles());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_whenWriterFails_removesTempFileAndWrapsException() throws Exception {
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+
+        assertThrows(FileStorageException.class, () -> cache.get("statistics", "Alpha", "pdf", out -> {
+            out.write(1);
+            throw new IOException("disk full");
+        }));
+        assertEquals(0, cachedFiles());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void firstUse_removesLeftoversFromPreviousRun() throws Exception {
+        Path dir = Files.createDirectories(reports.resolve("cache"));
+        Files.writeString(dir.resolve("employees-stale.csv"), "old");
+        ReportCache cache = new ReportCache(storageService, DataSize.ofMegabytes(1));
+
+        cache.get("employees", "Alpha", "csv", writer(new AtomicInteger(), "new"));
+
+        assertFalse(Files.exists(dir.resolve("employees-stale.csv")));
+        assertEquals(1, cachedFiles());
+    }
+}
@@ -5,17 +5,24 @@ import com.example.zad1.exception.FileStorageException;
 import com.example.zad1.model.CompanyStatistics;
 import com.example.zad1.model.Employee;
 import com.example.zad1.model.Position;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import org.junit.jupiter.api.*;
-import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +35,8 @@ public class ReportGeneratorServiceTest {
 
     private FileStorageService storageService;
     private EmployeeService employeeService;
+    private CompanyStatisticsStore companyStatistics;
+    private ReportCache reportCache;
     private ReportGeneratorService reportService;
 
     @BeforeEach
@@ -36,7 +45,9 @@ public class ReportGeneratorServiceTest {
         reports = Files.createTempDirectory("reports-rgs-");
         storageService = new FileStorageService(uploads.toString(), reports.toString());
         employeeService = mock(EmployeeService.class);
-        reportService = new ReportGeneratorService(employeeService, storageService);
+        companyStatistics = mock(CompanyStatisticsStore.class);
+        reportCache = new ReportCache(storageService, DataSize.ofMegabytes(10));
+        reportService = new ReportGeneratorService(employeeService, companyStatistics, reportCache, 2000);
     }
 
     @AfterEach
@@ -50,16 +61,38 @@ public class ReportGeneratorServiceTest {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void sorted(String company, Employee... employees) {
+        doAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(1);
+            for (Employee employee : employees) {
+                action.accept(employee);
+            }
+            return null;
+        }).when(employeeService).forEachEmployeeSorted(company == null ? isNull() : eq(company), any(Consumer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ofCompany(String company, Employee... employees) {
+        doAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(1);
+            for (Employee employee : employees) {
+                action.accept(employee);
+            }
+            return null;
+        }).when(employeeService).forEachEmployeeOfCompany(eq(company), any(Consumer.class));
+    }
+
     @Test
-    void generateCsv_allEmployees_sortedAndQuoted() throws Exception {
+    void generateCsv_allEmployees_keepsDatabaseOrderAndQuotes() throws Exception {
         Employee e1 = new Employee("Anna Kowalska", "anna@a", "Beta", Position.PROGRAMISTA, Position.PROGRAMISTA.getSalary());
         Employee e2 = new Employee("Jan Nowak", "jan@a", "alpha", Position.MANAGER, Position.MANAGER.getSalary());
         Employee e3 = new Employee("John, \"JJ\" Smith", "john@a", "Alpha", Position.PREZES, Position.PREZES.getSalary());
         Employee e4 = new Employee("Zoe Zee", "zoe@a", null, Position.STAZYSTA, Position.STAZYSTA.getSalary());
 
-        when(employeeService.getAllEmployees()).thenReturn(List.of(e1, e2, e3, e4));
+        sorted(null, e2, e3, e1, e4);
 
-        Resource res = reportService.generateCsv(null);
+        Resource res = reportService.generateCsv(null).resource();
         assertTrue(res.exists());
         String csv = Files.readString(Path.of(res.getURI()), StandardCharsets.UTF_8);
 
@@ -80,10 +113,10 @@ public class ReportGeneratorServiceTest {
         String company = "Alpha";
         Employee e1 = new Employee("A A", "a@a", company, Position.STAZYSTA, 3000);
         Employee e2 = new Employee("B B", "b@a", company, Position.PROGRAMISTA, 8000);
-        when(employeeService.getEmployeeByCompany(company)).thenReturn(List.of(e1, e2));
+        ofCompany(company, e1, e2);
 
-        Resource res = reportService.generateCsv(company);
-        assertTrue(Objects.requireNonNull(res.getFilename()).endsWith("employees-" + company + ".csv"));
+        Resource res = reportService.generateCsv(company).resource();
+        assertTrue(Objects.requireNonNull(res.getFilename()).matches("employees-[0-9a-f]{32}\\.csv"));
         String csv = Files.readString(Path.of(res.getURI()));
         String[] lines = csv.split("\r?\n");
 
@@ -96,29 +129,86 @@ public class ReportGeneratorServiceTest {
     }
 
     @Test
-    void generateCsv_whenWriteFails_wrapsAsFileStorageException() {
-        when(employeeService.getAllEmployees()).thenReturn(List.of());
+    void writeCsv_streamsUtf8RowsWithoutTouchingReportsDir() throws Exception {
+        sorted("Alpha", new Employee("Łukasz Żak", "lz@a", "Alpha", Position.MANAGER, 12000),
+                new Employee("Ola Nowak", "ola@a", "Alpha", Position.STAZYSTA, 3000));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.writeCsv("Alpha", out);
+
+        assertEquals("fullName,email,companyName,position,salary\n"
+                + "Łukasz Żak,lz@a,Alpha,MANAGER,12000\n"
+                + "Ola Nowak,ola@a,Alpha,STAZYSTA,3000\n", out.toString(StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(reports)) {
+            assertEquals(0, files.count());
+        }
+        verify(employeeService, never()).getAllEmployees();
+        verify(employeeService, never()).getEmployeeByCompany(any());
+    }
+
+    @Test
+    void streamCsv_writesSameRowsAndLeavesNoSpoolBehind() throws Exception {
+        sorted("Alpha", new Employee("Ola Nowak", "ola@a", "Alpha", Position.STAZYSTA, 3000));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.streamCsv("Alpha", out);
+
+        assertEquals("fullName,email,companyName,position,salary\n"
+                + "Ola Nowak,ola@a,Alpha,STAZYSTA,3000\n", out.toString(StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(reports.resolve("cache"))) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(1, reportCache.streamingStats().executions());
+    }
+
+    @Test
+    void generateCsv_whenWriteFails_wrapsAsFileStorageExceptionAndLeavesNoFiles() throws IOException {
+        doThrow(new UncheckedIOException(new IOException("io")))
+                .when(employeeService).forEachEmployeeSorted(isNull(), any());
+
+        assertThrows(FileStorageException.class, () -> reportService.generateCsv(null));
+        try (Stream<Path> files = Files.list(reports.resolve("cache"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void generateCsv_servesCachedFileUntilEmployeesChange() throws Exception {
+        sorted("Alpha", new Employee("A A", "a@a", "Alpha", Position.STAZYSTA, 3000));
 
-        Path expected = storageService.getReportsDir().resolve("employees.csv");
+        ReportCache.CachedReport first = reportService.generateCsv("Alpha");
+        ReportCache.CachedReport second = reportService.generateCsv("Alpha");
 
-        try (MockedStatic<Files> files = Mockito.mockStatic(Files.class)) {
-            files.when(() -> Files.write(eq(expected), any(byte[].class))).thenThrow(new IOException("io"));
-            files.when(() -> Files.createDirectories(any())).thenCallRealMethod();
-            files.when(() -> Files.exists(any())).thenCallRealMethod();
-            files.when(() -> Files.isReadable(any())).thenCallRealMethod();
+        assertEquals(first.resource().getURI(), second.resource().getURI());
+        assertEquals(first.etag(), second.etag());
+        assertEquals(first.etag(), reportService.csvETag("Alpha"));
+        assertNotEquals(first.etag(), reportService.generateCsv("Beta").etag());
+        verify(employeeService, times(1)).forEachEmployeeSorted(eq("Alpha"), any());
+    }
 
-            assertThrows(FileStorageException.class, () -> reportService.generateCsv(null));
+    @Test
+    void cachedCsv_servesWarmedReportWithoutQueryingEmployees() throws Exception {
+        sorted("Alpha", new Employee("A A", "a@a", "Alpha", Position.STAZYSTA, 3000));
+        assertTrue(reportService.cachedCsv("Alpha").isEmpty());
+        reportService.generateCsv("Alpha").close();
+
+        try (ReportCache.CachedReport cached = reportService.cachedCsv("Alpha").orElseThrow();
+             InputStream in = cached.resource().getInputStream()) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("A A,a@a,Alpha,STAZYSTA,3000"));
+            assertEquals(reportService.csvETag("Alpha"), cached.etag());
         }
+        assertTrue(reportService.cachedCsv("Beta").isEmpty());
+        verify(employeeService, times(1)).forEachEmployeeSorted(eq("Alpha"), any());
     }
 
     @Test
     void generateCsv_whenEnsureDirFails_wrapsAsFileStorageException() throws IOException {
-        when(employeeService.getAllEmployees()).thenReturn(List.of(new Employee("X Y", "x@y", "C", Position.STAZYSTA, 1)));
+        sorted(null, new Employee("X Y", "x@y", "C", Position.STAZYSTA, 1));
         Path fileAsDir = Files.createTempFile("not-a-dir-", ".tmp");
         try {
             FileStorageService spy = Mockito.spy(storageService);
             Mockito.doReturn(fileAsDir).when(spy).getReportsDir();
-            ReportGeneratorService svc = new ReportGeneratorService(employeeService, spy);
+            ReportGeneratorService svc = new ReportGeneratorService(employeeService, companyStatistics, new ReportCache(spy, DataSize.ofMegabytes(10)), 2000);
             assertThrows(FileStorageException.class, () -> svc.generateCsv(null));
         } finally {
             Files.deleteIfExists(fileAsDir);
@@ -135,7 +225,7 @@ public class ReportGeneratorServiceTest {
 
     @Test
     void generateCompanyStatisticsPdf_noStatsForCompany_throwsFileNotFound() {
-        when(employeeService.getCompanyStatistics()).thenReturn(Collections.emptyMap());
+        when(companyStatistics.get("Alpha")).thenReturn(Optional.empty());
         assertThrows(FileNotFoundException.class, () -> reportService.generateCompanyStatisticsPdf("Alpha"));
     }
 
@@ -144,16 +234,16 @@ public class ReportGeneratorServiceTest {
         String company = "Alpha";
         CompanyStatistics stats = new CompanyStatistics( company, 2, 10000.0, "Top Earner", 12000);
 
-        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("alpha", stats));
+        when(companyStatistics.get(company)).thenReturn(Optional.of(stats));
 
         Employee e1 = new Employee("A A", "a@a", company, Position.STAZYSTA, 3000);
         Employee e2 = new Employee("B B", "b@a", company, Position.PROGRAMISTA, 8000);
-        when(employeeService.getEmployeeByCompany(company)).thenReturn(List.of(e1, e2));
+        ofCompany(company, e1, e2);
 
-        Resource res = reportService.generateCompanyStatisticsPdf(company);
+        Resource res = reportService.generateCompanyStatisticsPdf(company).resource();
         assertNotNull(res);
         assertTrue(res.exists());
-        assertTrue(Objects.requireNonNull(res.getFilename()).endsWith("statistics-" + company + ".pdf"));
+        assertTrue(Objects.requireNonNull(res.getFilename()).matches("statistics-[0-9a-f]{32}\\.pdf"));
 
         byte[] firstBytes;
         try (InputStream is = res.getInputStream()) {
@@ -170,14 +260,14 @@ public class ReportGeneratorServiceTest {
 
     @Test
     void generateCompanyStatisticsPdf_whenEnsureDirFails_wrapsAsFileStorageException() throws IOException {
-        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("Firm", new CompanyStatistics("Firm",1, 10.0, "A A", 10)));
-        when(employeeService.getEmployeeByCompany("Firm")).thenReturn(List.of(new Employee("A A", "a@a", "Firm", Position.PROGRAMISTA, 10)));
+        when(companyStatistics.get("Firm")).thenReturn(Optional.of(new CompanyStatistics("Firm",1, 10.0, "A A", 10)));
+        ofCompany("Firm", new Employee("A A", "a@a", "Firm", Position.PROGRAMISTA, 10));
 
         Path fileAsDir = Files.createTempFile("not-a-dir-", ".tmp");
         try {
             FileStorageService spy = Mockito.spy(storageService);
             Mockito.doReturn(fileAsDir).when(spy).getReportsDir();
-            ReportGeneratorService svc = new ReportGeneratorService(employeeService, spy);
+            ReportGeneratorService svc = new ReportGeneratorService(employeeService, companyStatistics, new ReportCache(spy, DataSize.ofMegabytes(10)), 2000);
             assertThrows(FileStorageException.class, () -> svc.generateCompanyStatisticsPdf("Firm"));
         } finally {
             Files.deleteIfExists(fileAsDir);
@@ -189,9 +279,9 @@ public class ReportGeneratorServiceTest {
         Employee e1 = new Employee("Anna Kowalska", "anna@a", "Beta", null, 5000);
         Employee e3 = new Employee("Jan Nowak", "jan@a", "Alpha", Position.MANAGER, 8000);
 
-        when(employeeService.getAllEmployees()).thenReturn(Arrays.asList(e1, null, e3));
+        sorted(null, e1, null, e3);
 
-        Resource res = reportService.generateCsv(null);
+        Resource res = reportService.generateCsv(null).resource();
         assertTrue(res.exists());
 
         String csv = Files.readString(Path.of(res.getURI()), StandardCharsets.UTF_8);
@@ -202,20 +292,74 @@ public class ReportGeneratorServiceTest {
         assertTrue(Arrays.stream(lines).anyMatch(l -> l.contains("Jan Nowak,jan@a,Alpha,MANAGER,8000")));
     }
 
+    @Test
+    void writeCompanyStatisticsPdf_listsOnlyTheExactCompanyOfTheSummary() throws Exception {
+        when(companyStatistics.get("Tech")).thenReturn(Optional.of(new CompanyStatistics("Tech", 1, 3000.0, "A A", 3000)));
+        ofCompany("Tech", new Employee("A A", "a@tech", "Tech", Position.STAZYSTA, 3000));
+        sorted("Tech", new Employee("A A", "a@tech", "Tech", Position.STAZYSTA, 3000),
+                new Employee("B B", "b@techcorp", "TechCorp", Position.PROGRAMISTA, 8000));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeCompanyStatisticsPdf("Tech", out);
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            String text = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(text.contains("a@tech"));
+            assertFalse(text.contains("b@techcorp"));
+        }
+        verify(employeeService, never()).forEachEmployeeSorted(any(), any());
+    }
+
     @Test
     void generateCompanyStatisticsPdf_handlesNullEmployeeAndNullPosition() {
         String company = "Alpha";
         CompanyStatistics stats = new CompanyStatistics(company, 2, 10000.0, "Top Earner", 12000);
-        when(employeeService.getCompanyStatistics()).thenReturn(Map.of("Alpha", stats));
+        when(companyStatistics.get("Alpha")).thenReturn(Optional.of(stats));
 
         Employee e1 = new Employee("A A", "a@a", company, null, 3000);
         Employee e3 = new Employee("B B", "b@a", company, Position.PROGRAMISTA, 8000);
 
-        when(employeeService.getEmployeeByCompany(company))
-                .thenReturn(Arrays.asList(e1, null, e3));
+        ofCompany(company, e1, null, e3);
 
-        Resource res = reportService.generateCompanyStatisticsPdf(company);
+        Resource res = reportService.generateCompanyStatisticsPdf(company).resource();
         assertNotNull(res);
         assertTrue(res.exists());
     }
+
+    @Test
+    void writeCompanyStatisticsPdf_largeCompany_flushesRowsAcrossPages() throws Exception {
+        String company = "BigCorp";
+        int count = 3000;
+        when(companyStatistics.get(company)).thenReturn(Optional.of(new CompanyStatistics(company, count, 8000.0, "P 0", 8000)));
+        Employee[] employees = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            employees[i] = new Employee("P " + i, "p" + i + "@big", company, Position.PROGRAMISTA, 8000);
+        }
+        ofCompany(company, employees);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeCompanyStatisticsPdf(company, out);
+
+        assertTrue(reportService.isLargeStatisticsPdf(company));
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertTrue(pdf.getNumberOfPages() > 10);
+            String lastPage = PdfTextExtractor.getTextFromPage(pdf.getLastPage());
+            assertTrue(lastPage.contains("p" + (count - 1) + "@big"));
+            assertTrue(lastPage.contains("Email"));
+        }
+        try (Stream<Path> files = Files.walk(reports)) {
+            assertTrue(files.noneMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    void generateCsv_quotesValuesWithQuotesOrSurroundingWhitespace() throws Exception {
+        Employee e1 = new Employee("Anna \"A\" Nowak", "anna@a", " Alpha ", Position.STAZYSTA, 3000);
+        sorted("Alpha", e1);
+
+        Resource res = reportService.generateCsv("Alpha").resource();
+        String[] lines = Files.readString(Path.of(res.getURI()), StandardCharsets.UTF_8).split("\r?\n");
+
+        assertEquals("\"Anna \"\"A\"\" Nowak\",anna@a,\" Alpha \",STAZYSTA,3000", lines[1]);
+    }
 }
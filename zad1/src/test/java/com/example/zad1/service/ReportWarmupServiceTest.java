@@ -0,0 +1,99 @@
+package com.example.zad1.service;
+
+import com.example.zad1.config.ReportWarmupProperties;
+import com.example.zad1.dto.ReportWarmupStatus;
+import com.example.zad1.exception.FileNotFoundException;
+import com.example.zad1.model.ReportType;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReportWarmupServiceTest {
+
+    private final ReportGeneratorService reportGeneratorService = mock(ReportGeneratorService.class);
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private final ReportWarmupProperties.Spec csv = new ReportWarmupProperties.Spec(ReportType.CSV, null, "0 30 5 * * MON");
+    private final ReportWarmupProperties.Spec pdf = new ReportWarmupProperties.Spec(ReportType.PDF, "TechCorp", "0 35 5 * * MON");
+
+    private ReportWarmupService service(boolean enabled, ReportWarmupProperties.Spec... specs) {
+        ReportWarmupProperties properties = new ReportWarmupProperties(enabled, 2, ZoneId.of("Europe/Warsaw"), List.of(specs));
+        return new ReportWarmupService(reportGeneratorService, properties, scheduler);
+    }
+
+    @Test
+    void start_schedulesEveryReportWithItsCronWhenEnabled() {
+        service(true, csv, pdf).start();
+
+        verify(scheduler, times(2)).schedule(any(Runnable.class), any(CronTrigger.class));
+    }
+
+    @Test
+    void start_doesNothingWhenDisabled() {
+        ReportWarmupService service = service(false, csv, pdf);
+        service.start();
+
+        verifyNoInteractions(scheduler);
+        assertNull(service.getStatus().get(0).nextRunAt());
+    }
+
+    @Test
+    void run_publishesReportsToCacheAndRecordsTimings() {
+        ReportWarmupService service = service(true, csv, pdf);
+
+        service.run(csv);
+        service.run(pdf);
+        service.run(pdf);
+
+        verify(reportGeneratorService).generateCsv(null);
+        verify(reportGeneratorService, times(2)).generateCompanyStatisticsPdf("TechCorp");
+        List<ReportWarmupStatus> status = service.getStatus();
+        assertEquals(1, status.get(0).runs());
+        assertEquals(2, status.get(1).runs());
+        assertEquals("OK", status.get(1).lastOutcome());
+        assertFalse(status.get(1).running());
+        assertNotNull(status.get(1).lastStartedAt());
+        assertNotNull(status.get(1).lastDurationMs());
+        assertTrue(status.get(1).nextRunAt().isAfter(status.get(1).lastFinishedAt()));
+    }
+
+    @Test
+    void run_skipsLargePdfThatIsStreamedInsteadOfCached() {
+        when(reportGeneratorService.isLargeStatisticsPdf("TechCorp")).thenReturn(true);
+        ReportWarmupService service = service(true, pdf);
+
+        service.run(pdf);
+
+        verify(reportGeneratorService, never()).generateCompanyStatisticsPdf(any());
+        assertEquals("SKIPPED", service.getStatus().get(0).lastOutcome());
+    }
+
+    @Test
+    void run_recordsFailureAndKeepsSchedule() {
+        when(reportGeneratorService.generateCompanyStatisticsPdf("TechCorp"))
+                .thenThrow(new FileNotFoundException("Brak danych dla firmy: TechCorp"));
+        ReportWarmupService service = service(true, pdf);
+
+        service.run(pdf);
+
+        ReportWarmupStatus status = service.getStatus().get(0);
+        assertEquals("ERROR", status.lastOutcome());
+        assertEquals("Brak danych dla firmy: TechCorp", status.lastError());
+        assertNotNull(status.nextRunAt());
+    }
+
+    @Test
+    void spec_rejectsInvalidCronAndPdfWithoutCompany() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReportWarmupProperties.Spec(ReportType.CSV, null, "every monday"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReportWarmupProperties.Spec(ReportType.PDF, " ", "0 0 5 * * MON"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.zad1.service;
+
+import com.example.zad1.event.EmployeeChangedEvent;
+import com.example.zad1.event.EmployeeSnapshot;
+import com.example.zad1.model.Employee;
+import com.example.zad1.model.EmploymentStatus;
+import com.example.zad1.model.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private StatisticsService statistics;
+    private Employee jan;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new StatisticsService(employeeService, Duration.ofMinutes(1), 100);
+        jan = new Employee("Jan Kowalski", "jan@techcorp.com", "TechCorp", Position.PROGRAMISTA, 8000);
+    }
+
+    @Test
+    void repeatedReads_hitCache() {
+        when(employeeService.getAverageSalary()).thenReturn(9000.0);
+        when(employeeService.countEmployees()).thenReturn(3L);
+
+        statistics.getAverageSalary();
+        statistics.getAverageSalary();
+        statistics.countEmployees();
+        statistics.countEmployees();
+
+        verify(employeeService, times(1)).getAverageSalary();
+        verify(employeeService, times(1)).countEmployees();
+        assertEquals(1, statistics.cacheStats().get("averageSalary").hits());
+        assertEquals(1, statistics.cacheStats().get("averageSalary").misses());
+    }
+
+    @Test
+    void statusChange_evictsOnlyStatusCounts() {
+        when(employeeService.countByStatus()).thenReturn(Map.of(EmploymentStatus.ACTIVE, 1L));
+        when(employeeService.countByPosition()).thenReturn(Map.of(Position.PROGRAMISTA, 1L));
+        when(employeeService.getAverageSalaryByCompany("TechCorp")).thenReturn(8000.0);
+        statistics.countByStatus();
+        statistics.countByPosition();
+        statistics.getAverageSalaryByCompany("TechCorp");
+
+        EmployeeSnapshot before = EmployeeSnapshot.of(jan);
+        jan.setStatus(EmploymentStatus.ON_LEAVE);
+        statistics.onEmployeeChanged(EmployeeChangedEvent.updated(before, jan));
+
+        statistics.countByStatus();
+        statistics.countByPosition();
+        statistics.getAverageSalaryByCompany("TechCorp");
+        verify(employeeService, times(2)).countByStatus();
+        verify(employeeService, times(1)).countByPosition();
+        verify(employeeService, times(1)).getAverageSalaryByCompany("TechCorp");
+    }
+
+    @Test
+    void createdEmployee_evictsTotalsAndOwnCompanyAverageOnly() {
+        when(employeeService.countEmployees()).thenReturn(1L, 2L);
+        when(employeeService.getAverageSalaryByCompany("TechCorp")).thenReturn(8000.0, 9000.0);
+        when(employeeService.getAverageSalaryByCompany("SoftDev")).thenReturn(5000.0);
+        statistics.countEmployees();
+        statistics.getAverageSalaryByCompany("TechCorp");
+        statistics.getAverageSalaryByCompany("SoftDev");
+
+        statistics.onEmployeeChanged(EmployeeChangedEvent.created(List.of(jan)));
+
+        assertEquals(2L, statistics.countEmployees());
+        assertEquals(9000.0, statistics.getAverageSalaryByCompany("TechCorp"));
+        assertEquals(5000.0, statistics.getAverageSalaryByCompany("SoftDev"));
+        verify(employeeService, times(1)).getAverageSalaryByCompany("SoftDev");
+    }
+
+    @Test
+    void allDeleted_evictsEverything() {
+        when(employeeService.getAverageSalary()).thenReturn(9000.0, 0.0);
+        statistics.getAverageSalary();
+
+        statistics.onEmployeeChanged(EmployeeChangedEvent.allDeleted());
+
+        assertEquals(0.0, statistics.getAverageSalary());
+    }
+}
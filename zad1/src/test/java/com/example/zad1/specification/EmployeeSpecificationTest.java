@@ -47,6 +47,41 @@ class EmployeeSpecificationTest {
         assertThat(results).hasSize(2);
     }
 
+    @Test
+    void filterBy_companyName_matchesAnyPartOfTheName() {
+        employeeRepository.save(new Employee("Ewa Lis", "ewa@technosoft.com", "TechnoSoft", Position.PROGRAMISTA, 9000));
+
+        assertThat(employeeRepository.findAll(EmployeeSpecification.filterBy("corp", null, null)))
+                .extracting(Employee::getEmail)
+                .containsExactlyInAnyOrder("jan@test.com", "piotr@test.com");
+        assertThat(employeeRepository.findAll(EmployeeSpecification.filterBy(" TECH ", null, null)))
+                .extracting(Employee::getEmail)
+                .containsExactlyInAnyOrder("jan@test.com", "piotr@test.com", "ewa@technosoft.com");
+    }
+
+    @Test
+    void filterBy_companyName_treatsLikeWildcardsLiterally() {
+        employeeRepository.save(new Employee("Ewa Lis", "ewa@test.com", "100% Data_Lab", Position.PROGRAMISTA, 9000));
+        employeeRepository.save(new Employee("Adam Lis", "adam@test.com", "1000 DataXLab", Position.PROGRAMISTA, 9000));
+        employeeRepository.save(new Employee("Ola Lis", "ola@test.com", "Back\\Slash", Position.PROGRAMISTA, 9000));
+
+        assertThat(employeeRepository.findAll(EmployeeSpecification.filterBy("0% data_", null, null)))
+                .extracting(Employee::getEmail)
+                .containsExactly("ewa@test.com");
+        assertThat(employeeRepository.findAll(EmployeeSpecification.filterBy("%", null, null)))
+                .extracting(Employee::getEmail)
+                .containsExactly("ewa@test.com");
+        assertThat(employeeRepository.findAll(EmployeeSpecification.filterBy("k\\s", null, null)))
+                .extracting(Employee::getEmail)
+                .containsExactly("ola@test.com");
+    }
+
+    @Test
+    void companyContains_escapesWildcards() {
+        assertThat(EmployeeSpecification.companyContains(" A_b%c\\ ")).isEqualTo("%a\\_b\\%c\\\\%");
+        assertThat(EmployeeSpecification.companyContains("  ")).isNull();
+    }
+
     @Test
     void filterBy_minSalary_shouldFilterCorrectly() {
         Specification<Employee> spec = EmployeeSpecification.filterBy(null, 12000, null);
@@ -78,4 +113,15 @@ class EmployeeSpecificationTest {
 
         assertThat(results).hasSize(4);
     }
-}
\ No newline at end of file
+
+    @Test
+    void salaryBelowPositionBase_shouldReturnOnlyUnderpaidEmployeesWithPosition() {
+        employeeRepository.save(new Employee("Igor Ivanov", "igor@test.com", "TechCorp", Position.STAZYSTA, 29));
+        employeeRepository.save(new Employee("Ewa Lis", "ewa@test.com", "TechCorp", null, 10));
+
+        List<Employee> results = employeeRepository.findAll(EmployeeSpecification.salaryBelowPositionBase());
+
+        assertThat(results).extracting(Employee::getEmail)
+                .containsExactly("igor@test.com");
+    }
+}